@@ -0,0 +1,1142 @@
+package com.openpillars.headless;
+
+import com.openpillars.OpenPillars;
+import net.md_5.bungee.api.ChatMessageType;
+import net.md_5.bungee.api.chat.BaseComponent;
+import org.bukkit.Bukkit;
+import org.bukkit.GameMode;
+import org.bukkit.Keyed;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Registry;
+import org.bukkit.Server;
+import org.bukkit.UnsafeValues;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.damage.DamageSource;
+import org.bukkit.damage.DamageType;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.enchantments.EnchantmentTarget;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityDamageEvent;
+import org.bukkit.event.entity.PlayerDeathEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemFactory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.plugin.java.JavaPluginLoader;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Stand-in server built from proxies, so the plugin and version-dependent
+ * code such as XMaterial can run outside of a running Minecraft server.
+ *
+ * It knows one world, the players added through {@link #addPlayer(String)},
+ * and just enough of the item, registry, scheduler and plugin manager APIs
+ * for the engine's hot paths. Anything not handled returns null, zero or false.
+ *
+ * By default scheduled tasks never run and events reach no listeners, so
+ * benchmarks drive the code under test directly. Once {@link #setLive(boolean)
+ * live}, tasks run on {@link #tick()} and events go to registered listeners in
+ * priority order, and the server-side halves of block breaks, placements,
+ * damage, deaths, joins and quits are available to play a game without a
+ * Minecraft server. Exceptions thrown by tasks and listeners are logged and
+ * counted instead of propagating, like on a real server.
+ */
+public final class HeadlessServer {
+
+    private static final String MINECRAFT_VERSION = "1.21.1";
+    private static final String WORLD_NAME = "world";
+    private static final Object[] NO_ARGS = new Object[0];
+    private static final double MAX_HEALTH = 20;
+
+    // Returned by an answer to fall back to the default value
+    private static final Object DEFAULT = new Object();
+
+    private static final Map<UUID, Player> players = new LinkedHashMap<>();
+    private static final Map<UUID, PlayerState> playerStates = new ConcurrentHashMap<>();
+    private static final Map<String, PluginCommand> commands = new HashMap<>();
+    private static final Map<Class<?>, Registry<?>> registries = new ConcurrentHashMap<>();
+    private static final Map<Long, Material> blocks = new HashMap<>();
+    private static final TaskQueue tasks = new TaskQueue();
+    private static final AtomicLong errors = new AtomicLong();
+    private static volatile List<EventListener> listeners = Collections.emptyList();
+    private static volatile boolean live;
+    private static World world;
+    private static File worldContainer;
+    private static Logger logger;
+
+    private HeadlessServer() {
+    }
+
+    /**
+     * Installs the stand-in server if no server is set yet
+     */
+    public static synchronized void install() {
+        if (Bukkit.getServer() != null) return;
+
+        try {
+            worldContainer = Files.createTempDirectory("openpillars-worlds").toFile();
+            worldContainer.deleteOnExit();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not create a world container", e);
+        }
+        world = newWorld(WORLD_NAME);
+
+        logger = Logger.getLogger("HeadlessServer");
+        PluginManager pluginManager = stub(PluginManager.class, HeadlessServer::answerPluginManager);
+        BukkitScheduler scheduler = stub(BukkitScheduler.class, HeadlessServer::answerScheduler);
+        ItemFactory itemFactory = stub(ItemFactory.class, HeadlessServer::answerItemFactory);
+        UnsafeValues unsafe = stub(UnsafeValues.class, (proxy, method, args) ->
+                method.getName().equals("createDamageSourceBuilder") ? newDamageSourceBuilder((DamageType) args[0]) : DEFAULT);
+
+        Server server = stub(Server.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getName":
+                    return "HeadlessServer";
+                case "getVersion":
+                    return "headless (MC: " + MINECRAFT_VERSION + ")";
+                case "getBukkitVersion":
+                    return MINECRAFT_VERSION + "-R0.1-SNAPSHOT";
+                case "getLogger":
+                    return logger;
+                case "getPluginManager":
+                    return pluginManager;
+                case "getScheduler":
+                    return scheduler;
+                case "getItemFactory":
+                    return itemFactory;
+                case "getUnsafe":
+                    return unsafe;
+                case "getRegistry":
+                    return registries.computeIfAbsent((Class<?>) args[0], HeadlessServer::newRegistry);
+                case "getWorld":
+                    return args[0] instanceof UUID
+                            ? (world.getUID().equals(args[0]) ? world : null)
+                            : (WORLD_NAME.equals(args[0]) ? world : null);
+                case "getWorlds":
+                    return Collections.singletonList(world);
+                case "getWorldContainer":
+                    return worldContainer;
+                case "getPlayer":
+                case "getPlayerExact":
+                    return args[0] instanceof UUID ? players.get(args[0]) : findPlayer((String) args[0]);
+                case "getOnlinePlayers":
+                    return Collections.unmodifiableCollection(new ArrayList<>(players.values()));
+                case "getPluginCommand":
+                    return commands.get(args[0]);
+                case "isPrimaryThread":
+                    return true;
+                default:
+                    return DEFAULT;
+            }
+        });
+        Bukkit.setServer(server);
+    }
+
+    /**
+     * Loads OpenPillars from the built resources and enables it.
+     * Only a live server marks it enabled, which lets it schedule
+     * background work such as pillar prebuilding.
+     * @param dataFolder A folder for the plugin's files, empty or with a config to use
+     * @return The enabled plugin
+     */
+    public static OpenPillars loadPlugin(File dataFolder) {
+        install();
+
+        PluginDescriptionFile description = new PluginDescriptionFile("OpenPillars", "headless", OpenPillars.class.getName());
+        @SuppressWarnings("deprecation")
+        JavaPluginLoader loader = new JavaPluginLoader(Bukkit.getServer());
+        OpenPillars plugin = new OpenPillars(loader, description, dataFolder, new File(dataFolder, "OpenPillars.jar")) {
+        };
+        commands.put("pillars", newCommand("pillars", plugin));
+        if (live) {
+            setEnabled(plugin, true);
+        } else {
+            plugin.onEnable();
+        }
+        return plugin;
+    }
+
+    /**
+     * Disables a plugin loaded by {@link #loadPlugin(File)}
+     * @param plugin The plugin
+     */
+    public static void unloadPlugin(OpenPillars plugin) {
+        if (plugin.isEnabled()) {
+            setEnabled(plugin, false);
+        } else {
+            plugin.onDisable();
+        }
+    }
+
+    private static void setEnabled(JavaPlugin plugin, boolean enabled) {
+        try {
+            Method setEnabled = JavaPlugin.class.getDeclaredMethod("setEnabled", boolean.class);
+            setEnabled.setAccessible(true);
+            setEnabled.invoke(plugin, enabled);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Could not " + (enabled ? "enable " : "disable ") + plugin.getName(), e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not reach JavaPlugin#setEnabled", e);
+        }
+    }
+
+    /**
+     * Switches between benchmark and live mode. Only tasks scheduled and
+     * listeners registered while live are run, so switch before loading the plugin.
+     * @param enabled true to run tasks on {@link #tick()} and deliver events
+     */
+    public static void setLive(boolean enabled) {
+        live = enabled;
+    }
+
+    /**
+     * Advances the server by one tick, running every task due in it
+     * @return The number of tasks run
+     */
+    public static int tick() {
+        return tasks.runTick();
+    }
+
+    /**
+     * Gets the ticks run so far
+     * @return The current tick
+     */
+    public static long getCurrentTick() {
+        return tasks.getCurrentTick();
+    }
+
+    /**
+     * Gets the tasks waiting to run, repeating tasks included
+     * @return The number of scheduled tasks
+     */
+    public static int getPendingTasks() {
+        return tasks.size();
+    }
+
+    /**
+     * Gets the number of exceptions thrown by tasks and listeners
+     * @return The error count since the server was installed
+     */
+    public static long getErrors() {
+        return errors.get();
+    }
+
+    /**
+     * Adds an online player standing at the world spawn. An existing player
+     * of the same name is replaced, like after a reconnect.
+     * @param name The player's name
+     * @return The player
+     */
+    public static Player addPlayer(String name) {
+        Player player = newPlayer(name);
+        synchronized (HeadlessServer.class) {
+            players.put(player.getUniqueId(), player);
+        }
+        if (live) {
+            callEvent(new PlayerJoinEvent(player, name + " joined the game"));
+        }
+        return player;
+    }
+
+    /**
+     * Disconnects a player, firing the quit event first when live
+     * @param player The player
+     */
+    public static void quit(Player player) {
+        if (live) {
+            callEvent(new PlayerQuitEvent(player, player.getName() + " left the game"));
+        }
+        synchronized (HeadlessServer.class) {
+            players.remove(player.getUniqueId(), player);
+        }
+    }
+
+    /**
+     * Removes every player added so far
+     */
+    public static synchronized void removePlayers() {
+        players.clear();
+        playerStates.clear();
+    }
+
+    /**
+     * Gets the one world of the server
+     * @return The world
+     */
+    public static World getWorld() {
+        return world;
+    }
+
+    /**
+     * Gets the number of non-air blocks in the world
+     * @return The block count
+     */
+    public static int getBlockCount() {
+        synchronized (blocks) {
+            return blocks.size();
+        }
+    }
+
+    /**
+     * Moves a player the way a client would, through the move event
+     * @param player The player
+     * @param to The destination
+     * @return true if the move was allowed
+     */
+    public static boolean move(Player player, Location to) {
+        PlayerMoveEvent event = new PlayerMoveEvent(player, player.getLocation(), to.clone());
+        callEvent(event);
+        if (event.isCancelled()) return false;
+
+        player.teleport(event.getTo());
+        return true;
+    }
+
+    /**
+     * Breaks a block for a player, through the break event
+     * @param player The player
+     * @param block The block
+     * @return true if the server broke the block, false if a listener cancelled it
+     */
+    public static boolean breakBlock(Player player, Block block) {
+        BlockBreakEvent event = new BlockBreakEvent(block, player);
+        callEvent(event);
+        if (event.isCancelled()) return false;
+
+        block.setType(Material.AIR);
+        return true;
+    }
+
+    /**
+     * Places a block for a player, through the place event
+     * @param player The player
+     * @param block The block to replace
+     * @param material The placed material
+     * @return true if the block was placed
+     */
+    public static boolean placeBlock(Player player, Block block, Material material) {
+        BlockPlaceEvent event = new BlockPlaceEvent(block, block.getState(), block.getRelative(0, -1, 0),
+                new ItemStack(material), player, true, EquipmentSlot.HAND);
+        callEvent(event);
+        if (event.isCancelled()) return false;
+
+        block.setType(material);
+        return true;
+    }
+
+    /**
+     * Lets a player fall out of the world, taking void damage until they die
+     * @param player The player
+     * @return true if the player died
+     */
+    public static boolean fallIntoVoid(Player player) {
+        Location below = player.getLocation();
+        below.setY(world.getMinHeight() - 65);
+        player.teleport(below);
+
+        DamageSource source = DamageSource.builder(DamageType.OUT_OF_WORLD).build();
+        PlayerState state = playerStates.get(player.getUniqueId());
+        int deaths = state.deaths;
+        while (state.deaths == deaths) {
+            EntityDamageEvent event = new EntityDamageEvent(player, EntityDamageEvent.DamageCause.VOID, source, 4);
+            if (!damage(player, event)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Lets a player hit another one
+     * @param attacker The attacking player
+     * @param victim The player hit
+     * @param amount The damage
+     * @return true if the hit killed the victim
+     */
+    public static boolean attack(Player attacker, Player victim, double amount) {
+        DamageSource source = DamageSource.builder(DamageType.PLAYER_ATTACK)
+                .withCausingEntity(attacker)
+                .withDirectEntity(attacker)
+                .build();
+        EntityDamageByEntityEvent event = new EntityDamageByEntityEvent(attacker, victim,
+                EntityDamageEvent.DamageCause.ENTITY_ATTACK, source, amount);
+        PlayerState state = playerStates.get(victim.getUniqueId());
+        int deaths = state.deaths;
+        return damage(victim, event) && state.deaths != deaths;
+    }
+
+    /**
+     * Applies damage after the listeners had their say, killing the player at zero health
+     * @return false if the damage was cancelled
+     */
+    private static boolean damage(Player player, EntityDamageEvent event) {
+        callEvent(event);
+        if (event.isCancelled()) return false;
+
+        PlayerState state = playerStates.get(player.getUniqueId());
+        state.lastDamageCause = event;
+        state.health = Math.max(0, state.health - event.getFinalDamage());
+        if (state.health == 0) {
+            if (event instanceof EntityDamageByEntityEvent
+                    && ((EntityDamageByEntityEvent) event).getDamager() instanceof Player) {
+                state.killer = (Player) ((EntityDamageByEntityEvent) event).getDamager();
+            }
+            die(player, event.getDamageSource());
+        }
+        return true;
+    }
+
+    /**
+     * Kills a player and respawns them right away, as if the client clicked respawn
+     */
+    @SuppressWarnings("deprecation")
+    private static void die(Player player, DamageSource source) {
+        PlayerState state = playerStates.get(player.getUniqueId());
+        callEvent(new PlayerDeathEvent(player, source, new ArrayList<>(), 0, player.getName() + " died"));
+
+        PlayerRespawnEvent respawn = new PlayerRespawnEvent(player, world.getSpawnLocation(), false, false,
+                PlayerRespawnEvent.RespawnReason.DEATH);
+        callEvent(respawn);
+        state.location = respawn.getRespawnLocation().clone();
+        state.health = MAX_HEALTH;
+        state.killer = null;
+        state.deaths++;
+    }
+
+    /**
+     * Delivers an event to the listeners registered while live
+     * @param event The event
+     */
+    public static void callEvent(Event event) {
+        for (EventListener listener : listeners) {
+            if (!listener.type.isInstance(event)) continue;
+            if (listener.ignoreCancelled && event instanceof Cancellable && ((Cancellable) event).isCancelled()) continue;
+
+            try {
+                listener.method.invoke(listener.listener, event);
+            } catch (InvocationTargetException e) {
+                fail("Could not pass " + event.getEventName() + " to " + listener.listener.getClass().getName(), e.getCause());
+            } catch (IllegalAccessException e) {
+                fail("Could not access " + listener.method, e);
+            }
+        }
+    }
+
+    private static void fail(String message, Throwable cause) {
+        errors.incrementAndGet();
+        logger.log(Level.SEVERE, message, cause);
+    }
+
+    private static Player newPlayer(String name) {
+        UUID uuid = UUID.nameUUIDFromBytes(("OfflinePlayer:" + name).getBytes(StandardCharsets.UTF_8));
+        PlayerState state = new PlayerState(new Location(world, 0.5, 64, 0.5));
+        playerStates.put(uuid, state);
+        PlayerInventory inventory = stub(PlayerInventory.class, (proxy, method, args) ->
+                method.getName().equals("addItem") || method.getName().equals("removeItem") ? new HashMap<>() : DEFAULT);
+        Player.Spigot spigot = new HeadlessSpigot();
+
+        return stub(Player.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getUniqueId":
+                    return uuid;
+                case "getName":
+                case "getDisplayName":
+                case "getPlayerListName":
+                    return name;
+                case "getLocation":
+                    if (args.length == 0) return state.location.clone();
+                    return DEFAULT;
+                case "getWorld":
+                    return state.location.getWorld();
+                case "teleport":
+                    if (args[0] instanceof Location) {
+                        state.location = ((Location) args[0]).clone();
+                        return true;
+                    }
+                    return false;
+                case "getGameMode":
+                    return state.gameMode;
+                case "setGameMode":
+                    state.gameMode = (GameMode) args[0];
+                    return DEFAULT;
+                case "getHealth":
+                    return state.health;
+                case "setHealth":
+                    state.health = (double) args[0];
+                    return DEFAULT;
+                case "getMaxHealth":
+                    return MAX_HEALTH;
+                case "getFoodLevel":
+                    return state.foodLevel;
+                case "setFoodLevel":
+                    state.foodLevel = (int) args[0];
+                    return DEFAULT;
+                case "isDead":
+                    return state.health <= 0;
+                case "getKiller":
+                    return state.killer;
+                case "getLastDamageCause":
+                    return state.lastDamageCause;
+                case "setLastDamageCause":
+                    state.lastDamageCause = (EntityDamageEvent) args[0];
+                    return DEFAULT;
+                case "getInventory":
+                    return inventory;
+                case "spigot":
+                    return spigot;
+                case "isOnline":
+                    synchronized (HeadlessServer.class) {
+                        return players.get(uuid) == proxy;
+                    }
+                case "isValid":
+                case "hasPermission":
+                case "isOp":
+                    return true;
+                default:
+                    return DEFAULT;
+            }
+        });
+    }
+
+    private static Player findPlayer(String name) {
+        for (Player player : players.values()) {
+            if (player.getName().equalsIgnoreCase(name)) return player;
+        }
+        return null;
+    }
+
+    private static World newWorld(String name) {
+        UUID uid = UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8));
+        World[] self = new World[1];
+        self[0] = stub(World.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getName":
+                    return name;
+                case "getUID":
+                    return uid;
+                case "getWorldFolder":
+                    return new File(worldContainer, name);
+                case "getSpawnLocation":
+                    return new Location(self[0], 0.5, 64, 0.5);
+                case "getMinHeight":
+                    return -64;
+                case "getMaxHeight":
+                    return 320;
+                case "getPlayers":
+                    return new ArrayList<>(players.values());
+                case "getBlockAt":
+                    if (args.length == 1) {
+                        Location location = (Location) args[0];
+                        return newBlock(self[0], location.getBlockX(), location.getBlockY(), location.getBlockZ());
+                    }
+                    return newBlock(self[0], (int) args[0], (int) args[1], (int) args[2]);
+                default:
+                    return DEFAULT;
+            }
+        });
+        return self[0];
+    }
+
+    private static Block newBlock(World world, int x, int y, int z) {
+        long key = ((long) x & 0x1FFFFF) << 43 | ((long) z & 0x1FFFFF) << 22 | (y & 0x3FFFFF);
+        return stub(Block.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getX":
+                    return x;
+                case "getY":
+                    return y;
+                case "getZ":
+                    return z;
+                case "getWorld":
+                    return world;
+                case "getLocation":
+                    if (args.length == 0) return new Location(world, x, y, z);
+                    return DEFAULT;
+                case "getRelative":
+                    if (args.length == 3) return newBlock(world, x + (int) args[0], y + (int) args[1], z + (int) args[2]);
+                    return DEFAULT;
+                case "getType":
+                    return getType(key);
+                case "isEmpty":
+                    return getType(key) == Material.AIR;
+                case "getState":
+                    return newBlockState((Block) proxy, getType(key));
+                case "setType":
+                    synchronized (blocks) {
+                        if (args[0] == Material.AIR) {
+                            blocks.remove(key);
+                        } else {
+                            blocks.put(key, (Material) args[0]);
+                        }
+                    }
+                    return DEFAULT;
+                case "hashCode":
+                    if (args.length == 0) return Long.hashCode(key);
+                    return DEFAULT;
+                case "equals":
+                    if (args.length == 1 && args[0] instanceof Block) {
+                        Block other = (Block) args[0];
+                        return other.getWorld() == world && other.getX() == x && other.getY() == y && other.getZ() == z;
+                    }
+                    return DEFAULT;
+                default:
+                    return DEFAULT;
+            }
+        });
+    }
+
+    private static Material getType(long key) {
+        synchronized (blocks) {
+            return blocks.getOrDefault(key, Material.AIR);
+        }
+    }
+
+    /**
+     * Snapshot of a block's type, as handed to place events
+     */
+    private static BlockState newBlockState(Block block, Material type) {
+        return stub(BlockState.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getBlock":
+                    return block;
+                case "getType":
+                    return type;
+                case "getWorld":
+                    return block.getWorld();
+                case "getX":
+                    return block.getX();
+                case "getY":
+                    return block.getY();
+                case "getZ":
+                    return block.getZ();
+                case "getLocation":
+                    if (args.length == 0) return block.getLocation();
+                    return DEFAULT;
+                default:
+                    return DEFAULT;
+            }
+        });
+    }
+
+    private static BukkitTask newTask() {
+        boolean[] cancelled = {false};
+        return stub(BukkitTask.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "cancel":
+                    cancelled[0] = true;
+                    return DEFAULT;
+                case "isCancelled":
+                    return cancelled[0];
+                default:
+                    return DEFAULT;
+            }
+        });
+    }
+
+    private static Object answerScheduler(Object proxy, Method method, Object[] args) {
+        if (!live) {
+            return method.getReturnType() == BukkitTask.class ? newTask() : DEFAULT;
+        }
+        switch (method.getName()) {
+            case "runTask":
+            case "runTaskAsynchronously":
+                return tasks.schedule((Plugin) args[0], args[1], 0, -1);
+            case "runTaskLater":
+            case "runTaskLaterAsynchronously":
+                return tasks.schedule((Plugin) args[0], args[1], (long) args[2], -1);
+            case "runTaskTimer":
+            case "runTaskTimerAsynchronously":
+                return tasks.schedule((Plugin) args[0], args[1], (long) args[2], (long) args[3]);
+            case "cancelTask":
+                tasks.cancel((int) args[0]);
+                return DEFAULT;
+            case "cancelTasks":
+                tasks.cancelAll();
+                return DEFAULT;
+            default:
+                return DEFAULT;
+        }
+    }
+
+    private static Object answerPluginManager(Object proxy, Method method, Object[] args) {
+        if (live && method.getName().equals("registerEvents")) {
+            register((Listener) args[0]);
+        } else if (method.getName().equals("callEvent")) {
+            callEvent((Event) args[0]);
+        }
+        return DEFAULT;
+    }
+
+    /**
+     * Adds the event handlers of a listener, keeping the list ordered by priority
+     */
+    @SuppressWarnings("unchecked")
+    private static synchronized void register(Listener listener) {
+        List<EventListener> updated = new ArrayList<>(listeners);
+        for (Method method : listener.getClass().getMethods()) {
+            EventHandler handler = method.getAnnotation(EventHandler.class);
+            if (handler == null || method.getParameterCount() != 1
+                    || !Event.class.isAssignableFrom(method.getParameterTypes()[0])) continue;
+
+            method.setAccessible(true);
+            updated.add(new EventListener(listener, method, (Class<? extends Event>) method.getParameterTypes()[0],
+                    handler.priority().getSlot(), handler.ignoreCancelled()));
+        }
+        // Stable, so handlers of the same priority run in registration order
+        updated.sort(Comparator.comparingInt(registered -> registered.priority));
+        listeners = Collections.unmodifiableList(updated);
+    }
+
+    private static DamageSource.Builder newDamageSourceBuilder(DamageType type) {
+        Entity[] entities = new Entity[2];
+        return stub(DamageSource.Builder.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "withCausingEntity":
+                    entities[0] = (Entity) args[0];
+                    return proxy;
+                case "withDirectEntity":
+                    entities[1] = (Entity) args[0];
+                    return proxy;
+                case "build":
+                    Entity causing = entities[0];
+                    Entity direct = entities[1];
+                    return stub(DamageSource.class, (source, sourceMethod, sourceArgs) -> {
+                        switch (sourceMethod.getName()) {
+                            case "getDamageType":
+                                return type;
+                            case "getCausingEntity":
+                                return causing;
+                            case "getDirectEntity":
+                                return direct;
+                            case "isIndirect":
+                                return causing != direct;
+                            default:
+                                return DEFAULT;
+                        }
+                    });
+                default:
+                    return method.getReturnType().isInstance(proxy) ? proxy : DEFAULT;
+            }
+        });
+    }
+
+    private static PluginCommand newCommand(String name, Plugin owner) {
+        try {
+            Constructor<PluginCommand> constructor = PluginCommand.class.getDeclaredConstructor(String.class, Plugin.class);
+            constructor.setAccessible(true);
+            return constructor.newInstance(name, owner);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create command /" + name, e);
+        }
+    }
+
+    private static Object answerItemFactory(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "getItemMeta":
+                return newItemMeta(new HashMap<>(), new LinkedHashMap<>());
+            case "isApplicable":
+                return true;
+            case "asMetaFor":
+                return args[0];
+            case "updateMaterial":
+                return args[1];
+            case "equals":
+                if (args.length == 2) return args[0] == args[1];
+                return DEFAULT;
+            default:
+                return DEFAULT;
+        }
+    }
+
+    /**
+     * Item meta that keeps whatever its setters are given, enough for names, lore and enchantments
+     */
+    private static ItemMeta newItemMeta(Map<String, Object> properties, Map<Enchantment, Integer> enchants) {
+        return stub(ItemMeta.class, (proxy, method, args) -> {
+            String name = method.getName();
+            switch (name) {
+                case "clone":
+                    return newItemMeta(new HashMap<>(properties), new LinkedHashMap<>(enchants));
+                case "addEnchant":
+                    enchants.put((Enchantment) args[0], (Integer) args[1]);
+                    return true;
+                case "removeEnchant":
+                    return enchants.remove(args[0]) != null;
+                case "hasEnchants":
+                    return !enchants.isEmpty();
+                case "hasEnchant":
+                    return enchants.containsKey(args[0]);
+                case "getEnchantLevel":
+                    return enchants.getOrDefault(args[0], 0);
+                case "getEnchants":
+                    return Collections.unmodifiableMap(new LinkedHashMap<>(enchants));
+                default:
+                    break;
+            }
+            if (name.startsWith("set") && args.length == 1) {
+                properties.put(name.substring(3), args[0]);
+                return DEFAULT;
+            }
+            if (name.startsWith("get") && args.length == 0 && properties.containsKey(name.substring(3))) {
+                return properties.get(name.substring(3));
+            }
+            if (name.startsWith("has") && args.length == 0) {
+                return properties.get(name.substring(3)) != null;
+            }
+            return DEFAULT;
+        });
+    }
+
+    /**
+     * Registry that only knows enchantments and damage types, created on first lookup.
+     * Every other registry is empty, which is enough for the API's registry constants to load.
+     */
+    private static Registry<?> newRegistry(Class<?> type) {
+        Map<NamespacedKey, Keyed> entries = new ConcurrentHashMap<>();
+        return stub(Registry.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "get":
+                case "getOrThrow":
+                    return lookup(type, entries, (NamespacedKey) args[0]);
+                case "match":
+                    NamespacedKey key = NamespacedKey.fromString(((String) args[0]).toLowerCase());
+                    return key != null ? lookup(type, entries, key) : null;
+                case "iterator":
+                    return new ArrayList<>(entries.values()).iterator();
+                case "stream":
+                    return new ArrayList<>(entries.values()).stream();
+                default:
+                    return DEFAULT;
+            }
+        });
+    }
+
+    private static Keyed lookup(Class<?> type, Map<NamespacedKey, Keyed> entries, NamespacedKey key) {
+        if (type == Enchantment.class) {
+            return entries.computeIfAbsent(key, HeadlessEnchantment::new);
+        }
+        if (type == DamageType.class) {
+            return entries.computeIfAbsent(key, damageKey -> stub(DamageType.class, (proxy, method, args) ->
+                    method.getName().equals("getKey") ? damageKey : DEFAULT));
+        }
+        return null;
+    }
+
+    private interface Answer {
+        Object answer(Object proxy, Method method, Object[] args) throws Throwable;
+    }
+
+    private static <T> T stub(Class<T> type, Answer answer) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            Object[] arguments = args != null ? args : NO_ARGS;
+            Object result = answer.answer(proxy, method, arguments);
+            if (result != DEFAULT) return result;
+
+            switch (method.getName()) {
+                case "hashCode":
+                    if (arguments.length == 0) return System.identityHashCode(proxy);
+                    break;
+                case "equals":
+                    if (arguments.length == 1) return proxy == arguments[0];
+                    break;
+                case "toString":
+                    if (arguments.length == 0) return "Headless" + type.getSimpleName();
+                    break;
+                default:
+                    break;
+            }
+            return defaultValue(method.getReturnType());
+        }));
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) return null;
+        if (type == boolean.class) return false;
+        if (type == char.class) return '\0';
+        if (type == long.class) return 0L;
+        if (type == float.class) return 0f;
+        if (type == double.class) return 0d;
+        if (type == byte.class) return (byte) 0;
+        if (type == short.class) return (short) 0;
+        return 0;
+    }
+
+    /**
+     * What the server knows about a player beyond the API objects
+     */
+    private static final class PlayerState {
+        private volatile Location location;
+        private volatile GameMode gameMode = GameMode.SURVIVAL;
+        private volatile double health = MAX_HEALTH;
+        private volatile int foodLevel = 20;
+        private volatile int deaths;
+        private volatile Player killer;
+        private volatile EntityDamageEvent lastDamageCause;
+
+        private PlayerState(Location location) {
+            this.location = location;
+        }
+    }
+
+    /**
+     * One event handler method of a registered listener
+     */
+    private static final class EventListener {
+        private final Listener listener;
+        private final Method method;
+        private final Class<? extends Event> type;
+        private final int priority;
+        private final boolean ignoreCancelled;
+
+        private EventListener(Listener listener, Method method, Class<? extends Event> type, int priority, boolean ignoreCancelled) {
+            this.listener = listener;
+            this.method = method;
+            this.type = type;
+            this.priority = priority;
+            this.ignoreCancelled = ignoreCancelled;
+        }
+    }
+
+    /**
+     * Tasks scheduled while live, ordered by the tick they are due in.
+     * Every task runs on the thread calling {@link #tick()}, async ones included,
+     * and a delay below one tick means the next tick like on a real server.
+     */
+    private static final class TaskQueue {
+        private final PriorityQueue<ScheduledTask> due = new PriorityQueue<>(
+                Comparator.comparingLong((ScheduledTask task) -> task.nextRun).thenComparingInt(task -> task.id));
+        private final Map<Integer, ScheduledTask> scheduled = new HashMap<>();
+        private int nextId = 1;
+        private long currentTick;
+
+        synchronized BukkitTask schedule(Plugin owner, Object body, long delay, long period) {
+            ScheduledTask task = new ScheduledTask(nextId++, owner, body, period > 0 ? period : -1);
+            task.nextRun = currentTick + Math.max(1, delay);
+            scheduled.put(task.id, task);
+            due.add(task);
+            return task;
+        }
+
+        synchronized void cancel(int id) {
+            ScheduledTask task = scheduled.remove(id);
+            if (task != null) {
+                task.cancelled = true;
+            }
+        }
+
+        synchronized void cancelAll() {
+            for (ScheduledTask task : scheduled.values()) {
+                task.cancelled = true;
+            }
+            scheduled.clear();
+            due.clear();
+        }
+
+        synchronized long getCurrentTick() {
+            return currentTick;
+        }
+
+        synchronized int size() {
+            return scheduled.size();
+        }
+
+        int runTick() {
+            List<ScheduledTask> batch = new ArrayList<>();
+            synchronized (this) {
+                currentTick++;
+                while (!due.isEmpty() && due.peek().nextRun <= currentTick) {
+                    batch.add(due.poll());
+                }
+            }
+
+            int run = 0;
+            for (ScheduledTask task : batch) {
+                if (task.cancelled) continue;
+                task.run();
+                run++;
+
+                synchronized (this) {
+                    if (task.cancelled) continue;
+                    if (task.period > 0) {
+                        task.nextRun = currentTick + task.period;
+                        due.add(task);
+                    } else {
+                        scheduled.remove(task.id);
+                    }
+                }
+            }
+            return run;
+        }
+    }
+
+    private static final class ScheduledTask implements BukkitTask {
+        private final int id;
+        private final Plugin owner;
+        private final Object body;
+        private final long period;
+        private volatile boolean cancelled;
+        private long nextRun;
+
+        private ScheduledTask(int id, Plugin owner, Object body, long period) {
+            this.id = id;
+            this.owner = owner;
+            this.body = body;
+            this.period = period;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void run() {
+            try {
+                if (body instanceof Runnable) {
+                    ((Runnable) body).run();
+                } else {
+                    ((Consumer<BukkitTask>) body).accept(this);
+                }
+            } catch (Throwable t) {
+                fail("Task #" + id + " for " + owner.getName() + " threw an exception", t);
+            }
+        }
+
+        @Override
+        public int getTaskId() {
+            return id;
+        }
+
+        @Override
+        public Plugin getOwner() {
+            return owner;
+        }
+
+        @Override
+        public boolean isSync() {
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public void cancel() {
+            tasks.cancel(id);
+        }
+    }
+
+    /**
+     * Accepts action bar messages instead of throwing like the API default
+     */
+    public static final class HeadlessSpigot extends Player.Spigot {
+        @Override
+        public void sendMessage(ChatMessageType position, BaseComponent component) {
+        }
+    }
+
+    /**
+     * An enchantment known only by its key
+     */
+    private static final class HeadlessEnchantment extends Enchantment {
+        private final NamespacedKey key;
+
+        private HeadlessEnchantment(NamespacedKey key) {
+            this.key = key;
+        }
+
+        @Override
+        public NamespacedKey getKey() {
+            return key;
+        }
+
+        @Override
+        public String getTranslationKey() {
+            return "enchantment." + key.getNamespace() + "." + key.getKey();
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public String getName() {
+            return key.getKey().toUpperCase();
+        }
+
+        @Override
+        public int getMaxLevel() {
+            return 5;
+        }
+
+        @Override
+        public int getStartLevel() {
+            return 1;
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public EnchantmentTarget getItemTarget() {
+            return EnchantmentTarget.BREAKABLE;
+        }
+
+        @Override
+        public boolean isTreasure() {
+            return false;
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public boolean isCursed() {
+            return false;
+        }
+
+        @Override
+        public boolean conflictsWith(Enchantment other) {
+            return false;
+        }
+
+        @Override
+        public boolean canEnchantItem(ItemStack item) {
+            return true;
+        }
+    }
+}
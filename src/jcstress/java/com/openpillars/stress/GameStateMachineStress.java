@@ -0,0 +1,173 @@
+package com.openpillars.stress;
+
+import com.openpillars.game.GameState;
+import com.openpillars.game.GameStateMachine;
+import org.openjdk.jcstress.annotations.*;
+import org.openjdk.jcstress.infra.results.III_Result;
+import org.openjdk.jcstress.infra.results.IIII_Result;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE;
+import static org.openjdk.jcstress.annotations.Expect.FORBIDDEN;
+
+/**
+ * Races the transitions GameManager makes on join/leave/start/stop against
+ * each other. Admission of the joining players is covered by
+ * {@link PlayerSlotsStress}. Results hold 1 for a transition that went through, the final
+ * state ordinal and the number of state change notifications.
+ */
+public class GameStateMachineStress {
+
+    /**
+     * A state machine that counts its notifications
+     */
+    static class Machine {
+        final AtomicInteger notifications = new AtomicInteger();
+        final GameStateMachine machine;
+
+        Machine(GameState initial) {
+            machine = new GameStateMachine(initial, (from, to) -> notifications.incrementAndGet());
+        }
+    }
+
+    private static int result(boolean success) {
+        return success ? 1 : 0;
+    }
+
+    /** Two players join at once and both try to start the countdown */
+    @JCStressTest
+    @Outcome(id = {"1, 0, 1", "0, 1, 1"}, expect = ACCEPTABLE, desc = "Exactly one countdown starts")
+    @Outcome(expect = FORBIDDEN, desc = "Countdown started twice or not at all")
+    @State
+    public static class ConcurrentStart extends Machine {
+        public ConcurrentStart() {
+            super(GameState.LOBBY);
+        }
+
+        @Actor
+        public void join1(III_Result r) {
+            r.r1 = result(machine.transition(GameState.LOBBY, GameState.STARTING));
+        }
+
+        @Actor
+        public void join2(III_Result r) {
+            r.r2 = result(machine.transition(GameState.LOBBY, GameState.STARTING));
+        }
+
+        @Arbiter
+        public void arbiter(III_Result r) {
+            r.r3 = notifications.get();
+        }
+    }
+
+    /** The last player leaves while the countdown finishes */
+    @JCStressTest
+    @Outcome(id = "1, 0, 0, 1", expect = ACCEPTABLE, desc = "Leave cancelled the countdown")
+    @Outcome(id = "0, 1, 2, 1", expect = ACCEPTABLE, desc = "Game started before the leave")
+    @Outcome(expect = FORBIDDEN, desc = "Both or neither transition happened")
+    @State
+    public static class LeaveVsStart extends Machine {
+        public LeaveVsStart() {
+            super(GameState.STARTING);
+        }
+
+        @Actor
+        public void leave(IIII_Result r) {
+            r.r1 = result(machine.transition(GameState.STARTING, GameState.LOBBY));
+        }
+
+        @Actor
+        public void start(IIII_Result r) {
+            r.r2 = result(machine.transition(GameState.STARTING, GameState.ACTIVE));
+        }
+
+        @Arbiter
+        public void arbiter(IIII_Result r) {
+            r.r3 = machine.get().ordinal();
+            r.r4 = notifications.get();
+        }
+    }
+
+    /** The countdown starts while the game is force stopped */
+    @JCStressTest
+    @Outcome(id = "1, 1, 4, 2", expect = ACCEPTABLE, desc = "Started, then stopped")
+    @Outcome(id = "0, 1, 4, 1", expect = ACCEPTABLE, desc = "Stopped before the start")
+    @Outcome(expect = FORBIDDEN, desc = "Stop lost or a transition notified twice")
+    @State
+    public static class StartVsStop extends Machine {
+        public StartVsStop() {
+            super(GameState.LOBBY);
+        }
+
+        @Actor
+        public void start(IIII_Result r) {
+            r.r1 = result(machine.transition(GameState.LOBBY, GameState.STARTING));
+        }
+
+        @Actor
+        public void stop(IIII_Result r) {
+            r.r2 = result(machine.advance(GameState.RESETTING));
+        }
+
+        @Arbiter
+        public void arbiter(IIII_Result r) {
+            r.r3 = machine.get().ordinal();
+            r.r4 = notifications.get();
+        }
+    }
+
+    /** The last opponent dies while the game is force stopped */
+    @JCStressTest
+    @Outcome(id = "1, 1, 4, 2", expect = ACCEPTABLE, desc = "Ended, then stopped")
+    @Outcome(id = "0, 1, 4, 1", expect = ACCEPTABLE, desc = "Stopped before the end")
+    @Outcome(expect = FORBIDDEN, desc = "Stop lost or a transition notified twice")
+    @State
+    public static class EndVsStop extends Machine {
+        public EndVsStop() {
+            super(GameState.ACTIVE);
+        }
+
+        @Actor
+        public void end(IIII_Result r) {
+            r.r1 = result(machine.transition(GameState.ACTIVE, GameState.ENDING));
+        }
+
+        @Actor
+        public void stop(IIII_Result r) {
+            r.r2 = result(machine.advance(GameState.RESETTING));
+        }
+
+        @Arbiter
+        public void arbiter(IIII_Result r) {
+            r.r3 = machine.get().ordinal();
+            r.r4 = notifications.get();
+        }
+    }
+
+    /** The delayed reset after a game end races a force stop */
+    @JCStressTest
+    @Outcome(id = {"1, 0, 1", "0, 1, 1"}, expect = ACCEPTABLE, desc = "Exactly one reset")
+    @Outcome(expect = FORBIDDEN, desc = "Reset twice or not at all")
+    @State
+    public static class ResetVsStop extends Machine {
+        public ResetVsStop() {
+            super(GameState.ENDING);
+        }
+
+        @Actor
+        public void delayedReset(III_Result r) {
+            r.r1 = result(machine.transition(GameState.ENDING, GameState.RESETTING));
+        }
+
+        @Actor
+        public void stop(III_Result r) {
+            r.r2 = result(machine.advance(GameState.RESETTING));
+        }
+
+        @Arbiter
+        public void arbiter(III_Result r) {
+            r.r3 = notifications.get();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.openpillars.stress;
+
+import com.openpillars.game.GameState;
+import com.openpillars.game.GameStateMachine;
+import com.openpillars.game.PlayerSlots;
+import org.openjdk.jcstress.annotations.*;
+import org.openjdk.jcstress.infra.results.III_Result;
+
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE;
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE_INTERESTING;
+import static org.openjdk.jcstress.annotations.Expect.FORBIDDEN;
+
+/**
+ * Races the slot admission GameManager runs on join and leave: acquire on
+ * addPlayer, release on removePlayer and releaseAll on reset. Results hold the
+ * slot ids handed out, release results, the final player count and, where it
+ * matters, the number of slots actually occupied, which must match the count.
+ */
+public class PlayerSlotsStress {
+
+    /**
+     * Releases every slot and counts the ones that were occupied
+     */
+    private static int occupied(PlayerSlots slots) {
+        int occupied = 0;
+        for (int slot = 0; slot < slots.capacity(); slot++) {
+            if (slots.release(slot)) {
+                occupied++;
+            }
+        }
+        return occupied;
+    }
+
+    /** Two players join an empty game at once */
+    @JCStressTest
+    @Outcome(id = {"0, 1, 2", "1, 0, 2"}, expect = ACCEPTABLE, desc = "Each got its own slot")
+    @Outcome(expect = FORBIDDEN, desc = "Same slot granted twice, or a join refused")
+    @State
+    public static class JoinVsJoin {
+        final PlayerSlots slots = new PlayerSlots(2);
+
+        @Actor
+        public void join1(III_Result r) {
+            r.r1 = slots.acquire();
+        }
+
+        @Actor
+        public void join2(III_Result r) {
+            r.r2 = slots.acquire();
+        }
+
+        @Arbiter
+        public void arbiter(III_Result r) {
+            r.r3 = slots.size();
+        }
+    }
+
+    /** Two players race for the last free slot */
+    @JCStressTest
+    @Outcome(id = {"1, -1, 2", "-1, 1, 2"}, expect = ACCEPTABLE, desc = "Exactly one got the last slot")
+    @Outcome(expect = FORBIDDEN, desc = "Game overfilled or the free slot was lost")
+    @State
+    public static class LastSlot {
+        final PlayerSlots slots = new PlayerSlots(2);
+
+        public LastSlot() {
+            slots.acquire();
+        }
+
+        @Actor
+        public void join1(III_Result r) {
+            r.r1 = slots.acquire();
+        }
+
+        @Actor
+        public void join2(III_Result r) {
+            r.r2 = slots.acquire();
+        }
+
+        @Arbiter
+        public void arbiter(III_Result r) {
+            r.r3 = slots.size();
+        }
+    }
+
+    /** A player joins while the countdown finishes and the game starts */
+    @JCStressTest
+    @Outcome(id = "0, 1, 1", expect = ACCEPTABLE, desc = "Joined before the start, which counted the player")
+    @Outcome(id = "-1, 0, 0", expect = ACCEPTABLE, desc = "Join turned down, the game had started")
+    @Outcome(id = "-1, 1, 0", expect = ACCEPTABLE_INTERESTING, desc = "Start saw a slot the refused join gave back")
+    @Outcome(expect = FORBIDDEN, desc = "Player admitted after the game went active")
+    @State
+    public static class JoinVsStart {
+        final GameStateMachine state = new GameStateMachine(GameState.STARTING, (from, to) -> { });
+        final PlayerSlots slots = new PlayerSlots(2);
+
+        @Actor
+        public void join(III_Result r) {
+            r.r1 = slots.acquire(state);
+        }
+
+        @Actor
+        public void start(III_Result r) {
+            state.transition(GameState.STARTING, GameState.ACTIVE);
+            r.r2 = slots.size();
+        }
+
+        @Arbiter
+        public void arbiter(III_Result r) {
+            r.r3 = slots.size();
+        }
+    }
+
+    /** A player joins a full game while another one leaves */
+    @JCStressTest
+    @Outcome(id = "1, 0, 1", expect = ACCEPTABLE, desc = "Joined the slot the leave freed")
+    @Outcome(id = "1, -1, 0", expect = ACCEPTABLE, desc = "Join refused before the leave")
+    @Outcome(expect = FORBIDDEN, desc = "Slot leaked or granted while still occupied")
+    @State
+    public static class JoinVsLeave {
+        final PlayerSlots slots = new PlayerSlots(1);
+
+        public JoinVsLeave() {
+            slots.acquire();
+        }
+
+        @Actor
+        public void leave(III_Result r) {
+            r.r1 = slots.release(0) ? 1 : 0;
+        }
+
+        @Actor
+        public void join(III_Result r) {
+            r.r2 = slots.acquire();
+        }
+
+        @Arbiter
+        public void arbiter(III_Result r) {
+            r.r3 = slots.size();
+        }
+    }
+
+    /** A player leaves twice, from the quit event and from removePlayer */
+    @JCStressTest
+    @Outcome(id = {"1, 0, 0", "0, 1, 0"}, expect = ACCEPTABLE, desc = "Released exactly once")
+    @Outcome(expect = FORBIDDEN, desc = "Released twice or not at all")
+    @State
+    public static class LeaveVsLeave {
+        final PlayerSlots slots = new PlayerSlots(2);
+
+        public LeaveVsLeave() {
+            slots.acquire();
+        }
+
+        @Actor
+        public void quit(III_Result r) {
+            r.r1 = slots.release(0) ? 1 : 0;
+        }
+
+        @Actor
+        public void remove(III_Result r) {
+            r.r2 = slots.release(0) ? 1 : 0;
+        }
+
+        @Arbiter
+        public void arbiter(III_Result r) {
+            r.r3 = slots.size();
+        }
+    }
+
+    /** A player joins while the arena resets and releases every slot */
+    @JCStressTest
+    @Outcome(id = "1, 0, 0", expect = ACCEPTABLE, desc = "Joined, then released by the reset")
+    @Outcome(id = "1, 1, 1", expect = ACCEPTABLE, desc = "Joined after the reset passed its slot")
+    @Outcome(id = "0, 1, 1", expect = ACCEPTABLE, desc = "Joined the slot the reset freed")
+    @Outcome(expect = FORBIDDEN, desc = "Count and occupied slots disagree")
+    @State
+    public static class JoinVsReset {
+        final PlayerSlots slots = new PlayerSlots(2);
+
+        public JoinVsReset() {
+            slots.acquire();
+        }
+
+        @Actor
+        public void join(III_Result r) {
+            r.r1 = slots.acquire();
+        }
+
+        @Actor
+        public void reset() {
+            slots.releaseAll();
+        }
+
+        @Arbiter
+        public void arbiter(III_Result r) {
+            r.r2 = slots.size();
+            r.r3 = occupied(slots);
+        }
+    }
+}
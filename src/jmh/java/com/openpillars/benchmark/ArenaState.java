@@ -0,0 +1,67 @@
+package com.openpillars.benchmark;
+
+import com.openpillars.OpenPillars;
+import com.openpillars.game.GameManager;
+import com.openpillars.game.GameState;
+import com.openpillars.headless.HeadlessServer;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * OpenPillars enabled on the {@link HeadlessServer} with a full game counting
+ * down: every player stands frozen on their initial pillar. Shared by the
+ * benchmarks that need a live arena.
+ */
+@State(Scope.Benchmark)
+public class ArenaState {
+
+    static final int PLAYERS = 8;
+
+    OpenPillars plugin;
+    GameManager gameManager;
+    Player[] players;
+    Player outsider;
+    private Path dataFolder;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dataFolder = Files.createTempDirectory("openpillars-benchmark");
+        plugin = HeadlessServer.loadPlugin(dataFolder.toFile());
+        gameManager = plugin.getGameManager();
+
+        // Start the countdown only once everyone is in, so every player gets a pillar
+        plugin.getConfig().set("game.min-players", PLAYERS);
+        plugin.getConfig().set("game.max-players", PLAYERS);
+
+        players = new Player[PLAYERS];
+        for (int i = 0; i < PLAYERS; i++) {
+            players[i] = HeadlessServer.addPlayer("Player" + i);
+            gameManager.addPlayer(players[i]);
+        }
+        outsider = HeadlessServer.addPlayer("Outsider");
+
+        if (gameManager.getState() != GameState.STARTING) {
+            throw new IllegalStateException("Benchmark game did not start its countdown: " + gameManager.getState());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        plugin.onDisable();
+        HeadlessServer.removePlayers();
+        try (Stream<Path> files = Files.walk(dataFolder)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.openpillars.benchmark;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH JSON result file with a stored baseline and fails when a
+ * benchmark got slower than the allowed threshold.
+ *
+ * A change only counts as a regression if it is both above the threshold and
+ * larger than the combined error margins of the two runs, so noisy benchmarks
+ * do not fail the build. Benchmarks missing from either file are reported
+ * but never fail it.
+ *
+ * Usage: BaselineComparator &lt;result.json&gt; &lt;baseline.json&gt; &lt;threshold %&gt; [update]
+ * With "update" the result replaces the baseline instead of being compared.
+ */
+public final class BaselineComparator {
+
+    private BaselineComparator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: BaselineComparator <result.json> <baseline.json> <threshold %> [update]");
+            System.exit(2);
+        }
+        Path result = Paths.get(args[0]);
+        Path baseline = Paths.get(args[1]);
+        double threshold = Double.parseDouble(args[2]) / 100.0;
+        boolean update = args.length > 3 && Boolean.parseBoolean(args[3]);
+
+        if (!Files.isRegularFile(result)) {
+            System.err.println("No benchmark results at " + result);
+            System.exit(2);
+        }
+        if (update || !Files.isRegularFile(baseline)) {
+            if (baseline.getParent() != null) {
+                Files.createDirectories(baseline.getParent());
+            }
+            Files.copy(result, baseline, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Stored " + result + " as the new baseline " + baseline);
+            return;
+        }
+
+        int regressions = compare(read(baseline), read(result), threshold);
+        if (regressions > 0) {
+            System.err.println(regressions + " benchmark(s) regressed by more than "
+                    + format(threshold * 100) + "% against " + baseline);
+            System.exit(1);
+        }
+        System.out.println("No regressions against " + baseline);
+    }
+
+    private static int compare(Map<String, Score> baseline, Map<String, Score> current, double threshold) {
+        int regressions = 0;
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score now = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.println("NEW        " + entry.getKey() + "  " + now);
+                continue;
+            }
+
+            // Positive when worse, whichever direction the mode counts as better
+            double worse = now.higherIsBetter ? before.score - now.score : now.score - before.score;
+            double change = before.score != 0 ? worse / before.score : 0;
+            boolean beyondNoise = Math.abs(worse) > before.error + now.error;
+
+            String verdict;
+            if (change > threshold && beyondNoise) {
+                verdict = "REGRESSED ";
+                regressions++;
+            } else if (change < -threshold && beyondNoise) {
+                verdict = "IMPROVED  ";
+            } else {
+                verdict = "OK        ";
+            }
+            System.out.println(verdict + entry.getKey() + "  " + before + " -> " + now
+                    + "  (" + (change > 0 ? "+" : "") + format(change * 100) + "% worse)");
+        }
+        for (String name : baseline.keySet()) {
+            if (!current.containsKey(name)) {
+                System.out.println("MISSING    " + name);
+            }
+        }
+        return regressions;
+    }
+
+    /**
+     * Reads the primary score of every benchmark, keyed by name and parameters
+     */
+    private static Map<String, Score> read(Path file) throws IOException {
+        Map<String, Score> scores = new TreeMap<>();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            for (JsonElement element : JsonParser.parseReader(reader).getAsJsonArray()) {
+                JsonObject run = element.getAsJsonObject();
+                StringBuilder key = new StringBuilder(run.get("benchmark").getAsString());
+                if (run.has("params")) {
+                    // Sorted so the key does not depend on the order JMH wrote them in
+                    Map<String, String> params = new TreeMap<>();
+                    for (Map.Entry<String, JsonElement> param : run.getAsJsonObject("params").entrySet()) {
+                        params.put(param.getKey(), param.getValue().getAsString());
+                    }
+                    key.append(params);
+                }
+
+                JsonObject metric = run.getAsJsonObject("primaryMetric");
+                double error = metric.get("scoreError").isJsonPrimitive()
+                        && metric.get("scoreError").getAsJsonPrimitive().isNumber()
+                        ? metric.get("scoreError").getAsDouble() : 0;
+                scores.put(key.toString(), new Score(
+                        metric.get("score").getAsDouble(),
+                        Double.isNaN(error) ? 0 : error,
+                        metric.get("scoreUnit").getAsString(),
+                        run.get("mode").getAsString().equals("thrpt")));
+            }
+        }
+        return scores;
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.1f", value);
+    }
+
+    /**
+     * A primary score with its error margin
+     */
+    private static final class Score {
+        private final double score;
+        private final double error;
+        private final String unit;
+        private final boolean higherIsBetter;
+
+        private Score(double score, double error, String unit, boolean higherIsBetter) {
+            this.score = score;
+            this.error = error;
+            this.unit = unit;
+            this.higherIsBetter = higherIsBetter;
+        }
+
+        @Override
+        public String toString() {
+            return format(score) + " ± " + format(error) + " " + unit;
+        }
+    }
+}
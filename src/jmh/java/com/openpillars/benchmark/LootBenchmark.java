@@ -0,0 +1,52 @@
+package com.openpillars.benchmark;
+
+import com.cryptomorin.xseries.XMaterial;
+import com.openpillars.game.LootManager;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rolls loot the way every generated pillar block does, from the default
+ * loot.yml, and builds single items with and without name, lore and enchantments.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LootBenchmark {
+
+    private LootManager lootManager;
+    private LootManager.LootItem plainItem;
+    private LootManager.LootItem customItem;
+
+    @Setup
+    public void setup(ArenaState arena) {
+        lootManager = arena.gameManager.getLootManager();
+        plainItem = new LootManager.LootItem(XMaterial.COBBLESTONE, 1, "16",
+                null, Collections.emptyList(), null);
+        customItem = new LootManager.LootItem(XMaterial.DIAMOND_SWORD, 1, "1-2",
+                "&b&lPillar &#33CCFFBlade", Arrays.asList("&7Found on a pillar", "&8Sharp"),
+                Arrays.asList("SHARPNESS:3", "UNBREAKING:2"));
+    }
+
+    @Benchmark
+    public ItemStack getRandomItem() {
+        return lootManager.getRandomItem("standard-pillar");
+    }
+
+    @Benchmark
+    public ItemStack createPlainItem() {
+        return plainItem.createItemStack();
+    }
+
+    @Benchmark
+    public ItemStack createCustomItem() {
+        return customItem.createItemStack();
+    }
+}
@@ -0,0 +1,46 @@
+package com.openpillars.benchmark;
+
+import com.openpillars.util.FileHandler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Colorizes and looks up chat messages, as done for every broadcast and item pickup
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MessageBenchmark {
+
+    @Param({"&aYou have joined the game!", "&#FFAA00&lPillars &8» &7%player% &ejoined &8(&a%players%&8/&a%max_players%&8)"})
+    public String message;
+
+    private FileHandler fileHandler;
+
+    @Setup
+    public void setup(ArenaState arena) {
+        fileHandler = arena.plugin.getFileHandler();
+    }
+
+    @Benchmark
+    public String colorize() {
+        return FileHandler.colorize(message);
+    }
+
+    @Benchmark
+    public String getMessage() {
+        return fileHandler.getMessage("game.item-received", "%item%", "Diamond Sword x1");
+    }
+
+    @Benchmark
+    public String getMessageWithPlaceholders() {
+        return fileHandler.getMessage("game.player-joined",
+                "%player%", "Player0",
+                "%players%", "8",
+                "%max_players%", "16");
+    }
+}
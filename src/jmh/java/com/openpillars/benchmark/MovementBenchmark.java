@@ -0,0 +1,62 @@
+package com.openpillars.benchmark;
+
+import com.openpillars.listeners.MovementController;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Handles move events during the countdown: a frozen player stepping off
+ * their spawn, a frozen player only turning their head, and a player who is
+ * in no game at all, by far the most common case on a busy server.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MovementBenchmark {
+
+    private MovementController controller;
+    private Player frozen;
+    private Player outsider;
+    private Location from;
+    private Location step;
+    private Location look;
+
+    @Setup
+    public void setup(ArenaState arena) {
+        controller = new MovementController(arena.plugin);
+        frozen = arena.players[0];
+        outsider = arena.outsider;
+        from = frozen.getLocation();
+        step = from.clone().add(0.2, 0, 0.1);
+        look = from.clone();
+        look.setYaw(from.getYaw() + 15);
+    }
+
+    @Benchmark
+    public PlayerMoveEvent frozenStep() {
+        PlayerMoveEvent event = new PlayerMoveEvent(frozen, from, step);
+        controller.onPlayerMove(event);
+        return event;
+    }
+
+    @Benchmark
+    public PlayerMoveEvent frozenLook() {
+        PlayerMoveEvent event = new PlayerMoveEvent(frozen, from, look);
+        controller.onPlayerMove(event);
+        return event;
+    }
+
+    @Benchmark
+    public PlayerMoveEvent notInGame() {
+        PlayerMoveEvent event = new PlayerMoveEvent(outsider, from, step);
+        controller.onPlayerMove(event);
+        return event;
+    }
+}
@@ -0,0 +1,72 @@
+package com.openpillars.benchmark;
+
+import com.cryptomorin.xseries.XMaterial;
+import com.openpillars.game.BlockPalette;
+import com.openpillars.headless.HeadlessServer;
+import org.bukkit.Material;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares picking a pillar block from a preloaded {@link BlockPalette}
+ * with the previous per-call approach (array rebuild, new Random and
+ * XMaterial lookup on every block).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PaletteBenchmark {
+
+    private BlockPalette palette;
+
+    @Setup
+    public void setup() {
+        HeadlessServer.install();
+
+        XMaterial[] blocks = legacyBlocks();
+        Material[] materials = new Material[blocks.length];
+        double[] weights = new double[blocks.length];
+        for (int i = 0; i < blocks.length; i++) {
+            Material material = blocks[i].parseMaterial();
+            materials[i] = material != null ? material : Material.STONE;
+            weights[i] = 1 + (i % 4);
+        }
+        palette = new BlockPalette(materials, weights);
+    }
+
+    @Benchmark
+    public Material legacy() {
+        XMaterial[] pillarBlocks = legacyBlocks();
+        XMaterial selected = pillarBlocks[new Random().nextInt(pillarBlocks.length)];
+        Material material = selected.parseMaterial();
+        return material != null ? material : Material.STONE;
+    }
+
+    @Benchmark
+    public Material palette() {
+        return palette.sample(ThreadLocalRandom.current());
+    }
+
+    private static XMaterial[] legacyBlocks() {
+        return new XMaterial[] {
+            XMaterial.STONE,
+            XMaterial.COBBLESTONE,
+            XMaterial.DIRT,
+            XMaterial.OAK_PLANKS,
+            XMaterial.GRAVEL,
+            XMaterial.SAND,
+            XMaterial.CLAY,
+            XMaterial.SANDSTONE,
+            XMaterial.MOSSY_COBBLESTONE,
+            XMaterial.ANDESITE,
+            XMaterial.DIORITE,
+            XMaterial.GRANITE
+        };
+    }
+}
@@ -0,0 +1,100 @@
+package com.openpillars.benchmark;
+
+import com.openpillars.game.LootManager;
+import com.openpillars.game.PillarGenerator;
+import org.bukkit.Location;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pillar block lookups, done for every block event near an arena, and breaking
+ * pillar blocks that carry loot.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PillarBenchmark {
+
+    private static final int BLOCKS_PER_PLAYER = 32;
+    private static final int BATCH = BLOCKS_PER_PLAYER * ArenaState.PLAYERS;
+
+    private PillarGenerator pillarGenerator;
+    private Location pillarBlock;
+    private Location otherBlock;
+
+    @Setup
+    public void setup(ArenaState arena) {
+        pillarGenerator = arena.gameManager.getPillarGenerator();
+        Player owner = arena.players[0];
+        pillarBlock = pillarGenerator.getPillarData(owner.getUniqueId()).getBaseLocation().clone();
+        otherBlock = pillarBlock.clone().add(3, 0, 3);
+    }
+
+    @Benchmark
+    public boolean isPillarBlock() {
+        return pillarGenerator.isPillarBlock(pillarBlock);
+    }
+
+    @Benchmark
+    public boolean isPillarBlockMiss() {
+        return pillarGenerator.isPillarBlock(otherBlock);
+    }
+
+    /**
+     * Breaks a fresh batch of generated blocks per invocation,
+     * so the per-invocation setup is spread over many breaks.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int handleBlockBreak(GeneratedBlocks batch) {
+        int handled = 0;
+        List<Block> blocks = batch.blocks;
+        Player[] breakers = batch.breakers;
+        for (int i = 0; i < blocks.size(); i++) {
+            if (pillarGenerator.handleBlockBreak(breakers[i], blocks.get(i))) {
+                handled++;
+            }
+        }
+        return handled;
+    }
+
+    /**
+     * Blocks grown on every pillar with loot attached, each broken by its owner
+     */
+    @State(Scope.Thread)
+    public static class GeneratedBlocks {
+
+        private ArenaState arena;
+        private LootManager lootManager;
+        final List<Block> blocks = new ArrayList<>(BATCH);
+        final Player[] breakers = new Player[BATCH];
+
+        @Setup(Level.Trial)
+        public void setup(ArenaState arena) {
+            this.arena = arena;
+            this.lootManager = arena.gameManager.getLootManager();
+            arena.plugin.getConfig().set("pillar.blocks-per-interval", BLOCKS_PER_PLAYER);
+            arena.plugin.getConfig().set("pillar.max-height", Integer.MAX_VALUE);
+        }
+
+        @Setup(Level.Invocation)
+        public void generate() {
+            blocks.clear();
+            for (Player player : arena.players) {
+                int before = blocks.size();
+                arena.gameManager.getPillarGenerator().generateBlock(player, lootManager, blocks);
+                for (int i = before; i < blocks.size(); i++) {
+                    breakers[i] = player;
+                }
+            }
+        }
+    }
+}
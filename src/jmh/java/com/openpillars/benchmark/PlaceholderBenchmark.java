@@ -0,0 +1,36 @@
+package com.openpillars.benchmark;
+
+import com.openpillars.placeholders.PillarsExpansion;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves one placeholder of each kind: global, player stat, player state and leaderboard
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PlaceholderBenchmark {
+
+    @Param({"players_alive", "kills", "frozen", "top_kills_1_name"})
+    public String params;
+
+    private PillarsExpansion expansion;
+    private Player player;
+
+    @Setup
+    public void setup(ArenaState arena) {
+        expansion = new PillarsExpansion(arena.plugin);
+        player = arena.players[0];
+    }
+
+    @Benchmark
+    public String onPlaceholderRequest() {
+        return expansion.onPlaceholderRequest(player, params);
+    }
+}
@@ -1,20 +1,57 @@
 package com.openpillars;
 
+import com.openpillars.arena.ArenaSlotAllocator;
+import com.openpillars.bus.GameEventBus;
 import com.openpillars.commands.PillarsCommand;
+import com.openpillars.game.ArenaRouter;
 import com.openpillars.game.GameManager;
+import com.openpillars.history.MatchHistory;
+import com.openpillars.jfr.GameEvents;
 import com.openpillars.listeners.MovementController;
 import com.openpillars.listeners.PlayerListener;
 import com.openpillars.listeners.PillarBlockListener;
+import com.openpillars.metrics.MetricsServer;
+import com.openpillars.metrics.PillarsMetrics;
+import com.openpillars.perf.PerfMonitor;
 import com.openpillars.placeholders.PillarsExpansion;
+import com.openpillars.stats.StatsService;
 import com.openpillars.util.FileHandler;
 import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.plugin.PluginDescriptionFile;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.plugin.java.JavaPluginLoader;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
 
 public class OpenPillars extends JavaPlugin {
 
     private static OpenPillars instance;
     private FileHandler fileHandler;
     private GameManager gameManager;
+    private GameEventBus eventBus;
+    private ArenaRouter arenaRouter;
+    private StatsService statsService;
+    private MatchHistory matchHistory;
+    private PerfMonitor perfMonitor;
+    private PillarsMetrics metrics;
+    private MetricsServer metricsServer;
+    private final Map<UUID, ArenaSlotAllocator> slotAllocators = new HashMap<>();
+    private int slotWidthWarned;
+
+    public OpenPillars() {
+        super();
+    }
+
+    /**
+     * Loads the plugin outside of a running server, used by the benchmarks and the simulation
+     */
+    protected OpenPillars(JavaPluginLoader loader, PluginDescriptionFile description, File dataFolder, File file) {
+        super(loader, description, dataFolder, file);
+    }
 
     @Override
     public void onEnable() {
@@ -24,9 +61,33 @@ public class OpenPillars extends JavaPlugin {
         this.fileHandler = new FileHandler(this);
         this.fileHandler.loadAll();
         
+        this.eventBus = new GameEventBus(this);
+        this.arenaRouter = new ArenaRouter();
+        
+        // Tick cost profiling for /pillars perf, off unless configured
+        this.perfMonitor = new PerfMonitor(this);
+        this.perfMonitor.load();
+        this.metrics = new PillarsMetrics(this);
+        
+        // Lifetime stats, saved in the background
+        this.statsService = new StatsService(this);
+        this.statsService.start();
+        
+        // Archive of finished games for analytics
+        if (getConfig().getBoolean("history.enabled", true)) {
+            this.matchHistory = new MatchHistory(this);
+            this.matchHistory.start();
+        }
+        
         // Initialize game manager
         this.gameManager = new GameManager(this);
         
+        // Prometheus endpoint, started once there is something to report
+        if (getConfig().getBoolean("metrics.enabled", false)) {
+            this.metricsServer = new MetricsServer(this, metrics);
+            this.metricsServer.start();
+        }
+        
         // Register listeners
         registerListeners();
         
@@ -50,6 +111,21 @@ public class OpenPillars extends JavaPlugin {
         // Stop any active games
         if (gameManager != null) {
             gameManager.stopAllGames();
+            gameManager.getMutationLog().close();
+        }
+        
+        // Write out results of the games that just ended
+        if (statsService != null) {
+            statsService.stop();
+        }
+        if (matchHistory != null) {
+            matchHistory.stop();
+        }
+        if (perfMonitor != null) {
+            perfMonitor.stop();
+        }
+        if (metricsServer != null) {
+            metricsServer.stop();
         }
         
         getLogger().info("OpenPillars has been disabled!");
@@ -68,7 +144,15 @@ public class OpenPillars extends JavaPlugin {
     }
     
     public void reload() {
+        long start = GameEvents.start();
         fileHandler.loadAll();
+        perfMonitor.load();
+        if (gameManager != null) {
+            gameManager.getPillarGenerator().loadPalettes();
+            gameManager.loadLayout();
+            gameManager.getSoundRegistry().load();
+        }
+        GameEvents.configReload("server", start);
         getLogger().info("Configuration reloaded!");
     }
 
@@ -83,4 +167,76 @@ public class OpenPillars extends JavaPlugin {
     public GameManager getGameManager() {
         return gameManager;
     }
+
+    public GameEventBus getEventBus() {
+        return eventBus;
+    }
+
+    public StatsService getStatsService() {
+        return statsService;
+    }
+
+    /**
+     * Gets the archive of finished games
+     * @return The match history, or null if disabled in config
+     */
+    public MatchHistory getMatchHistory() {
+        return matchHistory;
+    }
+
+    /**
+     * Gets the profiler that measures the tick cost of each subsystem
+     * @return The perf monitor
+     */
+    public PerfMonitor getPerfMonitor() {
+        return perfMonitor;
+    }
+
+    /**
+     * Gets the engine counters exported to Prometheus
+     * @return The metrics
+     */
+    public PillarsMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Gets the router that resolves events to the arena they concern
+     * @return The arena router
+     */
+    public ArenaRouter getArenaRouter() {
+        return arenaRouter;
+    }
+
+    /**
+     * Gets the arena slot grid of a world, shared by every game placed in it.
+     * If arenas now need wider slots, e.g. after a reload with more players or
+     * a higher max-height, the grid is rebuilt as soon as none of its slots is in use.
+     * @param world The world
+     * @param arenaWidth The width one arena needs
+     * @return The slot allocator for the world
+     */
+    public ArenaSlotAllocator getSlotAllocator(World world, int arenaWidth) {
+        ArenaSlotAllocator allocator = slotAllocators.get(world.getUID());
+        if (allocator != null && allocator.getSlotSize() < arenaWidth) {
+            if (allocator.getUsed() == 0) {
+                allocator = null;
+            } else if (slotWidthWarned != arenaWidth) {
+                slotWidthWarned = arenaWidth;
+                getLogger().warning("Arenas in '" + world.getName() + "' now need " + arenaWidth
+                        + " blocks but slots are " + allocator.getSlotSize()
+                        + ", the slots grow once every game there has finished");
+            }
+        }
+        if (allocator == null) {
+            allocator = new ArenaSlotAllocator(world,
+                    getConfig().getInt("world.center.x", 0),
+                    getConfig().getInt("world.center.z", 0),
+                    arenaWidth,
+                    getConfig().getInt("world.slots.columns", 16),
+                    getConfig().getInt("world.slots.max-slots", 256));
+            slotAllocators.put(world.getUID(), allocator);
+        }
+        return allocator;
+    }
 }
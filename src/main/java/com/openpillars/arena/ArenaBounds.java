@@ -0,0 +1,74 @@
+package com.openpillars.arena;
+
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+/**
+ * Immutable horizontal bounding box of an arena inside a world.
+ * Bounds are inclusive block coordinates; the full height of the world is covered.
+ */
+public final class ArenaBounds {
+
+    private final World world;
+    private final int minX;
+    private final int minZ;
+    private final int maxX;
+    private final int maxZ;
+
+    public ArenaBounds(World world, int minX, int minZ, int maxX, int maxZ) {
+        this.world = world;
+        this.minX = Math.min(minX, maxX);
+        this.minZ = Math.min(minZ, maxZ);
+        this.maxX = Math.max(minX, maxX);
+        this.maxZ = Math.max(minZ, maxZ);
+    }
+
+    /**
+     * Returns a copy grown by the given number of blocks on every side
+     * @param margin The number of blocks to add
+     * @return The expanded bounds
+     */
+    public ArenaBounds expand(int margin) {
+        return new ArenaBounds(world, minX - margin, minZ - margin, maxX + margin, maxZ + margin);
+    }
+
+    /**
+     * Checks if a block lies inside the arena
+     * @param block The block to check
+     * @return true if the block is in this arena's world and bounds
+     */
+    public boolean contains(Block block) {
+        return contains(block.getWorld(), block.getX(), block.getZ());
+    }
+
+    /**
+     * Checks if a column lies inside the arena
+     * @param world The world of the column
+     * @param x The block X coordinate
+     * @param z The block Z coordinate
+     * @return true if the column is in this arena's world and bounds
+     */
+    public boolean contains(World world, int x, int z) {
+        return x >= minX && x <= maxX && z >= minZ && z <= maxZ && this.world.equals(world);
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    public int getMinX() {
+        return minX;
+    }
+
+    public int getMinZ() {
+        return minZ;
+    }
+
+    public int getMaxX() {
+        return maxX;
+    }
+
+    public int getMaxZ() {
+        return maxZ;
+    }
+}
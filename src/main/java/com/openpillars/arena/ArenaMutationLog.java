@@ -0,0 +1,388 @@
+package com.openpillars.arena;
+
+import com.openpillars.OpenPillars;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldLoadEvent;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped log of the original state of every arena block
+ * changed during a game. Writes land in the page cache as soon as they are made,
+ * so the log survives a server crash without any explicit flush.
+ *
+ * On startup an unfinished session is replayed newest-first to put the world
+ * back the way it was before the game. If that world loads after the plugin,
+ * as worlds of world manager plugins do, the session is kept and replayed
+ * once the world loads. A game that resets cleanly compacts the log back to
+ * empty.
+ *
+ * Record layout: [int length][byte type][payload][int crc32]. The checksum
+ * covers the session id as well, so leftovers of an earlier session that were
+ * not overwritten never pass as part of the current one.
+ */
+public class ArenaMutationLog implements Listener {
+
+    private static final int INITIAL_CAPACITY = 1 << 20;
+    private static final int MAX_RECORD = 512;
+
+    private static final byte TYPE_BEGIN = 1;
+    private static final byte TYPE_MATERIAL = 2;
+    private static final byte TYPE_MUTATION = 3;
+
+    private final OpenPillars plugin;
+    private final File file;
+    private final CRC32 crc;
+    private final ByteBuffer scratch;
+    private final Map<Material, Short> materialIds;
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long sessionId;
+    private boolean active;
+    private String pendingWorld;
+
+    public ArenaMutationLog(OpenPillars plugin, File file) {
+        this.plugin = plugin;
+        this.file = file;
+        this.crc = new CRC32();
+        this.scratch = ByteBuffer.allocate(MAX_RECORD);
+        this.materialIds = new EnumMap<>(Material.class);
+    }
+
+    /**
+     * Opens the log, replaying any session that did not end cleanly
+     */
+    public void open() {
+        try {
+            file.getParentFile().mkdirs();
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    Math.max(INITIAL_CAPACITY, channel.size()));
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not open arena mutation log, crash recovery is disabled", e);
+            close();
+            return;
+        }
+
+        if (recover()) {
+            compact();
+        }
+    }
+
+    @EventHandler
+    public void onWorldLoad(WorldLoadEvent event) {
+        if (pendingWorld == null || !pendingWorld.equals(event.getWorld().getName())) return;
+
+        HandlerList.unregisterAll(this);
+        pendingWorld = null;
+        if (buffer != null && recover()) {
+            compact();
+        }
+    }
+
+    /**
+     * Starts a new session for a game in the given world
+     * @param world The arena world
+     */
+    public void begin(World world) {
+        // Never overwrite a session that still waits for its world
+        if (buffer == null || pendingWorld != null) return;
+
+        compact();
+        sessionId = ThreadLocalRandom.current().nextLong();
+        active = true;
+
+        byte[] name = world.getName().getBytes(StandardCharsets.UTF_8);
+        scratch.clear();
+        scratch.putLong(sessionId);
+        scratch.putShort((short) name.length);
+        scratch.put(name);
+        write(TYPE_BEGIN);
+    }
+
+    /**
+     * Logs the current state of a block before it changes
+     * @param block The block about to change
+     */
+    public void record(Block block) {
+        if (!active) return;
+        append(BlockJournal.pack(block.getX(), block.getY(), block.getZ()), block.getType());
+    }
+
+    /**
+     * Logs the original material at a packed position
+     * @param packed The packed block position
+     * @param original The material before the change
+     */
+    public void append(long packed, Material original) {
+        if (!active) return;
+
+        Short id = materialIds.get(original);
+        if (id == null) {
+            id = (short) materialIds.size();
+            materialIds.put(original, id);
+
+            byte[] name = original.name().getBytes(StandardCharsets.UTF_8);
+            scratch.clear();
+            scratch.putShort(id);
+            scratch.putShort((short) name.length);
+            scratch.put(name);
+            write(TYPE_MATERIAL);
+        }
+
+        scratch.clear();
+        scratch.putLong(packed);
+        scratch.putShort(id);
+        write(TYPE_MUTATION);
+    }
+
+    /**
+     * Ends the session cleanly, emptying the log.
+     * A session still waiting for its world is kept.
+     */
+    public void compact() {
+        active = false;
+        materialIds.clear();
+        if (buffer == null || pendingWorld != null) return;
+
+        buffer.putInt(0, 0);
+        buffer.position(0);
+    }
+
+    /**
+     * Flushes, unmaps and releases the log file
+     */
+    public void close() {
+        active = false;
+        if (buffer != null) {
+            buffer.force();
+            unmap(buffer);
+            buffer = null;
+        }
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) { }
+            channel = null;
+        }
+    }
+
+    /**
+     * Writes the record held in the scratch buffer, followed by an end marker
+     */
+    private void write(byte type) {
+        scratch.flip();
+        int payloadLength = scratch.remaining();
+        int length = 1 + payloadLength;
+
+        if (!ensureCapacity(4 + length + 4 + 4)) return;
+
+        crc.reset();
+        updateSession();
+        crc.update(type);
+        crc.update(scratch.array(), 0, payloadLength);
+
+        int start = buffer.position();
+        // Terminate first, so a crash mid-record never exposes stale data behind it
+        buffer.putInt(start + 4 + length + 4, 0);
+        buffer.position(start + 4);
+        buffer.put(type);
+        buffer.put(scratch);
+        buffer.putInt((int) crc.getValue());
+        buffer.putInt(start, length);
+    }
+
+    private void updateSession() {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            crc.update((int) (sessionId >>> shift));
+        }
+    }
+
+    /**
+     * Grows the mapping when the next record would not fit
+     */
+    private boolean ensureCapacity(int needed) {
+        if (buffer.remaining() >= needed) return true;
+
+        int position = buffer.position();
+        long capacity = Math.max((long) buffer.capacity() * 2, position + needed);
+        if (capacity > Integer.MAX_VALUE) {
+            plugin.getLogger().warning("Arena mutation log is full, further changes are not crash-safe");
+            active = false;
+            return false;
+        }
+
+        try {
+            MappedByteBuffer previous = buffer;
+            previous.force();
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            buffer.position(position);
+            unmap(previous);
+            return true;
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not grow arena mutation log", e);
+            active = false;
+            return false;
+        }
+    }
+
+    /**
+     * Releases a mapping right away instead of whenever the buffer is collected,
+     * which also unlocks the file on Windows. Skipped if the JDK does not allow it.
+     * The buffer must not be used afterwards.
+     */
+    private static void unmap(MappedByteBuffer mapped) {
+        try {
+            // Java 9+
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner.invoke(theUnsafe.get(null), mapped);
+        } catch (NoSuchMethodException e) {
+            // Java 8
+            try {
+                Method cleanerMethod = mapped.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(mapped);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+            } catch (ReflectiveOperationException | RuntimeException ignored) { }
+        } catch (ReflectiveOperationException | RuntimeException ignored) { }
+    }
+
+    /**
+     * Replays an unfinished session, restoring every logged block newest-first.
+     * If its world is not loaded yet, the session is kept for when it loads.
+     * @return true if nothing is left to replay
+     */
+    private boolean recover() {
+        ByteBuffer log = buffer.duplicate();
+        log.position(0);
+
+        String worldName = null;
+        Map<Short, Material> materials = new HashMap<>();
+        long[] positions = new long[64];
+        short[] ids = new short[64];
+        int count = 0;
+        int corrupt = 0;
+
+        while (log.remaining() >= 4) {
+            int start = log.position();
+            int length = log.getInt();
+            if (length <= 0 || length > MAX_RECORD + 1 || log.remaining() < length + 4) break;
+
+            byte type = log.get(start + 4);
+            if (type == TYPE_BEGIN) {
+                sessionId = log.getLong(start + 5);
+            }
+
+            crc.reset();
+            updateSession();
+            for (int i = 0; i < length; i++) {
+                crc.update(log.get(start + 4 + i));
+            }
+            if ((int) crc.getValue() != log.getInt(start + 4 + length)) {
+                corrupt++;
+                break;
+            }
+
+            log.position(start + 5);
+            switch (type) {
+                case TYPE_BEGIN: {
+                    log.getLong();
+                    byte[] name = new byte[log.getShort()];
+                    log.get(name);
+                    worldName = new String(name, StandardCharsets.UTF_8);
+                    break;
+                }
+                case TYPE_MATERIAL: {
+                    short id = log.getShort();
+                    byte[] name = new byte[log.getShort()];
+                    log.get(name);
+                    Material material = Material.getMaterial(new String(name, StandardCharsets.UTF_8));
+                    if (material != null) {
+                        materials.put(id, material);
+                    }
+                    break;
+                }
+                case TYPE_MUTATION: {
+                    if (count == positions.length) {
+                        positions = Arrays.copyOf(positions, count * 2);
+                        ids = Arrays.copyOf(ids, count * 2);
+                    }
+                    positions[count] = log.getLong();
+                    ids[count] = log.getShort();
+                    count++;
+                    break;
+                }
+                default:
+                    corrupt++;
+                    break;
+            }
+            log.position(start + 4 + length + 4);
+        }
+
+        if (worldName == null || count == 0) return true;
+
+        World world = Bukkit.getWorld(worldName);
+        if (world == null) {
+            plugin.getLogger().warning("Arena world '" + worldName + "' from an unfinished game is not loaded yet, "
+                    + count + " logged block change(s) will be restored when it loads."
+                    + " Games are not crash-safe until then");
+            pendingWorld = worldName;
+            Bukkit.getPluginManager().registerEvents(this, plugin);
+            return false;
+        }
+
+        int restored = 0;
+        for (int i = count - 1; i >= 0; i--) {
+            Material original = materials.get(ids[i]);
+            if (original == null) continue;
+
+            long packed = positions[i];
+            Block block = world.getBlockAt(BlockJournal.unpackX(packed),
+                    BlockJournal.unpackY(packed), BlockJournal.unpackZ(packed));
+            if (block.getType() != original) {
+                block.setType(original, false);
+            }
+            restored++;
+        }
+
+        plugin.getLogger().info("Recovered arena '" + worldName + "' from an unfinished game: restored "
+                + restored + " block(s)" + (corrupt > 0 ? ", last record was incomplete" : ""));
+        return true;
+    }
+
+    /**
+     * Checks if a session is currently being logged
+     * @return true if mutations are being written
+     */
+    public boolean isActive() {
+        return active;
+    }
+}
@@ -0,0 +1,66 @@
+package com.openpillars.arena;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+
+/**
+ * A square, region-aligned area of a world reserved for one game.
+ * Handed out and taken back by an {@link ArenaSlotAllocator}.
+ */
+public final class ArenaSlot {
+
+    private final World world;
+    private final int index;
+    private final int minX;
+    private final int minZ;
+    private final int size;
+
+    ArenaSlot(World world, int index, int minX, int minZ, int size) {
+        this.world = world;
+        this.index = index;
+        this.minX = minX;
+        this.minZ = minZ;
+        this.size = size;
+    }
+
+    /**
+     * Gets the center of the slot at the given height
+     * @param y The Y coordinate
+     * @return The center location
+     */
+    public Location getCenter(double y) {
+        return new Location(world, minX + size / 2, y, minZ + size / 2);
+    }
+
+    /**
+     * Gets the full area of the slot
+     * @return The slot bounds
+     */
+    public ArenaBounds getBounds() {
+        return new ArenaBounds(world, minX, minZ, minX + size - 1, minZ + size - 1);
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getMinX() {
+        return minX;
+    }
+
+    public int getMinZ() {
+        return minZ;
+    }
+
+    /**
+     * Gets the side length of the slot in blocks (a multiple of 512)
+     * @return The slot size
+     */
+    public int getSize() {
+        return size;
+    }
+}
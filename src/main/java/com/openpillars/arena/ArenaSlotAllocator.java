@@ -0,0 +1,122 @@
+package com.openpillars.arena;
+
+import org.bukkit.World;
+
+import java.util.Arrays;
+
+/**
+ * Splits a world into a grid of region-aligned arena slots so several games
+ * can share one world without overlapping. Slots start on a region file
+ * boundary and span whole region files, so resetting or unloading one arena
+ * never touches the chunks of another.
+ *
+ * Slots are handed out and recycled in O(1) through an intrusive free list.
+ * The allocator is not thread-safe and is only used from the main thread.
+ */
+public class ArenaSlotAllocator {
+
+    /** Side length of a region file in blocks */
+    public static final int REGION_SIZE = 512;
+
+    private static final int NONE = -1;
+
+    private final World world;
+    private final int originX;
+    private final int originZ;
+    private final int slotSize;
+    private final int columns;
+    private final ArenaSlot[] slots;
+    private final int[] nextFree;
+    private final boolean[] inUse;
+
+    private int freeHead;
+    private int highWater;
+    private int used;
+
+    /**
+     * @param world The world to split up
+     * @param originX Block X of the grid corner (rounded down to a region boundary)
+     * @param originZ Block Z of the grid corner (rounded down to a region boundary)
+     * @param arenaWidth The width in blocks one arena needs, margins included
+     * @param columns The number of slots per grid row
+     * @param capacity The maximum number of slots
+     */
+    public ArenaSlotAllocator(World world, int originX, int originZ, int arenaWidth, int columns, int capacity) {
+        this.world = world;
+        this.originX = Math.floorDiv(originX, REGION_SIZE) * REGION_SIZE;
+        this.originZ = Math.floorDiv(originZ, REGION_SIZE) * REGION_SIZE;
+        int regions = Math.max(1, (arenaWidth + REGION_SIZE - 1) / REGION_SIZE);
+        this.slotSize = regions * REGION_SIZE;
+        this.columns = Math.max(1, columns);
+        this.slots = new ArenaSlot[Math.max(1, capacity)];
+        this.nextFree = new int[slots.length];
+        this.inUse = new boolean[slots.length];
+        Arrays.fill(nextFree, NONE);
+        this.freeHead = NONE;
+    }
+
+    /**
+     * Computes the width one arena needs for the largest expected game
+     * @param layoutWidth The width of the pillar layout for max players
+     * @param maxHeight The maximum pillar height, used as the build margin
+     *                  players can bridge out from the outermost pillar
+     * @return The arena width in blocks
+     */
+    public static int arenaWidth(int layoutWidth, int maxHeight) {
+        return layoutWidth + 2 * Math.max(0, maxHeight);
+    }
+
+    /**
+     * Reserves a free slot
+     * @return The slot, or null if every slot is in use
+     */
+    public ArenaSlot acquire() {
+        int index;
+        if (freeHead != NONE) {
+            index = freeHead;
+            freeHead = nextFree[index];
+            nextFree[index] = NONE;
+        } else if (highWater < slots.length) {
+            index = highWater++;
+            slots[index] = new ArenaSlot(world, index,
+                    originX + (index % columns) * slotSize,
+                    originZ + (index / columns) * slotSize,
+                    slotSize);
+        } else {
+            return null;
+        }
+        inUse[index] = true;
+        used++;
+        return slots[index];
+    }
+
+    /**
+     * Returns a slot for reuse
+     * @param slot The slot to release
+     */
+    public void release(ArenaSlot slot) {
+        int index = slot.getIndex();
+        if (slot.getWorld() != world || slots[index] != slot || !inUse[index]) return;
+
+        inUse[index] = false;
+        nextFree[index] = freeHead;
+        freeHead = index;
+        used--;
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    public int getSlotSize() {
+        return slotSize;
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    public int getUsed() {
+        return used;
+    }
+}
@@ -0,0 +1,216 @@
+package com.openpillars.arena;
+
+import com.openpillars.OpenPillars;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.WorldCreator;
+import org.bukkit.entity.Player;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Creates disposable arena worlds from a template directory.
+ * Every file is copied into the clone off the main thread. Region files are
+ * never shared through hard links: the server rewrites region sectors in place
+ * whenever a chunk is saved, which happens on unload even with auto-save
+ * disabled, and a shared file would carry that write back into the template.
+ */
+public class ArenaWorldCloner {
+
+    /** Folder name prefix for every cloned arena world */
+    public static final String WORLD_PREFIX = "openpillars_arena_";
+
+    // Per-world files that must never be shared with the template
+    private static final Set<String> SKIPPED_FILES = new HashSet<>(Arrays.asList(
+            "session.lock", "uid.dat"
+    ));
+
+    private final OpenPillars plugin;
+    private final AtomicInteger cloneCounter;
+    private CompletableFuture<Void> cleanup;
+
+    public ArenaWorldCloner(OpenPillars plugin) {
+        this.plugin = plugin;
+        this.cloneCounter = new AtomicInteger();
+        this.cleanup = CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Checks if template cloning is enabled in the config
+     * @return true if arenas should be cloned from a template
+     */
+    public boolean isEnabled() {
+        return plugin.getConfig().getBoolean("world.template.enabled", false);
+    }
+
+    /**
+     * Gets the template directory, resolved against the plugin folder if relative
+     * @return The template directory
+     */
+    public File getTemplateDirectory() {
+        String path = plugin.getConfig().getString("world.template.directory", "templates/arena");
+        File directory = new File(path);
+        return directory.isAbsolute() ? directory : new File(plugin.getDataFolder(), path);
+    }
+
+    /**
+     * Deletes clones left behind by a crash or an unclean shutdown.
+     * Clones requested afterwards wait for this to finish.
+     */
+    public void cleanupStaleClones() {
+        File container = Bukkit.getWorldContainer();
+        File[] stale = container.listFiles((dir, name) -> name.startsWith(WORLD_PREFIX)
+                && Bukkit.getWorld(name) == null);
+        if (stale == null || stale.length == 0) return;
+
+        cleanup = CompletableFuture.runAsync(() -> {
+            for (File folder : stale) {
+                deleteDirectory(folder.toPath());
+            }
+            plugin.getLogger().info("Removed " + stale.length + " stale arena world(s)");
+        });
+    }
+
+    /**
+     * Clones the template into a fresh world.
+     * The file work runs off the main thread; the world itself is loaded
+     * on the main thread as Bukkit requires, and the future completes there.
+     * @return Future completing with the loaded arena world
+     */
+    public CompletableFuture<World> cloneWorld() {
+        Path template = getTemplateDirectory().toPath();
+        String worldName = WORLD_PREFIX + Long.toString(System.currentTimeMillis(), 36)
+                + "_" + cloneCounter.incrementAndGet();
+        Path target = Bukkit.getWorldContainer().toPath().resolve(worldName);
+
+        CompletableFuture<World> result = new CompletableFuture<>();
+
+        cleanup.thenRunAsync(() -> {
+            if (!Files.isDirectory(template)) {
+                throw new IllegalStateException("Arena template not found: " + template);
+            }
+            long start = System.nanoTime();
+            long bytes = copyTemplate(template, target);
+            plugin.getLogger().fine("Cloned arena template into '" + worldName + "' ("
+                    + bytes / 1024 + " KiB copied, "
+                    + (System.nanoTime() - start) / 1_000_000 + "ms)");
+        }).whenComplete((ignored, ex) -> {
+            if (ex != null) {
+                deleteDirectory(target);
+                result.completeExceptionally(ex);
+                return;
+            }
+            if (!plugin.isEnabled()) {
+                deleteDirectory(target);
+                result.cancel(false);
+                return;
+            }
+
+            // World loading must happen on the main thread
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                try {
+                    World world = new WorldCreator(worldName).createWorld();
+                    if (world == null) {
+                        throw new IllegalStateException("Server refused to load " + worldName);
+                    }
+                    world.setAutoSave(false);
+                    result.complete(world);
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        });
+
+        return result;
+    }
+
+    /**
+     * Unloads a cloned arena world without saving and deletes its folder.
+     * Anyone still inside is moved to the main world first.
+     * @param world The arena world to discard
+     */
+    public void discard(World world) {
+        if (world == null) return;
+
+        File folder = world.getWorldFolder();
+        World mainWorld = Bukkit.getWorlds().get(0);
+        for (Player player : world.getPlayers()) {
+            player.teleport(mainWorld.getSpawnLocation());
+        }
+
+        if (!Bukkit.unloadWorld(world, false)) {
+            plugin.getLogger().warning("Could not unload arena world '" + world.getName()
+                    + "', it will be removed on the next startup");
+            return;
+        }
+
+        CompletableFuture.runAsync(() -> deleteDirectory(folder.toPath()));
+    }
+
+    /**
+     * Copies the template tree, leaving out per-world lock and id files
+     * @param source The template directory
+     * @param target The clone directory
+     * @return The number of bytes copied
+     */
+    private long copyTemplate(Path source, Path target) {
+        AtomicLong copied = new AtomicLong();
+        try {
+            Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                    Files.createDirectories(target.resolve(source.relativize(dir)));
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    String name = file.getFileName().toString();
+                    if (SKIPPED_FILES.contains(name)) return FileVisitResult.CONTINUE;
+
+                    Files.copy(file, target.resolve(source.relativize(file)), StandardCopyOption.REPLACE_EXISTING);
+                    copied.addAndGet(attrs.size());
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to clone arena template", e);
+        }
+        return copied.get();
+    }
+
+    /**
+     * Recursively deletes a directory, logging instead of throwing
+     * @param directory The directory to delete
+     */
+    private void deleteDirectory(Path directory) {
+        if (!Files.exists(directory)) return;
+        try {
+            Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    Files.delete(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                    Files.delete(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not delete arena world folder " + directory, e);
+        }
+    }
+}
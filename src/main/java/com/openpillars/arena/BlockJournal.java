@@ -0,0 +1,257 @@
+package com.openpillars.arena;
+
+import com.openpillars.OpenPillars;
+import com.openpillars.perf.Subsystem;
+import com.openpillars.perf.Timings;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Arrays;
+
+/**
+ * Per-arena journal of the original state of every block touched during a game.
+ * Only the first change to a position is recorded, so rolling the journal back
+ * in reverse order restores the world exactly as it was before the game.
+ *
+ * Entries are stored as packed coordinates and material ordinals in parallel
+ * primitive arrays, keeping a journal of tens of thousands of blocks to a few
+ * hundred kilobytes with no per-entry objects.
+ */
+public class BlockJournal {
+
+    private static final Material[] MATERIALS = Material.values();
+    private static final int INITIAL_CAPACITY = 256;
+
+    // Never a valid packed position: X would be -2^25, beyond the world border
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final OpenPillars plugin;
+    private final ArenaMutationLog mutationLog;
+    private final Timings timings;
+
+    private World world;
+    private long[] positions;
+    private int[] materials;
+    private int size;
+
+    // Open-addressing set of already recorded positions
+    private long[] seen;
+    private int seenCount;
+
+    private BukkitTask rollbackTask;
+
+    public BlockJournal(OpenPillars plugin, ArenaMutationLog mutationLog, Timings timings) {
+        this.plugin = plugin;
+        this.mutationLog = mutationLog;
+        this.timings = timings;
+        this.positions = new long[INITIAL_CAPACITY];
+        this.materials = new int[INITIAL_CAPACITY];
+        this.seen = newSeenTable(INITIAL_CAPACITY * 2);
+    }
+
+    /**
+     * Starts recording changes in the given world, discarding any previous entries
+     * @param world The arena world
+     */
+    public void begin(World world) {
+        cancelRollback();
+        clear();
+        this.world = world;
+    }
+
+    /**
+     * Checks if the journal is recording
+     * @return true if changes are being recorded
+     */
+    public boolean isRecording() {
+        return world != null;
+    }
+
+    /**
+     * Records the current state of a block before it changes
+     * @param block The block about to change
+     */
+    public void record(Block block) {
+        if (world == null || !world.equals(block.getWorld())) return;
+        record(block.getX(), block.getY(), block.getZ(), block.getType());
+    }
+
+    /**
+     * Records a block state captured before it changed
+     * @param state The original block state
+     */
+    public void record(BlockState state) {
+        if (world == null || !world.equals(state.getWorld())) return;
+        record(state.getX(), state.getY(), state.getZ(), state.getType());
+    }
+
+    private void record(int x, int y, int z, Material original) {
+        long packed = pack(x, y, z);
+        if (!markSeen(packed)) return;
+
+        if (size == positions.length) {
+            positions = Arrays.copyOf(positions, size * 2);
+            materials = Arrays.copyOf(materials, size * 2);
+        }
+        positions[size] = packed;
+        materials[size] = original.ordinal();
+        size++;
+
+        // Mirror to disk so the change survives a crash
+        mutationLog.append(packed, original);
+    }
+
+    /**
+     * Rolls the journal back over several ticks, restoring at most
+     * blocksPerTick blocks each tick, newest change first
+     * @param blocksPerTick The per-tick block budget
+     * @param onComplete Called on the main thread once every block is restored
+     */
+    public void rollback(int blocksPerTick, Runnable onComplete) {
+        cancelRollback();
+        int budget = Math.max(1, blocksPerTick);
+
+        rollbackTask = new BukkitRunnable() {
+            @Override
+            public void run() {
+                long start = plugin.getPerfMonitor().start();
+                restore(budget);
+                if (size == 0) {
+                    this.cancel();
+                    rollbackTask = null;
+                    finish();
+                    onComplete.run();
+                }
+                timings.stop(Subsystem.RESET, start);
+            }
+        }.runTaskTimer(plugin, 1L, 1L);
+    }
+
+    /**
+     * Rolls the whole journal back immediately, cancelling any running rollback
+     */
+    public void rollbackNow() {
+        cancelRollback();
+        restore(size);
+        finish();
+    }
+
+    /**
+     * Restores up to limit entries from the end of the journal
+     */
+    private void restore(int limit) {
+        World target = world;
+        int end = Math.max(0, size - limit);
+        for (int i = size - 1; i >= end; i--) {
+            long packed = positions[i];
+            Block block = target.getBlockAt(unpackX(packed), unpackY(packed), unpackZ(packed));
+            Material original = MATERIALS[materials[i]];
+            if (block.getType() != original) {
+                block.setType(original, false);
+            }
+        }
+        size = end;
+    }
+
+    private void cancelRollback() {
+        if (rollbackTask != null) {
+            rollbackTask.cancel();
+            rollbackTask = null;
+        }
+    }
+
+    private void finish() {
+        clear();
+        world = null;
+    }
+
+    private void clear() {
+        size = 0;
+        if (seenCount > 0) {
+            // Shrink back if a big game blew the table up
+            if (seen.length > INITIAL_CAPACITY * 8) {
+                seen = newSeenTable(INITIAL_CAPACITY * 2);
+                positions = new long[INITIAL_CAPACITY];
+                materials = new int[INITIAL_CAPACITY];
+            } else {
+                Arrays.fill(seen, EMPTY);
+            }
+            seenCount = 0;
+        }
+    }
+
+    /**
+     * Adds a position to the seen set
+     * @return true if the position was not seen before
+     */
+    private boolean markSeen(long packed) {
+        if (seenCount * 2 >= seen.length) {
+            rehash();
+        }
+        int mask = seen.length - 1;
+        int slot = mix(packed) & mask;
+        while (seen[slot] != EMPTY) {
+            if (seen[slot] == packed) return false;
+            slot = (slot + 1) & mask;
+        }
+        seen[slot] = packed;
+        seenCount++;
+        return true;
+    }
+
+    private void rehash() {
+        long[] old = seen;
+        seen = newSeenTable(old.length * 2);
+        int mask = seen.length - 1;
+        for (long packed : old) {
+            if (packed == EMPTY) continue;
+            int slot = mix(packed) & mask;
+            while (seen[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            seen[slot] = packed;
+        }
+    }
+
+    private static long[] newSeenTable(int capacity) {
+        long[] table = new long[capacity];
+        Arrays.fill(table, EMPTY);
+        return table;
+    }
+
+    private static int mix(long packed) {
+        long h = packed * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Packs block coordinates into a long (26 bits X, 26 bits Z, 12 bits Y)
+     */
+    public static long pack(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    public static int unpackX(long packed) {
+        return (int) (packed >> 38);
+    }
+
+    public static int unpackY(long packed) {
+        return (int) (packed << 52 >> 52);
+    }
+
+    public static int unpackZ(long packed) {
+        return (int) (packed << 26 >> 38);
+    }
+
+    /**
+     * Gets the number of recorded blocks still to be restored
+     * @return The journal size
+     */
+    public int size() {
+        return size;
+    }
+}
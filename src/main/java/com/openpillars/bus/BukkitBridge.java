@@ -0,0 +1,45 @@
+package com.openpillars.bus;
+
+import org.bukkit.Bukkit;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+
+import java.util.function.Function;
+
+/**
+ * Forwards internal events to their public Bukkit counterpart, but only
+ * when another plugin actually listens for it.
+ * @param <T> The internal event type
+ */
+final class BukkitBridge<T> {
+
+    private final HandlerList handlers;
+    private final Function<? super T, ? extends Event> factory;
+
+    BukkitBridge(HandlerList handlers, Function<? super T, ? extends Event> factory) {
+        this.handlers = handlers;
+        this.factory = factory;
+    }
+
+    /**
+     * Calls the Bukkit event for an internal event if anyone listens
+     * @param event The internal event
+     * @return false if the Bukkit event was cancelled
+     */
+    boolean dispatch(T event) {
+        // The handler list keeps its listeners baked into an array, checking it is cheap
+        if (handlers.getRegisteredListeners().length == 0) return true;
+
+        Event bukkitEvent = factory.apply(event);
+        Bukkit.getPluginManager().callEvent(bukkitEvent);
+
+        if (bukkitEvent instanceof Cancellable && ((Cancellable) bukkitEvent).isCancelled()) {
+            if (event instanceof Cancellable) {
+                ((Cancellable) event).setCancelled(true);
+            }
+            return false;
+        }
+        return true;
+    }
+}
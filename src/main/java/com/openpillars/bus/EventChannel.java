@@ -0,0 +1,91 @@
+package com.openpillars.bus;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A typed channel of the internal event bus.
+ * Handlers are kept in a copy-on-write array and called directly, so posting
+ * an event is a plain loop over functional handlers with no reflection and
+ * no allocation. Subscribing is rare and may happen from any thread.
+ * @param <T> The event type
+ */
+public final class EventChannel<T> {
+
+    private static final Consumer<?>[] NO_HANDLERS = new Consumer<?>[0];
+
+    private final String name;
+    private final Logger logger;
+    private volatile Consumer<? super T>[] handlers;
+    private volatile BukkitBridge<T> bridge;
+
+    @SuppressWarnings("unchecked")
+    EventChannel(String name, Logger logger) {
+        this.name = name;
+        this.logger = logger;
+        this.handlers = (Consumer<? super T>[]) NO_HANDLERS;
+    }
+
+    /**
+     * Adds a handler to the channel
+     * @param handler The handler, called on the thread that posts the event
+     */
+    public synchronized void subscribe(Consumer<? super T> handler) {
+        Consumer<? super T>[] current = handlers;
+        Consumer<? super T>[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = handler;
+        handlers = updated;
+    }
+
+    /**
+     * Removes a handler from the channel
+     * @param handler The handler to remove
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized void unsubscribe(Consumer<? super T> handler) {
+        Consumer<? super T>[] current = handlers;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] != handler) continue;
+
+            Consumer<? super T>[] updated = (Consumer<? super T>[]) new Consumer<?>[current.length - 1];
+            System.arraycopy(current, 0, updated, 0, i);
+            System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+            handlers = updated;
+            return;
+        }
+    }
+
+    /**
+     * Posts an event. If a Bukkit bridge is set and external plugins listen,
+     * the matching Bukkit event is called first; cancelling it there stops
+     * the internal handlers from running.
+     * @param event The event to post
+     */
+    public void post(T event) {
+        BukkitBridge<T> currentBridge = bridge;
+        if (currentBridge != null && !currentBridge.dispatch(event)) return;
+
+        Consumer<? super T>[] current = handlers;
+        for (Consumer<? super T> handler : current) {
+            try {
+                handler.accept(event);
+            } catch (RuntimeException e) {
+                logger.log(Level.SEVERE, "Internal " + name + " handler failed", e);
+            }
+        }
+    }
+
+    /**
+     * Checks if any internal handler is subscribed
+     * @return true if the channel has handlers
+     */
+    public boolean hasHandlers() {
+        return handlers.length > 0;
+    }
+
+    void setBridge(BukkitBridge<T> bridge) {
+        this.bridge = bridge;
+    }
+}
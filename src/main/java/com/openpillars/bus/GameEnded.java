@@ -0,0 +1,28 @@
+package com.openpillars.bus;
+
+import com.openpillars.game.GameManager;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Posted when a game ends, with or without a winner
+ */
+public final class GameEnded {
+
+    private final GameManager gameManager;
+    private final Player winner;
+
+    public GameEnded(GameManager gameManager, @Nullable Player winner) {
+        this.gameManager = gameManager;
+        this.winner = winner;
+    }
+
+    public GameManager getGameManager() {
+        return gameManager;
+    }
+
+    @Nullable
+    public Player getWinner() {
+        return winner;
+    }
+}
@@ -0,0 +1,76 @@
+package com.openpillars.bus;
+
+import com.openpillars.OpenPillars;
+import com.openpillars.events.GameEndEvent;
+import com.openpillars.events.GameStartEvent;
+import com.openpillars.events.GameStateChangeEvent;
+import com.openpillars.events.PlayerEliminatedEvent;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Typed event bus for hooks between OpenPillars subsystems (stats, sounds,
+ * scoreboards...). Internal code posts plain event objects to a channel;
+ * the public Bukkit events are only created and called when some other
+ * plugin listens for them.
+ *
+ * Look a channel up once and keep the reference, posting through it
+ * skips the channel lookup as well.
+ */
+public class GameEventBus {
+
+    private final OpenPillars plugin;
+    private final Map<Class<?>, EventChannel<?>> channels;
+
+    public GameEventBus(OpenPillars plugin) {
+        this.plugin = plugin;
+        this.channels = new ConcurrentHashMap<>();
+
+        bridge(GameStarted.class, GameStartEvent.getHandlerList(),
+                event -> new GameStartEvent(event.getGameManager()));
+        bridge(GameEnded.class, GameEndEvent.getHandlerList(),
+                event -> new GameEndEvent(event.getGameManager(), event.getWinner()));
+        bridge(GameStateChanged.class, GameStateChangeEvent.getHandlerList(),
+                event -> new GameStateChangeEvent(event.getPreviousState(), event.getNewState()));
+        bridge(PlayerEliminated.class, PlayerEliminatedEvent.getHandlerList(),
+                event -> new PlayerEliminatedEvent(event.getPlayer(), event.getGamePlayer(),
+                        event.getCause(), event.getKiller()));
+    }
+
+    /**
+     * Gets the channel for an event type, creating it on first use
+     * @param type The event type
+     * @param <T> The event type
+     * @return The channel
+     */
+    @SuppressWarnings("unchecked")
+    public <T> EventChannel<T> channel(Class<T> type) {
+        return (EventChannel<T>) channels.computeIfAbsent(type,
+                key -> new EventChannel<>(key.getSimpleName(), plugin.getLogger()));
+    }
+
+    /**
+     * Posts an event to the channel of its class
+     * @param event The event to post
+     * @param <T> The event type
+     */
+    @SuppressWarnings("unchecked")
+    public <T> void post(T event) {
+        channel((Class<T>) event.getClass()).post(event);
+    }
+
+    /**
+     * Forwards an internal event type to a public Bukkit event when observed
+     * @param type The internal event type
+     * @param handlers The handler list of the Bukkit event
+     * @param factory Creates the Bukkit event from the internal one
+     * @param <T> The internal event type
+     */
+    public <T> void bridge(Class<T> type, HandlerList handlers, Function<? super T, ? extends Event> factory) {
+        channel(type).setBridge(new BukkitBridge<>(handlers, factory));
+    }
+}
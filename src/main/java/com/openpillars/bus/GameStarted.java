@@ -0,0 +1,19 @@
+package com.openpillars.bus;
+
+import com.openpillars.game.GameManager;
+
+/**
+ * Posted when a game begins
+ */
+public final class GameStarted {
+
+    private final GameManager gameManager;
+
+    public GameStarted(GameManager gameManager) {
+        this.gameManager = gameManager;
+    }
+
+    public GameManager getGameManager() {
+        return gameManager;
+    }
+}
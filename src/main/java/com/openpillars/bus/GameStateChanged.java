@@ -0,0 +1,25 @@
+package com.openpillars.bus;
+
+import com.openpillars.game.GameState;
+
+/**
+ * Posted after the game state changed
+ */
+public final class GameStateChanged {
+
+    private final GameState previousState;
+    private final GameState newState;
+
+    public GameStateChanged(GameState previousState, GameState newState) {
+        this.previousState = previousState;
+        this.newState = newState;
+    }
+
+    public GameState getPreviousState() {
+        return previousState;
+    }
+
+    public GameState getNewState() {
+        return newState;
+    }
+}
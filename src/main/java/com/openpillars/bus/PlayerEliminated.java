@@ -0,0 +1,54 @@
+package com.openpillars.bus;
+
+import com.openpillars.events.PlayerEliminatedEvent.EliminationCause;
+import com.openpillars.game.GamePlayer;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Cancellable;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Posted when a player is about to be eliminated.
+ * Cancelled when an external listener cancels the matching Bukkit event.
+ */
+public final class PlayerEliminated implements Cancellable {
+
+    private final Player player;
+    private final GamePlayer gamePlayer;
+    private final EliminationCause cause;
+    private final Player killer;
+    private boolean cancelled;
+
+    public PlayerEliminated(Player player, GamePlayer gamePlayer, EliminationCause cause, @Nullable Player killer) {
+        this.player = player;
+        this.gamePlayer = gamePlayer;
+        this.cause = cause;
+        this.killer = killer;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public GamePlayer getGamePlayer() {
+        return gamePlayer;
+    }
+
+    public EliminationCause getCause() {
+        return cause;
+    }
+
+    @Nullable
+    public Player getKiller() {
+        return killer;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public void setCancelled(boolean cancelled) {
+        this.cancelled = cancelled;
+    }
+}
@@ -3,6 +3,12 @@ package com.openpillars.commands;
 import com.openpillars.OpenPillars;
 import com.openpillars.game.GameManager;
 import com.openpillars.game.GameState;
+import com.openpillars.history.MatchHistory;
+import com.openpillars.perf.LatencyHistogram;
+import com.openpillars.perf.PerfMonitor;
+import com.openpillars.perf.Subsystem;
+import com.openpillars.perf.Timings;
+import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -12,17 +18,21 @@ import org.bukkit.entity.Player;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.Map;
+import java.util.logging.Level;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Main command handler for /pillars command.
- * Handles all sub-commands: join, leave, start, stop, reload, help
+ * Handles all sub-commands: join, leave, start, stop, reload, setup, history, perf, help
  */
 public class PillarsCommand implements CommandExecutor, TabCompleter {
 
     private final OpenPillars plugin;
     private final List<String> subCommands = Arrays.asList(
-            "join", "leave", "start", "stop", "reload", "help", "setup"
+            "join", "leave", "start", "stop", "reload", "help", "setup", "history", "perf"
     );
 
     public PillarsCommand(OpenPillars plugin) {
@@ -51,6 +61,10 @@ public class PillarsCommand implements CommandExecutor, TabCompleter {
                 return handleReload(sender);
             case "setup":
                 return handleSetup(sender, args);
+            case "history":
+                return handleHistory(sender, args);
+            case "perf":
+                return handlePerf(sender, args);
             case "help":
             default:
                 sendHelp(sender);
@@ -87,14 +101,16 @@ public class PillarsCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
-        int maxPlayers = plugin.getConfig().getInt("game.max-players", 16);
-        if (gameManager.getPlayers().size() >= maxPlayers) {
-            player.sendMessage(plugin.getFileHandler().getMessage("commands.join-fail-full"));
-            return true;
-        }
-
+        // The game checks its capacity atomically while adding the player
         if (gameManager.addPlayer(player)) {
             player.sendMessage(plugin.getFileHandler().getMessage("commands.join-success"));
+        } else if (gameManager.isFull()) {
+            player.sendMessage(plugin.getFileHandler().getMessage("commands.join-fail-full"));
+        } else if (gameManager.isPlaying(player)) {
+            player.sendMessage(plugin.getFileHandler().getMessage("commands.join-fail-ingame"));
+        } else {
+            // The game started or began resetting since the check above
+            player.sendMessage(plugin.getFileHandler().getMessage("commands.join-fail-started"));
         }
 
         return true;
@@ -146,7 +162,7 @@ public class PillarsCommand implements CommandExecutor, TabCompleter {
         }
 
         int minPlayers = plugin.getConfig().getInt("game.min-players", 2);
-        if (gameManager.getPlayers().size() < minPlayers) {
+        if (gameManager.getPlayerCount() < minPlayers) {
             sender.sendMessage(plugin.getFileHandler().getMessage("commands.start-fail-notenough"));
             return true;
         }
@@ -217,6 +233,187 @@ public class PillarsCommand implements CommandExecutor, TabCompleter {
         return true;
     }
 
+    /**
+     * Handles the history sub-command.
+     * The archive is read on its own thread, results are sent back on the main thread.
+     */
+    private boolean handleHistory(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("openpillars.command.history")) {
+            sender.sendMessage(plugin.getFileHandler().getMessage("general.no-permission"));
+            return true;
+        }
+
+        MatchHistory history = plugin.getMatchHistory();
+        if (history == null) {
+            sender.sendMessage(plugin.getFileHandler().getMessage("history.disabled"));
+            return true;
+        }
+
+        String query = args.length > 1 ? args[1].toLowerCase() : "";
+        switch (query) {
+            case "length":
+                history.averageDurationByPlayerCount().whenComplete((result, error) ->
+                        Bukkit.getScheduler().runTask(plugin, () -> sendLengths(sender, result, error)));
+                return true;
+            case "loot":
+                history.lootTierFrequency().whenComplete((result, error) ->
+                        Bukkit.getScheduler().runTask(plugin, () -> sendLoot(sender, result, error)));
+                return true;
+            default:
+                sender.sendMessage(plugin.getFileHandler().getMessage("history.usage"));
+                return true;
+        }
+    }
+
+    private void sendLengths(CommandSender sender, Map<Integer, LongSummaryStatistics> result, Throwable error) {
+        if (!checkHistoryResult(sender, result, error)) return;
+
+        sender.sendMessage(plugin.getFileHandler().getMessage("history.length-header"));
+        for (Map.Entry<Integer, LongSummaryStatistics> entry : result.entrySet()) {
+            LongSummaryStatistics lengths = entry.getValue();
+            sender.sendMessage(plugin.getFileHandler().getRawMessage("history.length-line",
+                    "%players%", String.valueOf(entry.getKey()),
+                    "%average%", formatDuration((long) lengths.getAverage()),
+                    "%games%", String.valueOf(lengths.getCount()),
+                    "%min%", formatDuration(lengths.getMin()),
+                    "%max%", formatDuration(lengths.getMax())));
+        }
+    }
+
+    private void sendLoot(CommandSender sender, Map<String, Long> result, Throwable error) {
+        if (!checkHistoryResult(sender, result, error)) return;
+
+        long total = 0;
+        for (long count : result.values()) {
+            total += count;
+        }
+
+        sender.sendMessage(plugin.getFileHandler().getMessage("history.loot-header"));
+        for (Map.Entry<String, Long> entry : result.entrySet()) {
+            sender.sendMessage(plugin.getFileHandler().getRawMessage("history.loot-line",
+                    "%tier%", entry.getKey(),
+                    "%count%", String.valueOf(entry.getValue()),
+                    "%percent%", String.format("%.1f", entry.getValue() * 100.0 / total)));
+        }
+    }
+
+    private boolean checkHistoryResult(CommandSender sender, Map<?, ?> result, Throwable error) {
+        if (error != null) {
+            plugin.getLogger().log(Level.WARNING, "Could not read match history", error);
+            sender.sendMessage(plugin.getFileHandler().getMessage("history.failed"));
+            return false;
+        }
+        if (result.isEmpty()) {
+            sender.sendMessage(plugin.getFileHandler().getMessage("history.empty"));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Handles the perf sub-command
+     */
+    private boolean handlePerf(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("openpillars.command.perf")) {
+            sender.sendMessage(plugin.getFileHandler().getMessage("general.no-permission"));
+            return true;
+        }
+
+        PerfMonitor perf = plugin.getPerfMonitor();
+        String action = args.length > 1 ? args[1].toLowerCase() : "";
+        switch (action) {
+            case "":
+                sendPerf(sender, perf);
+                return true;
+            case "on":
+                perf.setEnabled(true);
+                sender.sendMessage(plugin.getFileHandler().getMessage("perf.started"));
+                return true;
+            case "off":
+                perf.setEnabled(false);
+                sender.sendMessage(plugin.getFileHandler().getMessage("perf.stopped"));
+                return true;
+            case "reset":
+                perf.reset();
+                sender.sendMessage(plugin.getFileHandler().getMessage("perf.reset"));
+                return true;
+            default:
+                sender.sendMessage(plugin.getFileHandler().getMessage("perf.usage"));
+                return true;
+        }
+    }
+
+    private void sendPerf(CommandSender sender, PerfMonitor perf) {
+        if (!perf.isEnabled()) {
+            sender.sendMessage(plugin.getFileHandler().getMessage("perf.disabled"));
+        }
+
+        long ticks = Math.max(1, perf.getTicks());
+        boolean measured = false;
+        for (Timings timings : perf.getTimings()) {
+            boolean headerSent = false;
+            for (Subsystem subsystem : Subsystem.values()) {
+                LatencyHistogram histogram = timings.get(subsystem);
+                long calls = histogram.count();
+                if (calls == 0) continue;
+
+                if (!headerSent) {
+                    sender.sendMessage(plugin.getFileHandler().getMessage("perf.header",
+                            "%name%", timings.getName(),
+                            "%ticks%", String.valueOf(perf.getTicks())));
+                    headerSent = true;
+                }
+                // A tick has 50ms, the share is the average cost per tick against that budget
+                sender.sendMessage(plugin.getFileHandler().getRawMessage("perf.line",
+                        "%subsystem%", subsystem.getKey(),
+                        "%p50%", formatNanos(histogram.percentile(0.5)),
+                        "%p99%", formatNanos(histogram.percentile(0.99)),
+                        "%max%", formatNanos(histogram.max()),
+                        "%calls%", String.format("%.2f", (double) calls / ticks),
+                        "%share%", String.format("%.3f", histogram.total() / (double) ticks / 50_000_000.0 * 100)));
+                
+                long allocationCalls = timings.getAllocationCalls(subsystem);
+                if (allocationCalls > 0) {
+                    long bytes = timings.getAllocatedBytes(subsystem);
+                    sender.sendMessage(plugin.getFileHandler().getRawMessage("perf.allocation-line",
+                            "%per_call%", formatBytes(bytes / allocationCalls),
+                            "%per_tick%", formatBytes(bytes / ticks)));
+                }
+            }
+            measured |= headerSent;
+        }
+
+        if (!measured && perf.isEnabled()) {
+            sender.sendMessage(plugin.getFileHandler().getMessage("perf.empty"));
+        }
+    }
+
+    /**
+     * Formats nanoseconds to the most readable unit
+     */
+    private static String formatNanos(long nanos) {
+        if (nanos < 1_000) return nanos + "ns";
+        if (nanos < 1_000_000) return String.format("%.1f\u00b5s", nanos / 1_000.0);
+        return String.format("%.2fms", nanos / 1_000_000.0);
+    }
+
+    /**
+     * Formats a byte count to the most readable unit
+     */
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) return bytes + " B";
+        if (bytes < 1024 * 1024) return String.format("%.1f KiB", bytes / 1024.0);
+        return String.format("%.2f MiB", bytes / (1024.0 * 1024.0));
+    }
+
+    /**
+     * Formats milliseconds to a time string (MM:SS)
+     */
+    private static String formatDuration(long millis) {
+        long seconds = millis / 1000;
+        return String.format("%02d:%02d", seconds / 60, seconds % 60);
+    }
+
     /**
      * Sends the help message to a sender
      */
@@ -237,6 +434,12 @@ public class PillarsCommand implements CommandExecutor, TabCompleter {
         if (sender.hasPermission("openpillars.command.setup")) {
             sender.sendMessage(plugin.getFileHandler().getRawMessage("commands.help-setup"));
         }
+        if (sender.hasPermission("openpillars.command.history")) {
+            sender.sendMessage(plugin.getFileHandler().getRawMessage("commands.help-history"));
+        }
+        if (sender.hasPermission("openpillars.command.perf")) {
+            sender.sendMessage(plugin.getFileHandler().getRawMessage("commands.help-perf"));
+        }
         
         sender.sendMessage(plugin.getFileHandler().getRawMessage("commands.help-footer"));
     }
@@ -249,6 +452,18 @@ public class PillarsCommand implements CommandExecutor, TabCompleter {
                     .filter(sub -> hasPermissionForSubCommand(sender, sub))
                     .collect(Collectors.toList());
         }
+        if (args.length == 2 && args[0].equalsIgnoreCase("history")
+                && sender.hasPermission("openpillars.command.history")) {
+            return Stream.of("length", "loot")
+                    .filter(query -> query.startsWith(args[1].toLowerCase()))
+                    .collect(Collectors.toList());
+        }
+        if (args.length == 2 && args[0].equalsIgnoreCase("perf")
+                && sender.hasPermission("openpillars.command.perf")) {
+            return Stream.of("on", "off", "reset")
+                    .filter(action -> action.startsWith(args[1].toLowerCase()))
+                    .collect(Collectors.toList());
+        }
         
         return new ArrayList<>();
     }
@@ -270,6 +485,10 @@ public class PillarsCommand implements CommandExecutor, TabCompleter {
                 return sender.hasPermission("openpillars.command.reload");
             case "setup":
                 return sender.hasPermission("openpillars.command.setup");
+            case "history":
+                return sender.hasPermission("openpillars.command.history");
+            case "perf":
+                return sender.hasPermission("openpillars.command.perf");
             case "help":
                 return true;
             default:
@@ -29,7 +29,7 @@ public class GameStartEvent extends Event {
      * @return The player count
      */
     public int getPlayerCount() {
-        return gameManager.getPlayers().size();
+        return gameManager.getPlayerCount();
     }
 
     @Override
@@ -0,0 +1,65 @@
+package com.openpillars.events;
+
+import org.bukkit.block.Block;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Called once per generation interval with every pillar block generated
+ * in that interval, across all pillars. Fired after the blocks are placed.
+ * Listeners that only need totals can use this instead of handling a
+ * {@link PillarBlockGenerateEvent} for every single block.
+ */
+public class PillarBatchGenerateEvent extends Event {
+
+    private static final HandlerList HANDLERS = new HandlerList();
+    private final Map<UUID, List<Block>> blocks;
+    private final int blockCount;
+
+    public PillarBatchGenerateEvent(Map<UUID, List<Block>> blocks) {
+        this.blocks = Collections.unmodifiableMap(blocks);
+        int count = 0;
+        for (List<Block> pillarBlocks : blocks.values()) {
+            count += pillarBlocks.size();
+        }
+        this.blockCount = count;
+    }
+
+    /**
+     * Gets the generated blocks, grouped by the UUID of the pillar owner
+     * @return The generated blocks per pillar owner
+     */
+    public Map<UUID, List<Block>> getBlocks() {
+        return blocks;
+    }
+
+    /**
+     * Gets the total number of blocks generated in this interval
+     * @return The block count
+     */
+    public int getBlockCount() {
+        return blockCount;
+    }
+
+    /**
+     * Gets the number of pillars that grew in this interval
+     * @return The pillar count
+     */
+    public int getPillarCount() {
+        return blocks.size();
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
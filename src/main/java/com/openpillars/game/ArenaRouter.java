@@ -0,0 +1,202 @@
+package com.openpillars.game;
+
+import com.openpillars.arena.ArenaBounds;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Resolves server-wide events to the arena they concern, so listeners can
+ * drop the large majority of events that have nothing to do with any game
+ * after a single lookup.
+ *
+ * Players are found through an identity map of their Player objects. Blocks are
+ * found through a per-world index of packed chunk keys covering each arena's
+ * bounds, then checked against the exact bounds. The block index is rebuilt
+ * when bounds change, which happens once or twice per game. Main thread only.
+ */
+public class ArenaRouter {
+
+    private final Map<Player, GameManager> players;
+    private final Map<GameManager, ArenaBounds> bounds;
+    private final Map<World, ChunkIndex> worlds;
+
+    public ArenaRouter() {
+        this.players = new IdentityHashMap<>();
+        this.bounds = new IdentityHashMap<>();
+        this.worlds = new IdentityHashMap<>();
+    }
+
+    /**
+     * Gets the arena a player is in, as a player or spectator
+     * @param player The player
+     * @return The arena, or null if the player is in no game
+     */
+    public GameManager arenaOf(Player player) {
+        return players.get(player);
+    }
+
+    /**
+     * Gets the running arena a block belongs to
+     * @param block The block
+     * @return The arena, or null if the block is outside every arena
+     */
+    public GameManager arenaAt(Block block) {
+        ChunkIndex index = worlds.get(block.getWorld());
+        if (index == null) return null;
+
+        GameManager arena = index.get(chunkKey(block.getX() >> 4, block.getZ() >> 4));
+        return arena != null && arena.isInArena(block) ? arena : null;
+    }
+
+    /**
+     * Routes a player's events to an arena
+     * @param player The player
+     * @param arena The arena the player joined
+     */
+    public void bind(Player player, GameManager arena) {
+        players.put(player, arena);
+    }
+
+    /**
+     * Stops routing a player's events
+     * @param player The player
+     */
+    public void unbind(Player player) {
+        players.remove(player);
+    }
+
+    /**
+     * Moves the route of a player who reconnected to their new Player object
+     * @param player The player that joined the server
+     * @return The player's arena, or null if they were in no game
+     */
+    public GameManager rebind(Player player) {
+        GameManager arena = null;
+        Iterator<Map.Entry<Player, GameManager>> iterator = players.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Player, GameManager> entry = iterator.next();
+            if (entry.getKey() != player && entry.getKey().getUniqueId().equals(player.getUniqueId())) {
+                arena = entry.getValue();
+                iterator.remove();
+            }
+        }
+        if (arena != null) {
+            players.put(player, arena);
+        }
+        return arena;
+    }
+
+    /**
+     * Stops routing the events of every player of an arena
+     * @param arena The arena
+     */
+    public void unbindAll(GameManager arena) {
+        players.values().removeIf(bound -> bound == arena);
+    }
+
+    /**
+     * Routes block events inside the given bounds to an arena
+     * @param arena The arena
+     * @param arenaBounds The area the arena covers, or null to stop routing blocks
+     */
+    public void setBounds(GameManager arena, ArenaBounds arenaBounds) {
+        if (arenaBounds == null) {
+            if (bounds.remove(arena) == null) return;
+        } else {
+            bounds.put(arena, arenaBounds);
+        }
+        rebuild();
+    }
+
+    private void rebuild() {
+        worlds.clear();
+        for (Map.Entry<GameManager, ArenaBounds> entry : bounds.entrySet()) {
+            ArenaBounds area = entry.getValue();
+            ChunkIndex index = worlds.computeIfAbsent(area.getWorld(), world -> new ChunkIndex());
+            for (int cx = area.getMinX() >> 4; cx <= area.getMaxX() >> 4; cx++) {
+                for (int cz = area.getMinZ() >> 4; cz <= area.getMaxZ() >> 4; cz++) {
+                    index.put(chunkKey(cx, cz), entry.getKey());
+                }
+            }
+        }
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Open-addressing map from packed chunk keys to arenas
+     */
+    private static final class ChunkIndex {
+
+        // Would be chunk X -2^31, far beyond the world border
+        private static final long EMPTY = Long.MIN_VALUE;
+
+        private long[] keys;
+        private GameManager[] arenas;
+        private int size;
+
+        private ChunkIndex() {
+            this.keys = newTable(64);
+            this.arenas = new GameManager[64];
+        }
+
+        private GameManager get(long key) {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            long current;
+            while ((current = keys[slot]) != EMPTY) {
+                if (current == key) return arenas[slot];
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        private void put(long key, GameManager arena) {
+            if (size * 2 >= keys.length) {
+                grow();
+            }
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != EMPTY) {
+                // Overlapping arenas: the first one registered keeps the chunk
+                if (keys[slot] == key) return;
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            arenas[slot] = arena;
+            size++;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            GameManager[] oldArenas = arenas;
+            keys = newTable(oldKeys.length * 2);
+            arenas = new GameManager[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    put(oldKeys[i], oldArenas[i]);
+                }
+            }
+        }
+
+        private static long[] newTable(int capacity) {
+            long[] table = new long[capacity];
+            Arrays.fill(table, EMPTY);
+            return table;
+        }
+
+        private static int mix(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
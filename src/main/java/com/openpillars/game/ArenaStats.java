@@ -0,0 +1,252 @@
+package com.openpillars.game;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Per-arena player statistics, stored as one primitive array per stat and
+ * indexed by player slot (see {@link PlayerSlots}).
+ *
+ * Only the main thread writes. Other threads (placeholders, storage) read an
+ * immutable {@link Snapshot} that the main thread publishes with
+ * {@link #publish()}, so readers never see a half-updated row and never
+ * touch the live arrays.
+ */
+public class ArenaStats {
+
+    /**
+     * The tracked statistics
+     */
+    public enum Stat {
+        KILLS,
+        BLOCKS_BROKEN,
+        BLOCKS_PLACED,
+        ITEMS_COLLECTED
+    }
+
+    private static final Stat[] STATS = Stat.values();
+
+    private final int capacity;
+    private final int[][] values;
+    private final UUID[] players;
+    private final String[] names;
+    // Bumped on every change to a row, lets readers cache per player
+    private final int[] versions;
+
+    private boolean dirty;
+    private volatile Snapshot snapshot;
+
+    /**
+     * @param capacity The number of player slots
+     */
+    public ArenaStats(int capacity) {
+        this.capacity = capacity;
+        this.values = new int[STATS.length][capacity];
+        this.players = new UUID[capacity];
+        this.names = new String[capacity];
+        this.versions = new int[capacity];
+        this.snapshot = new Snapshot(values, players, names, versions);
+    }
+
+    /**
+     * Starts a fresh row for a player taking a slot
+     * @param slot The slot id
+     * @param uuid The player's UUID
+     * @param name The player's name
+     */
+    public void join(int slot, UUID uuid, String name) {
+        for (int[] column : values) {
+            column[slot] = 0;
+        }
+        players[slot] = uuid;
+        names[slot] = name;
+        versions[slot]++;
+        dirty = true;
+    }
+
+    /**
+     * Empties the row of a player leaving before the game started
+     * @param slot The slot id
+     */
+    public void leave(int slot) {
+        for (int[] column : values) {
+            column[slot] = 0;
+        }
+        players[slot] = null;
+        names[slot] = null;
+        versions[slot]++;
+        dirty = true;
+    }
+
+    /**
+     * Adds to a player's stat
+     * @param stat The stat
+     * @param slot The player's slot id
+     * @param amount The amount to add
+     */
+    public void add(Stat stat, int slot, int amount) {
+        values[stat.ordinal()][slot] += amount;
+        versions[slot]++;
+        dirty = true;
+    }
+
+    /**
+     * Gets the live value of a stat. Main thread only, other threads use {@link #getSnapshot()}.
+     * @param stat The stat
+     * @param slot The player's slot id
+     * @return The current value
+     */
+    public int get(Stat stat, int slot) {
+        return values[stat.ordinal()][slot];
+    }
+
+    /**
+     * Clears every row
+     */
+    public void clear() {
+        for (int[] column : values) {
+            Arrays.fill(column, 0);
+        }
+        Arrays.fill(players, null);
+        Arrays.fill(names, null);
+        for (int slot = 0; slot < capacity; slot++) {
+            versions[slot]++;
+        }
+        dirty = true;
+    }
+
+    /**
+     * Publishes the current values for readers on other threads, if anything changed
+     * @return The latest snapshot
+     */
+    public Snapshot publish() {
+        if (dirty) {
+            dirty = false;
+            snapshot = new Snapshot(values, players, names, versions);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Gets the last published snapshot. Safe from any thread.
+     * @return The snapshot
+     */
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Immutable copy of the stats at the time it was published
+     */
+    public static final class Snapshot {
+
+        private final int[][] values;
+        private final UUID[] players;
+        private final String[] names;
+        private final int[] versions;
+
+        private Snapshot(int[][] values, UUID[] players, String[] names, int[] versions) {
+            this.values = new int[values.length][];
+            for (int i = 0; i < values.length; i++) {
+                this.values[i] = values[i].clone();
+            }
+            this.players = players.clone();
+            this.names = names.clone();
+            this.versions = versions.clone();
+        }
+
+        /**
+         * Gets a player's stat
+         * @param stat The stat
+         * @param slot The player's slot id
+         * @return The value, 0 for an empty slot
+         */
+        public int get(Stat stat, int slot) {
+            return slot >= 0 && slot < players.length ? values[stat.ordinal()][slot] : 0;
+        }
+
+        /**
+         * Gets a player's stat by UUID
+         * @param stat The stat
+         * @param uuid The player's UUID
+         * @return The value, 0 if the player is not in this snapshot
+         */
+        public int get(Stat stat, UUID uuid) {
+            return get(stat, slotOf(uuid));
+        }
+
+        /**
+         * Finds the slot of a player
+         * @param uuid The player's UUID
+         * @return The slot id, or -1 if the player is not in this snapshot
+         */
+        public int slotOf(UUID uuid) {
+            for (int slot = 0; slot < players.length; slot++) {
+                if (uuid.equals(players[slot])) return slot;
+            }
+            return -1;
+        }
+
+        /**
+         * Sums a stat over every player
+         * @param stat The stat
+         * @return The total
+         */
+        public long total(Stat stat) {
+            long total = 0;
+            for (int value : values[stat.ordinal()]) {
+                total += value;
+            }
+            return total;
+        }
+
+        /**
+         * Gets the player in a slot
+         * @param slot The slot id
+         * @return The player's UUID, or null for an empty slot
+         */
+        public UUID getPlayer(int slot) {
+            return players[slot];
+        }
+
+        /**
+         * Gets the name of the player in a slot
+         * @param slot The slot id
+         * @return The player's name, or null for an empty slot
+         */
+        public String getName(int slot) {
+            return names[slot];
+        }
+
+        /**
+         * Gets the version of a slot's row. It changes whenever any stat of the
+         * row changes or the slot gets a new player.
+         * @param slot The slot id
+         * @return The row version
+         */
+        public int getVersion(int slot) {
+            return versions[slot];
+        }
+
+        /**
+         * Gets the number of slots
+         * @return The slot count
+         */
+        public int size() {
+            return players.length;
+        }
+
+        /**
+         * Copies one stat column out, indexed by slot
+         * @param stat The stat
+         * @return A new array with the stat of every slot
+         */
+        public int[] export(Stat stat) {
+            return values[stat.ordinal()].clone();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.openpillars.game;
+
+import com.cryptomorin.xseries.XMaterial;
+import org.bukkit.Material;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.logging.Logger;
+
+/**
+ * Immutable weighted set of pillar block materials.
+ * Materials are resolved once when the palette is loaded and sampled in
+ * constant time through an alias table (Vose's method), so picking a block
+ * costs two random numbers and no allocation.
+ */
+public final class BlockPalette {
+
+    private final Material[] materials;
+    private final double[] probability;
+    private final int[] alias;
+
+    /**
+     * @param materials The materials to pick from
+     * @param weights The relative weight of each material
+     */
+    public BlockPalette(Material[] materials, double[] weights) {
+        if (materials.length == 0 || materials.length != weights.length) {
+            throw new IllegalArgumentException("A palette needs one weight per material and at least one material");
+        }
+
+        int n = materials.length;
+        this.materials = materials.clone();
+        this.probability = new double[n];
+        this.alias = new int[n];
+
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+
+        // Scale weights so the average is 1, then pair small entries with large ones
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probability[less] = scaled[less];
+            alias[less] = more;
+
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+
+        // Whatever is left is 1 up to rounding error
+        while (largeCount > 0) {
+            probability[large[--largeCount]] = 1.0;
+        }
+        while (smallCount > 0) {
+            probability[small[--smallCount]] = 1.0;
+        }
+    }
+
+    /**
+     * Parses a palette from a config list of {material, weight} entries.
+     * Unknown or non-block materials are skipped with a warning.
+     * @param name The palette name, used in warnings
+     * @param entries The config entries
+     * @param logger The logger for warnings
+     * @return The palette, or null if no entry was usable
+     */
+    public static BlockPalette parse(String name, List<Map<?, ?>> entries, Logger logger) {
+        List<Material> materials = new ArrayList<>();
+        List<Double> weights = new ArrayList<>();
+
+        for (Map<?, ?> entry : entries) {
+            Object materialName = entry.get("material");
+            if (materialName == null) continue;
+
+            Optional<XMaterial> xMaterial = XMaterial.matchXMaterial(String.valueOf(materialName));
+            Material material = xMaterial.isPresent() ? xMaterial.get().parseMaterial() : null;
+            if (material == null || !material.isBlock()) {
+                logger.warning("Invalid block '" + materialName + "' in palette '" + name + "'");
+                continue;
+            }
+
+            Object weightObj = entry.get("weight");
+            double weight = weightObj instanceof Number ? ((Number) weightObj).doubleValue() : 1;
+            if (weight <= 0) continue;
+
+            materials.add(material);
+            weights.add(weight);
+        }
+
+        if (materials.isEmpty()) return null;
+
+        double[] weightArray = new double[weights.size()];
+        for (int i = 0; i < weightArray.length; i++) {
+            weightArray[i] = weights.get(i);
+        }
+        return new BlockPalette(materials.toArray(new Material[0]), weightArray);
+    }
+
+    /**
+     * Picks a material according to the palette weights
+     * @param random The random source
+     * @return The picked material
+     */
+    public Material sample(Random random) {
+        int i = random.nextInt(materials.length);
+        return random.nextDouble() < probability[i] ? materials[i] : materials[alias[i]];
+    }
+
+    /**
+     * Gets the number of materials in the palette
+     * @return The palette size
+     */
+    public int size() {
+        return materials.length;
+    }
+}
@@ -1,21 +1,45 @@
 package com.openpillars.game;
 
 import com.openpillars.OpenPillars;
-import com.openpillars.events.GameEndEvent;
-import com.openpillars.events.GameStartEvent;
-import com.openpillars.events.GameStateChangeEvent;
+import com.openpillars.arena.ArenaBounds;
+import com.openpillars.arena.ArenaMutationLog;
+import com.openpillars.arena.ArenaSlot;
+import com.openpillars.arena.ArenaSlotAllocator;
+import com.openpillars.arena.ArenaWorldCloner;
+import com.openpillars.arena.BlockJournal;
+import com.openpillars.bus.EventChannel;
+import com.openpillars.bus.GameEnded;
+import com.openpillars.bus.GameStarted;
+import com.openpillars.bus.GameStateChanged;
+import com.openpillars.bus.PlayerEliminated;
+import com.openpillars.events.PillarBatchGenerateEvent;
+import com.openpillars.game.layout.LayoutPlan;
+import com.openpillars.game.layout.PillarLayout;
+import com.openpillars.game.layout.PillarLayouts;
+import com.openpillars.history.MatchHistory;
+import com.openpillars.history.MatchRecorder;
+import com.openpillars.jfr.GameEvents;
+import com.openpillars.perf.PerfMonitor;
+import com.openpillars.perf.Subsystem;
+import com.openpillars.perf.Timings;
+import com.openpillars.stats.LifetimeStat;
+import com.openpillars.stats.PlayerStats;
+import com.openpillars.stats.StatsService;
 import com.openpillars.util.FileHandler;
 import org.bukkit.Bukkit;
 import org.bukkit.GameMode;
 import org.bukkit.Location;
-import org.bukkit.Sound;
 import org.bukkit.World;
+import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.scheduler.BukkitTask;
 
+import java.io.File;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
 
 /**
  * Manages the game loop and state transitions.
@@ -24,25 +48,161 @@ import java.util.concurrent.ConcurrentHashMap;
 public class GameManager {
 
     private final OpenPillars plugin;
+    private final String id;
     private final Map<UUID, GamePlayer> players;
     private final Set<UUID> spectators;
+    private volatile PlayerSlots playerSlots;
+    private volatile ArenaStats stats;
+    private PlayerRoster roster;
     private final PillarGenerator pillarGenerator;
     private final LootManager lootManager;
+    private final SoundRegistry soundRegistry;
+    private final ArenaWorldCloner worldCloner;
+    private final ArenaMutationLog mutationLog;
+    private final BlockJournal blockJournal;
+    private final PillarPrebuilder prebuilder;
+    private final MatchRecorder matchRecorder;
+    private final PerfMonitor perf;
+    private final Timings timings;
+    private final EventChannel<GameStarted> gameStarted;
+    private final EventChannel<GameEnded> gameEnded;
+    private final EventChannel<GameStateChanged> stateChanged;
     
-    private GameState state;
+    private final GameStateMachine stateMachine;
+    private PillarLayout pillarLayout;
+    private World arenaWorld;
+    private World gameWorld;
+    private boolean disposableGameWorld;
+    private ArenaBounds arenaBounds;
+    private ArenaSlot arenaSlot;
+    private ArenaSlot gameSlot;
+    private boolean arenaWorldPending;
     private BukkitTask countdownTask;
     private BukkitTask gameTask;
     private BukkitTask generationTask;
+    private BukkitTask statsTask;
     private int countdown;
     private long gameStartTime;
+    private long resetStartTime;
+    private volatile long phaseStartTime;
 
     public GameManager(OpenPillars plugin) {
         this.plugin = plugin;
+        this.id = "arena";
         this.players = new ConcurrentHashMap<>();
         this.spectators = ConcurrentHashMap.newKeySet();
+        this.playerSlots = new PlayerSlots(plugin.getConfig().getInt("game.max-players", 16));
+        this.stats = new ArenaStats(playerSlots.capacity());
+        this.roster = new PlayerRoster(playerSlots.capacity());
         this.pillarGenerator = new PillarGenerator(plugin);
         this.lootManager = new LootManager(plugin);
-        this.state = GameState.LOBBY;
+        this.soundRegistry = new SoundRegistry(plugin);
+        soundRegistry.load();
+        loadLayout();
+        this.worldCloner = new ArenaWorldCloner(plugin);
+        this.perf = plugin.getPerfMonitor();
+        this.timings = perf.register(id);
+        this.mutationLog = new ArenaMutationLog(plugin, new File(plugin.getDataFolder(), "arena-mutations.log"));
+        this.blockJournal = new BlockJournal(plugin, mutationLog, timings);
+        this.prebuilder = new PillarPrebuilder(plugin, pillarGenerator, mutationLog);
+        this.matchRecorder = new MatchRecorder();
+        this.stateMachine = new GameStateMachine(GameState.LOBBY, this::onStateChange);
+        this.phaseStartTime = GameEvents.start();
+        this.gameStarted = plugin.getEventBus().channel(GameStarted.class);
+        this.gameEnded = plugin.getEventBus().channel(GameEnded.class);
+        this.stateChanged = plugin.getEventBus().channel(GameStateChanged.class);
+        
+        // Internal reactions to game events
+        plugin.getEventBus().channel(PlayerEliminated.class).subscribe(this::countKill);
+        gameEnded.subscribe(this::recordResults);
+        gameEnded.subscribe(this::archiveMatch);
+        gameEnded.subscribe(event -> {
+            if (event.getWinner() != null) {
+                soundRegistry.play(event.getWinner(), "game-win");
+            }
+        });
+        
+        // Restore any arena left dirty by a crash before the first game starts
+        if (plugin.getConfig().getBoolean("world.crash-recovery", true)) {
+            mutationLog.open();
+        }
+        
+        if (worldCloner.isEnabled()) {
+            worldCloner.cleanupStaleClones();
+            prepareArenaWorld();
+        }
+        
+        // Get the first game's pillars ready while the lobby fills up
+        Bukkit.getScheduler().runTask(plugin, this::schedulePrebuild);
+    }
+
+    /**
+     * Clones a fresh arena world from the template in the background.
+     * Until it is loaded, games fall back to the configured world.
+     */
+    private void prepareArenaWorld() {
+        if (!worldCloner.isEnabled() || arenaWorld != null || arenaWorldPending) return;
+        if (!plugin.isEnabled()) return;
+        
+        arenaWorldPending = true;
+        worldCloner.cloneWorld().whenComplete((world, ex) -> {
+            // Failures and cancellations complete on the cloning thread
+            if (!Bukkit.isPrimaryThread()) {
+                if (plugin.isEnabled()) {
+                    Bukkit.getScheduler().runTask(plugin, () -> onArenaWorldCloned(world, ex));
+                }
+                return;
+            }
+            onArenaWorldCloned(world, ex);
+        });
+    }
+
+    /**
+     * Takes over a freshly cloned arena world, on the main thread
+     * @param world The loaded world, or null if cloning failed
+     * @param ex The failure, or null on success
+     */
+    private void onArenaWorldCloned(World world, Throwable ex) {
+        arenaWorldPending = false;
+        if (ex != null) {
+            if (!(ex instanceof CancellationException)) {
+                plugin.getLogger().log(Level.WARNING, "Failed to prepare arena world from template", ex);
+            }
+            return;
+        }
+        arenaWorld = world;
+        
+        // Move the standby pillars into the fresh world
+        if (getState() == GameState.LOBBY || getState() == GameState.ENDING) {
+            releaseArenaSlot();
+            schedulePrebuild();
+        }
+    }
+
+    /**
+     * Plans the next game's pillars for the expected player count so they can
+     * be built in the background. Runs in the lobby, and while a game is ending
+     * if the next game gets a fresh cloned world.
+     */
+    private void schedulePrebuild() {
+        if (!plugin.getConfig().getBoolean("pillar.prebuild.enabled", true) || !plugin.isEnabled()) return;
+        
+        if (getState() == GameState.ENDING) {
+            // The current arena is still in use, only a fresh clone or another slot is free
+            if (arenaWorld == null && reserveArenaSlot(resolveArenaWorld()) == null) return;
+        } else if (getState() != GameState.LOBBY) {
+            return;
+        }
+        
+        // Wait for the clone instead of building in the fallback world
+        if (worldCloner.isEnabled() && arenaWorld == null) return;
+        
+        int maxPlayers = plugin.getConfig().getInt("game.max-players", 16);
+        int expected = Math.min(maxPlayers, Math.max(getMinPlayers(), getPlayerCount()));
+        
+        Location center = getGameCenter();
+        World world = center.getWorld();
+        prebuilder.plan(world, computePillarBases(center, getLayoutPlan(expected)), !world.equals(arenaWorld));
     }
 
     /**
@@ -51,28 +211,37 @@ public class GameManager {
      * @return true if player was added successfully
      */
     public boolean addPlayer(Player player) {
-        if (state != GameState.LOBBY && state != GameState.STARTING) {
+        // Claim a slot first, a full or started game turns the join down here
+        PlayerSlots slots = playerSlots;
+        int slot = slots.acquire(stateMachine);
+        if (slot < 0) {
             return false;
         }
         
-        int maxPlayers = plugin.getConfig().getInt("game.max-players", 16);
-        if (players.size() >= maxPlayers) {
+        GamePlayer gamePlayer = new GamePlayer(player, slot, stats);
+        if (players.putIfAbsent(player.getUniqueId(), gamePlayer) != null) {
+            slots.release(slot);
             return false;
         }
-        
-        GamePlayer gamePlayer = new GamePlayer(player);
-        players.put(player.getUniqueId(), gamePlayer);
+        stats.join(slot, player.getUniqueId(), player.getName());
+        stats.publish();
+        roster.set(slot, player);
+        slots.occupy(slot, gamePlayer);
+        plugin.getArenaRouter().bind(player, this);
         
         // Broadcast join message
         String message = plugin.getFileHandler().getMessage("game.player-joined",
                 "%player%", player.getName(),
-                "%players%", String.valueOf(players.size()),
-                "%max_players%", String.valueOf(maxPlayers));
+                "%players%", String.valueOf(slots.size()),
+                "%max_players%", String.valueOf(slots.capacity()));
         broadcastMessage(message);
         
         // Check if we can start countdown
         checkStartCountdown();
         
+        // Adjust the standby pillars to the new head count
+        schedulePrebuild();
+        
         return true;
     }
 
@@ -85,6 +254,19 @@ public class GameManager {
         spectators.remove(player.getUniqueId());
         
         if (gamePlayer != null) {
+            // Only the caller that removed the player gets here, so the slot is freed once
+            roster.remove(gamePlayer.getSlot());
+            if (getState() == GameState.ACTIVE && gamePlayer.isAlive()) {
+                matchRecorder.eliminated(gamePlayer.getSlot());
+            }
+            // Players leaving mid-game keep their row, their game still counts
+            if (getState() == GameState.LOBBY || getState() == GameState.STARTING) {
+                stats.leave(gamePlayer.getSlot());
+                stats.publish();
+            }
+            playerSlots.release(gamePlayer.getSlot());
+            plugin.getArenaRouter().unbind(player);
+            
             // Restore player state
             player.setGameMode(GameMode.SURVIVAL);
             player.getInventory().clear();
@@ -92,18 +274,21 @@ public class GameManager {
             // Teleport back to lobby/spawn
             player.teleport(getLobbyLocation());
             
-            int maxPlayers = plugin.getConfig().getInt("game.max-players", 16);
             String message = plugin.getFileHandler().getMessage("game.player-left",
                     "%player%", player.getName(),
-                    "%players%", String.valueOf(players.size()),
-                    "%max_players%", String.valueOf(maxPlayers));
+                    "%players%", String.valueOf(getPlayerCount()),
+                    "%max_players%", String.valueOf(playerSlots.capacity()));
             broadcastMessage(message);
             
             // Check game state
-            if (state == GameState.STARTING && players.size() < getMinPlayers()) {
+            // The countdown cancel is a state transition, so of several players
+            // leaving at once only one cancels it
+            if (getState() == GameState.STARTING && getPlayerCount() < getMinPlayers()) {
                 cancelCountdown();
-            } else if (state == GameState.ACTIVE) {
+            } else if (getState() == GameState.ACTIVE) {
                 checkWinCondition();
+            } else if (getState() == GameState.LOBBY) {
+                schedulePrebuild();
             }
         }
     }
@@ -115,6 +300,9 @@ public class GameManager {
     public void makeSpectator(Player player) {
         GamePlayer gamePlayer = players.get(player.getUniqueId());
         if (gamePlayer != null) {
+            if (getState() == GameState.ACTIVE && gamePlayer.isAlive()) {
+                matchRecorder.eliminated(gamePlayer.getSlot());
+            }
             gamePlayer.setAlive(false);
         }
         
@@ -130,13 +318,13 @@ public class GameManager {
      * Checks if countdown should start
      */
     private void checkStartCountdown() {
-        if (state != GameState.LOBBY) return;
+        if (getState() != GameState.LOBBY) return;
         
-        if (players.size() >= getMinPlayers()) {
+        if (getPlayerCount() >= getMinPlayers()) {
             startCountdown();
         } else {
             String message = plugin.getFileHandler().getMessage("game.waiting-for-players",
-                    "%players%", String.valueOf(players.size()),
+                    "%players%", String.valueOf(getPlayerCount()),
                     "%min_players%", String.valueOf(getMinPlayers()));
             broadcastMessage(message);
         }
@@ -146,9 +334,8 @@ public class GameManager {
      * Starts the countdown to game start
      */
     public void startCountdown() {
-        if (state != GameState.LOBBY) return;
+        if (!stateMachine.transition(GameState.LOBBY, GameState.STARTING)) return;
         
-        setState(GameState.STARTING);
         countdown = plugin.getConfig().getInt("game.countdown", 10);
         
         // Teleport players to pillars and freeze them
@@ -161,32 +348,36 @@ public class GameManager {
         countdownTask = new BukkitRunnable() {
             @Override
             public void run() {
-                if (countdown <= 0) {
-                    startGame();
-                    this.cancel();
-                    return;
-                }
-                
-                if (countdown <= 5) {
-                    // Show title for last 5 seconds
-                    String title = plugin.getFileHandler().getRawMessage("titles.countdown.title",
-                            "%time%", String.valueOf(countdown));
-                    String subtitle = plugin.getFileHandler().getRawMessage("titles.countdown.subtitle");
+                long start = perf.start();
+                try {
+                    if (countdown <= 0) {
+                        startGame();
+                        this.cancel();
+                        return;
+                    }
                     
-                    for (UUID uuid : players.keySet()) {
-                        Player player = Bukkit.getPlayer(uuid);
-                        if (player != null) {
-                            FileHandler.sendTitle(player, title, subtitle, 0, 20, 0);
-                            playSound(player, "countdown-tick");
+                    if (countdown <= 5) {
+                        // Show title for last 5 seconds
+                        String title = plugin.getFileHandler().getRawMessage("titles.countdown.title",
+                                "%time%", String.valueOf(countdown));
+                        String subtitle = plugin.getFileHandler().getRawMessage("titles.countdown.subtitle");
+                    
+                        for (Player player : roster.array()) {
+                            if (player != null) {
+                                FileHandler.sendTitle(player, title, subtitle, 0, 20, 0);
+                            }
                         }
+                        soundRegistry.playToAudience(roster.array(), "countdown-tick");
                     }
+                    
+                    String tickMessage = plugin.getFileHandler().getMessage("game.countdown-tick",
+                            "%time%", String.valueOf(countdown));
+                    broadcastMessage(tickMessage);
+                    
+                    countdown--;
+                } finally {
+                    timings.stop(Subsystem.COUNTDOWN, start);
                 }
-                
-                String tickMessage = plugin.getFileHandler().getMessage("game.countdown-tick",
-                        "%time%", String.valueOf(countdown));
-                broadcastMessage(tickMessage);
-                
-                countdown--;
             }
         }.runTaskTimer(plugin, 0L, 20L);
     }
@@ -195,55 +386,99 @@ public class GameManager {
      * Cancels the countdown
      */
     public void cancelCountdown() {
+        if (!stateMachine.transition(GameState.STARTING, GameState.LOBBY)) return;
+        
         if (countdownTask != null) {
             countdownTask.cancel();
             countdownTask = null;
         }
         
-        setState(GameState.LOBBY);
+        // Take the pillars down again, the lobby builds a fresh standby layout
+        pillarGenerator.clearAllPillars();
+        
+        // Keep the arena slot for the next attempt
+        if (gameSlot != null) {
+            if (arenaSlot == null) {
+                arenaSlot = gameSlot;
+            } else {
+                getSlotAllocator(gameSlot.getWorld()).release(gameSlot);
+            }
+            gameSlot = null;
+        }
+        
+        // The lobby is open again, build ahead for the next attempt
+        schedulePrebuild();
         
         String message = plugin.getFileHandler().getMessage("game.countdown-cancelled");
         broadcastMessage(message);
         
         // Teleport players back to lobby
+        long teleportStart = GameEvents.start();
         Location lobbyLocation = getLobbyLocation();
-        for (UUID uuid : players.keySet()) {
-            Player player = Bukkit.getPlayer(uuid);
+        int teleported = 0;
+        for (Player player : roster.array()) {
             if (player != null) {
                 player.teleport(lobbyLocation);
+                teleported++;
             }
         }
+        GameEvents.massTeleport(id, teleportStart, teleported, "lobby");
     }
 
     /**
-     * Teleports all players to their assigned pillars
+     * Teleports all players to their assigned pillars.
+     * Pillars already built by the prebuilder are handed over as they are,
+     * only missing blocks are placed in this tick.
      */
     private void teleportPlayersToPillars() {
         int pillarIndex = 0;
         int spacing = plugin.getConfig().getInt("game.pillar-spacing", 10);
-        int startY = plugin.getConfig().getInt("game.pillar-start-y", 64);
-        
-        // Generate pillars in a circle pattern
-        int playerCount = players.size();
-        double angleStep = (2 * Math.PI) / playerCount;
-        int radius = (playerCount * spacing) / (2 * (int) Math.PI);
-        radius = Math.max(radius, spacing); // Minimum radius
         
         Location center = getGameCenter();
+        gameWorld = center.getWorld();
+        disposableGameWorld = gameWorld.equals(arenaWorld);
         
-        for (UUID uuid : players.keySet()) {
-            Player player = Bukkit.getPlayer(uuid);
-            if (player == null) continue;
-            
-            // Calculate pillar position
-            double angle = angleStep * pillarIndex;
-            int x = (int) (center.getX() + radius * Math.cos(angle));
-            int z = (int) (center.getZ() + radius * Math.sin(angle));
+        // The reserved slot belongs to this game until it is reset
+        if (!disposableGameWorld && arenaSlot != null) {
+            gameSlot = arenaSlot;
+            arenaSlot = null;
+        }
+        
+        // Standby pillars built somewhere else are of no use
+        if (!prebuilder.isFor(gameWorld)) {
+            prebuilder.discardNow();
+            mutationLog.compact();
+        }
+        
+        if (disposableGameWorld) {
+            // This clone belongs to the game now, start cloning the next one
+            arenaWorld = null;
+            prepareArenaWorld();
+        } else {
+            // A cloned arena world is thrown away after the game, no need to journal it
+            if (!mutationLog.isActive()) {
+                mutationLog.begin(gameWorld);
+            }
+            blockJournal.begin(gameWorld);
+        }
+        
+        // Pillar positions come precomputed from the configured layout
+        long teleportStart = GameEvents.start();
+        LayoutPlan plan = getLayoutPlan(getPlayerCount());
+        List<Location> bases = computePillarBases(center, plan);
+        
+        PlayerSlots slots = playerSlots;
+        Player[] online = roster.array();
+        for (int slot = 0; slot < online.length; slot++) {
+            Player player = online[slot];
+            GamePlayer gamePlayer = slots.get(slot);
+            if (player == null || gamePlayer == null) continue;
             
-            Location pillarLocation = new Location(center.getWorld(), x, startY, z);
+            Location pillarLocation = bases.get(pillarIndex);
             
-            // Generate initial pillar
-            pillarGenerator.generateInitialPillar(pillarLocation, uuid);
+            // Generate initial pillar, reusing whatever was built ahead of time
+            int prebuilt = prebuilder.claim(pillarLocation);
+            pillarGenerator.generateInitialPillar(pillarLocation, gamePlayer.getUuid(), prebuilt);
             
             // Teleport player to top of pillar
             Location spawnLoc = pillarLocation.clone().add(0.5, 
@@ -251,31 +486,121 @@ public class GameManager {
             player.teleport(spawnLoc);
             
             // Store spawn location for freeze logic
-            GamePlayer gamePlayer = players.get(uuid);
-            if (gamePlayer != null) {
-                gamePlayer.setSpawnLocation(spawnLoc);
-                gamePlayer.setFrozen(true);
-            }
+            gamePlayer.setSpawnLocation(spawnLoc);
+            gamePlayer.setFrozen(true);
             
             pillarIndex++;
         }
+        GameEvents.massTeleport(id, teleportStart, pillarIndex, "pillars");
+        
+        // Leftover standby pillars are taken down over the next ticks
+        prebuilder.releaseUnclaimed();
+        
+        // Track the area covered by pillars so block changes around them can be journaled
+        if (gameSlot != null) {
+            arenaBounds = gameSlot.getBounds();
+        } else {
+            int cx = center.getBlockX();
+            int cz = center.getBlockZ();
+            arenaBounds = new ArenaBounds(gameWorld, cx + plan.getMinX(), cz + plan.getMinZ(),
+                    cx + plan.getMaxX(), cz + plan.getMaxZ()).expand(spacing);
+        }
+        plugin.getArenaRouter().setBounds(this, arenaBounds);
+    }
+
+    /**
+     * Reserves an arena slot for the next game when slots are enabled.
+     * The same slot is returned until a game takes it.
+     * @param world The arena world
+     * @return The reserved slot, or null if slots are disabled or all are in use
+     */
+    private ArenaSlot reserveArenaSlot(World world) {
+        if (!plugin.getConfig().getBoolean("world.slots.enabled", false)) return null;
+        
+        if (arenaSlot != null) {
+            if (arenaSlot.getWorld().equals(world)) return arenaSlot;
+            releaseArenaSlot();
+        }
+        arenaSlot = getSlotAllocator(world).acquire();
+        return arenaSlot;
+    }
+
+    /**
+     * Gives back the slot reserved for the next game, if any
+     */
+    private void releaseArenaSlot() {
+        if (arenaSlot != null) {
+            getSlotAllocator(arenaSlot.getWorld()).release(arenaSlot);
+            arenaSlot = null;
+        }
+    }
+
+    /**
+     * Gets the slot grid of a world, sized for the largest possible game:
+     * the layout for max players plus room to bridge out up to max-height blocks
+     * @param world The arena world
+     * @return The world's slot allocator
+     */
+    private ArenaSlotAllocator getSlotAllocator(World world) {
+        LayoutPlan plan = getLayoutPlan(plugin.getConfig().getInt("game.max-players", 16));
+        int reach = Math.max(Math.max(-plan.getMinX(), plan.getMaxX()), Math.max(-plan.getMinZ(), plan.getMaxZ()));
+        int maxHeight = plugin.getConfig().getInt("pillar.max-height", 50);
+        return plugin.getSlotAllocator(world, ArenaSlotAllocator.arenaWidth(2 * reach + 1, maxHeight));
+    }
+
+    /**
+     * Gets the configured layout's plan for a number of pillars
+     * @param playerCount The number of pillars
+     * @return The cached layout plan
+     */
+    private LayoutPlan getLayoutPlan(int playerCount) {
+        int spacing = plugin.getConfig().getInt("game.pillar-spacing", 10);
+        return pillarLayout.plan(playerCount, spacing);
+    }
+
+    /**
+     * Resolves the configured pillar layout, warning once if it is unknown.
+     * Called on startup and on every config reload.
+     */
+    public void loadLayout() {
+        String layoutName = plugin.getConfig().getString("game.pillar-layout", "circle");
+        PillarLayout layout = PillarLayouts.get(layoutName);
+        if (layout == null) {
+            plugin.getLogger().warning("Unknown pillar layout '" + layoutName + "', using circle");
+            layout = PillarLayouts.CIRCLE;
+        }
+        pillarLayout = layout;
+    }
+
+    /**
+     * Computes the pillar base locations of a layout plan
+     * @param center The arena center
+     * @param plan The layout plan
+     * @return The base location of every pillar
+     */
+    private List<Location> computePillarBases(Location center, LayoutPlan plan) {
+        int startY = plugin.getConfig().getInt("game.pillar-start-y", 64);
+        return plan.toBases(center, startY);
     }
 
     /**
      * Starts the actual game
      */
     public void startGame() {
-        setState(GameState.ACTIVE);
+        if (!stateMachine.transition(GameState.STARTING, GameState.ACTIVE)) return;
+        
         gameStartTime = System.currentTimeMillis();
+        matchRecorder.begin();
         
         // Fire game start event
-        GameStartEvent event = new GameStartEvent(this);
-        Bukkit.getPluginManager().callEvent(event);
+        gameStarted.post(new GameStarted(this));
         
         // Unfreeze players
-        for (UUID uuid : players.keySet()) {
-            Player player = Bukkit.getPlayer(uuid);
-            GamePlayer gamePlayer = players.get(uuid);
+        PlayerSlots slots = playerSlots;
+        Player[] online = roster.array();
+        for (int slot = 0; slot < online.length; slot++) {
+            Player player = online[slot];
+            GamePlayer gamePlayer = slots.get(slot);
             
             if (player != null && gamePlayer != null) {
                 gamePlayer.setFrozen(false);
@@ -284,10 +609,9 @@ public class GameManager {
                 String title = plugin.getFileHandler().getRawMessage("titles.game-start.title");
                 String subtitle = plugin.getFileHandler().getRawMessage("titles.game-start.subtitle");
                 FileHandler.sendTitle(player, title, subtitle, 10, 40, 20);
-                
-                playSound(player, "game-start");
             }
         }
+        soundRegistry.playToAudience(online, "game-start");
         
         String message = plugin.getFileHandler().getMessage("game.game-started");
         broadcastMessage(message);
@@ -295,6 +619,10 @@ public class GameManager {
         // Start pillar generation task
         startGenerationTask();
         
+        // Hand stat changes to other threads once per tick
+        ArenaStats gameStats = stats;
+        statsTask = Bukkit.getScheduler().runTaskTimer(plugin, gameStats::publish, 1L, 1L);
+        
         // Start game timer
         int gameDuration = plugin.getConfig().getInt("game.game-duration", 15);
         if (gameDuration > 0) {
@@ -316,23 +644,46 @@ public class GameManager {
         generationTask = new BukkitRunnable() {
             @Override
             public void run() {
-                if (state != GameState.ACTIVE) {
+                if (getState() != GameState.ACTIVE) {
                     this.cancel();
                     return;
                 }
                 
-                // Generate blocks for all alive players asynchronously
-                Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-                    for (UUID uuid : players.keySet()) {
-                        GamePlayer gamePlayer = players.get(uuid);
-                        if (gamePlayer != null && gamePlayer.isAlive()) {
-                            // Schedule sync task for block placement
-                            Bukkit.getScheduler().runTask(plugin, () -> {
-                                pillarGenerator.generateBlock(uuid, lootManager);
-                            });
+                long start = perf.start();
+                try {
+                    // Grow every alive player's pillar in this one tick
+                    boolean batchObserved = PillarBatchGenerateEvent.getHandlerList().getRegisteredListeners().length > 0;
+                    Map<UUID, List<Block>> batch = batchObserved ? new LinkedHashMap<>() : null;
+                    
+                    PlayerSlots slots = playerSlots;
+                    Player[] online = roster.array();
+                    long batchStart = GameEvents.start();
+                    int grown = 0;
+                    for (int slot = 0; slot < online.length; slot++) {
+                        Player player = online[slot];
+                        GamePlayer gamePlayer = slots.get(slot);
+                        if (player == null || gamePlayer == null || !gamePlayer.isAlive()) continue;
+                        grown++;
+                    
+                        if (batch == null) {
+                            pillarGenerator.generateBlock(player, lootManager, null);
+                            continue;
+                        }
+                    
+                        List<Block> generated = new ArrayList<>();
+                        pillarGenerator.generateBlock(player, lootManager, generated);
+                        if (!generated.isEmpty()) {
+                            batch.put(gamePlayer.getUuid(), generated);
                         }
                     }
-                });
+                    
+                    if (batch != null && !batch.isEmpty()) {
+                        Bukkit.getPluginManager().callEvent(new PillarBatchGenerateEvent(batch));
+                    }
+                    GameEvents.generationBatch(id, batchStart, grown);
+                } finally {
+                    timings.stop(Subsystem.GENERATION, start);
+                }
             }
         }.runTaskTimer(plugin, interval, interval);
     }
@@ -342,9 +693,7 @@ public class GameManager {
      * @param winner The winner, or null if no winner
      */
     public void endGame(Player winner) {
-        if (state == GameState.ENDING || state == GameState.RESETTING) return;
-        
-        setState(GameState.ENDING);
+        if (!stateMachine.transition(GameState.ACTIVE, GameState.ENDING)) return;
         
         // Cancel tasks
         if (gameTask != null) {
@@ -355,10 +704,13 @@ public class GameManager {
             generationTask.cancel();
             generationTask = null;
         }
+        stopStatsTask();
+        
+        // A fresh clone or a free slot can take the next game's pillars already
+        schedulePrebuild();
         
         // Fire game end event
-        GameEndEvent event = new GameEndEvent(this, winner);
-        Bukkit.getPluginManager().callEvent(event);
+        gameEnded.post(new GameEnded(this, winner));
         
         if (winner != null) {
             // Announce winner
@@ -370,7 +722,6 @@ public class GameManager {
             String title = plugin.getFileHandler().getRawMessage("titles.winner.title");
             String subtitle = plugin.getFileHandler().getRawMessage("titles.winner.subtitle");
             FileHandler.sendTitle(winner, title, subtitle, 10, 100, 20);
-            playSound(winner, "game-win");
         } else {
             String message = plugin.getFileHandler().getMessage("game.game-draw");
             broadcastMessage(message);
@@ -380,56 +731,197 @@ public class GameManager {
         new BukkitRunnable() {
             @Override
             public void run() {
-                resetGame();
+                // Lost to a force stop that already reset the game
+                if (stateMachine.transition(GameState.ENDING, GameState.RESETTING)) {
+                    performReset();
+                }
             }
         }.runTaskLater(plugin, 100L); // 5 seconds
     }
 
+    /**
+     * Stops publishing stats, publishing the final values one last time
+     */
+    private void stopStatsTask() {
+        if (statsTask != null) {
+            statsTask.cancel();
+            statsTask = null;
+        }
+        stats.publish();
+    }
+
+    /**
+     * Credits the killer of an eliminated player
+     * @param event The elimination
+     */
+    private void countKill(PlayerEliminated event) {
+        if (event.getKiller() == null) return;
+        
+        GamePlayer killerPlayer = getGamePlayer(event.getKiller());
+        if (killerPlayer != null) {
+            killerPlayer.addKill();
+        }
+    }
+
+    /**
+     * Adds the results of everyone who played the ended game to their lifetime stats
+     * @param event The game end
+     */
+    private void recordResults(GameEnded event) {
+        StatsService statsService = plugin.getStatsService();
+        if (statsService == null) return;
+        
+        UUID winner = event.getWinner() != null ? event.getWinner().getUniqueId() : null;
+        ArenaStats.Snapshot results = stats.getSnapshot();
+        for (int slot = 0; slot < results.size(); slot++) {
+            UUID uuid = results.getPlayer(slot);
+            if (uuid == null) continue;
+            
+            PlayerStats increment = new PlayerStats(uuid, results.getName(slot));
+            increment.set(LifetimeStat.GAMES_PLAYED, 1);
+            increment.set(LifetimeStat.WINS, uuid.equals(winner) ? 1 : 0);
+            increment.set(LifetimeStat.KILLS, results.get(ArenaStats.Stat.KILLS, slot));
+            increment.set(LifetimeStat.BLOCKS_BROKEN, results.get(ArenaStats.Stat.BLOCKS_BROKEN, slot));
+            increment.set(LifetimeStat.ITEMS_COLLECTED, results.get(ArenaStats.Stat.ITEMS_COLLECTED, slot));
+            statsService.record(increment);
+        }
+    }
+
+    /**
+     * Appends the ended game to the match history
+     * @param event The game end
+     */
+    private void archiveMatch(GameEnded event) {
+        MatchHistory history = plugin.getMatchHistory();
+        if (history == null) return;
+        
+        history.append(matchRecorder.finish(stats.getSnapshot()));
+    }
+
     /**
      * Checks if there's a winner
      */
     private void checkWinCondition() {
-        if (state != GameState.ACTIVE) return;
+        if (getState() != GameState.ACTIVE) return;
         
-        List<UUID> alivePlayers = new ArrayList<>();
-        for (Map.Entry<UUID, GamePlayer> entry : players.entrySet()) {
-            if (entry.getValue().isAlive()) {
-                alivePlayers.add(entry.getKey());
+        GamePlayer lastAlive = null;
+        int alive = 0;
+        PlayerSlots slots = playerSlots;
+        for (int slot = 0; slot < slots.capacity() && alive <= 1; slot++) {
+            GamePlayer gamePlayer = slots.get(slot);
+            if (gamePlayer != null && gamePlayer.isAlive()) {
+                lastAlive = gamePlayer;
+                alive++;
             }
         }
         
-        if (alivePlayers.size() <= 1) {
-            Player winner = alivePlayers.isEmpty() ? null : Bukkit.getPlayer(alivePlayers.get(0));
+        if (alive <= 1) {
+            Player winner = lastAlive == null ? null : roster.get(lastAlive.getSlot());
             endGame(winner);
         }
     }
 
     /**
-     * Resets the game to lobby state
+     * Resets the game to lobby state.
+     * Blocks changed by players are rolled back over the following ticks,
+     * the state only returns to LOBBY once the arena is restored.
      */
     public void resetGame() {
-        setState(GameState.RESETTING);
+        if (stateMachine.advance(GameState.RESETTING)) {
+            performReset();
+        }
+    }
+
+    /**
+     * Cleans up after the game once this thread has moved it to RESETTING
+     */
+    private void performReset() {
+        resetStartTime = System.nanoTime();
+        long start = perf.start();
+        try {
+            // Clear pillars - a cloned arena world is thrown away as a whole instead
+            boolean disposableWorld = disposableGameWorld && gameWorld != null;
+            if (disposableWorld) {
+                pillarGenerator.forgetAllPillars();
+            } else {
+                pillarGenerator.clearAllPillars();
+            }
+            
+            // Reset all players
+            long teleportStart = GameEvents.start();
+            Location lobbyLocation = getLobbyLocation();
+            int teleported = 0;
+            for (Player player : roster.array()) {
+                if (player != null) {
+                    player.setGameMode(GameMode.SURVIVAL);
+                    player.getInventory().clear();
+                    player.setHealth(player.getMaxHealth());
+                    player.setFoodLevel(20);
+                    player.teleport(lobbyLocation);
+                    teleported++;
+                }
+            }
+            GameEvents.massTeleport(id, teleportStart, teleported, "lobby");
+            
+            players.clear();
+            spectators.clear();
+            playerSlots.releaseAll();
+            roster.clear();
+            plugin.getArenaRouter().unbindAll(this);
+            stopStatsTask();
+            stats.clear();
+            stats.publish();
+            
+            // Drop the used arena world, the next one is already being cloned
+            if (disposableWorld) {
+                worldCloner.discard(gameWorld);
+            }
+            gameWorld = null;
+            disposableGameWorld = false;
+            arenaBounds = null;
+            plugin.getArenaRouter().setBounds(this, null);
+            
+            // Undo everything players changed, spread over several ticks while still running
+            if (blockJournal.size() > 0 && plugin.isEnabled()) {
+                int blocksPerTick = plugin.getConfig().getInt("world.rollback-blocks-per-tick", 500);
+                blockJournal.rollback(blocksPerTick, this::finishReset);
+            } else {
+                blockJournal.rollbackNow();
+                finishReset();
+            }
+        } finally {
+            timings.stop(Subsystem.RESET, start);
+        }
+    }
+
+    /**
+     * Completes a reset once the arena is restored
+     */
+    private void finishReset() {
+        // The arena is clean again, nothing left to recover after a crash
+        mutationLog.compact();
         
-        // Clear pillars
-        pillarGenerator.clearAllPillars();
+        // Pillars prebuilt in another slot meanwhile still need to be recoverable
+        prebuilder.relog();
         
-        // Reset all players
-        Location lobbyLocation = getLobbyLocation();
-        for (UUID uuid : new HashSet<>(players.keySet())) {
-            Player player = Bukkit.getPlayer(uuid);
-            if (player != null) {
-                player.setGameMode(GameMode.SURVIVAL);
-                player.getInventory().clear();
-                player.setHealth(player.getMaxHealth());
-                player.setFoodLevel(20);
-                player.teleport(lobbyLocation);
-            }
+        if (gameSlot != null) {
+            getSlotAllocator(gameSlot.getWorld()).release(gameSlot);
+            gameSlot = null;
         }
         
-        players.clear();
-        spectators.clear();
+        // Pick up a changed max-players for the next game
+        int maxPlayers = plugin.getConfig().getInt("game.max-players", 16);
+        if (playerSlots.capacity() != maxPlayers) {
+            playerSlots = new PlayerSlots(maxPlayers);
+            stats = new ArenaStats(playerSlots.capacity());
+            roster = new PlayerRoster(playerSlots.capacity());
+        }
         
-        setState(GameState.LOBBY);
+        if (stateMachine.transition(GameState.RESETTING, GameState.LOBBY)) {
+            plugin.getMetrics().resetFinished(System.nanoTime() - resetStartTime);
+            GameEvents.reset(id, resetStartTime);
+            schedulePrebuild();
+        }
     }
 
     /**
@@ -440,19 +932,28 @@ public class GameManager {
         if (gameTask != null) gameTask.cancel();
         if (generationTask != null) generationTask.cancel();
         
+        prebuilder.discardNow();
+        
+        if (getState() == GameState.RESETTING) {
+            // A reset is still rolling back, finish it right away
+            blockJournal.rollbackNow();
+            finishReset();
+            return;
+        }
         resetGame();
     }
 
     /**
-     * Sets the game state and fires event
+     * Fires the state change event, called only by the thread that won the transition
+     * @param oldState The previous state
      * @param newState The new state
      */
-    private void setState(GameState newState) {
-        GameState oldState = this.state;
-        this.state = newState;
+    private void onStateChange(GameState oldState, GameState newState) {
+        long now = GameEvents.start();
+        GameEvents.phaseChanged(id, oldState.name(), newState.name(), phaseStartTime);
+        phaseStartTime = now;
         
-        GameStateChangeEvent event = new GameStateChangeEvent(oldState, newState);
-        Bukkit.getPluginManager().callEvent(event);
+        stateChanged.post(new GameStateChanged(oldState, newState));
     }
 
     /**
@@ -460,63 +961,49 @@ public class GameManager {
      * @param message The message to broadcast
      */
     public void broadcastMessage(String message) {
-        for (UUID uuid : players.keySet()) {
-            Player player = Bukkit.getPlayer(uuid);
-            if (player != null) {
-                player.sendMessage(message);
-            }
-        }
-        for (UUID uuid : spectators) {
-            Player player = Bukkit.getPlayer(uuid);
-            if (player != null && !players.containsKey(uuid)) {
-                player.sendMessage(message);
+        long start = perf.start();
+        try {
+            for (Player player : roster.array()) {
+                if (player != null) {
+                    player.sendMessage(message);
+                }
             }
-        }
-    }
-
-    /**
-     * Plays a sound from config
-     * @param player The player to play sound to
-     * @param soundKey The config key for the sound
-     */
-    private void playSound(Player player, String soundKey) {
-        if (!plugin.getConfig().getBoolean("sounds.enabled", true)) return;
-        
-        String soundName = plugin.getConfig().getString("sounds." + soundKey);
-        if (soundName != null) {
-            try {
-                Sound sound = Sound.valueOf(soundName);
-                player.playSound(player.getLocation(), sound, 1.0f, 1.0f);
-            } catch (IllegalArgumentException e) {
-                // Try playing by string name (works on all versions with resource location)
-                try {
-                    player.playSound(player.getLocation(), soundName.toLowerCase().replace("_", "."), 1.0f, 1.0f);
-                } catch (Exception ex) {
-                    // Silently ignore - sound just won't play on this version
+            for (UUID uuid : spectators) {
+                // Players already got it from the roster
+                if (players.containsKey(uuid)) continue;
+                Player player = Bukkit.getPlayer(uuid);
+                if (player != null) {
+                    player.sendMessage(message);
                 }
             }
+        } finally {
+            timings.stop(Subsystem.BROADCAST, start);
         }
     }
 
     /**
      * Gets the center location for the game.
-     * Resolves the world from config, falling back to the default world.
-     * Supports auto-generate mode (uses configured coordinates) or
+     * Uses the cloned template world when one is ready, otherwise resolves
+     * the world from config, falling back to the default world.
+     * Supports arena slots (a free cell of the world's slot grid),
+     * auto-generate mode (uses configured coordinates) or
      * main-world mode (offsets far from spawn).
      * @return The center location, never null
      */
     private Location getGameCenter() {
-        String worldName = plugin.getConfig().getString("world.world-name", "world");
-        World world = Bukkit.getWorld(worldName);
-
-        // Fallback: try the default/first world if configured world doesn't exist
-        if (world == null) {
-            world = Bukkit.getWorlds().get(0); // main world is always index 0
-            plugin.getLogger().warning("World '" + worldName + "' not found! Falling back to '" + world.getName() + "'");
+        World world = resolveArenaWorld();
+        
+        // Give every game its own region-aligned slot of the world
+        if (arenaWorld == null && plugin.getConfig().getBoolean("world.slots.enabled", false)) {
+            ArenaSlot slot = reserveArenaSlot(world);
+            if (slot != null) {
+                return slot.getCenter(plugin.getConfig().getInt("game.pillar-start-y", 64));
+            }
+            plugin.getLogger().warning("All arena slots in '" + world.getName() + "' are in use, using the configured center");
         }
 
-        // If use-offset is true, generate far from lobby/spawn
-        boolean useOffset = plugin.getConfig().getBoolean("world.use-offset", false);
+        // If use-offset is true, generate far from lobby/spawn (never inside a cloned arena)
+        boolean useOffset = arenaWorld == null && plugin.getConfig().getBoolean("world.use-offset", false);
         if (useOffset) {
             int offsetDistance = plugin.getConfig().getInt("world.offset-distance", 10000);
             Location spawn = world.getSpawnLocation();
@@ -533,6 +1020,26 @@ public class GameManager {
         return new Location(world, cx, cy, cz);
     }
 
+    /**
+     * Resolves the world the next game is played in
+     * @return The arena world, never null
+     */
+    private World resolveArenaWorld() {
+        String worldName = plugin.getConfig().getString("world.world-name", "world");
+        World world = arenaWorld != null ? arenaWorld : Bukkit.getWorld(worldName);
+
+        if (world == null && worldCloner.isEnabled()) {
+            plugin.getLogger().warning("Arena world is still being cloned, using '" + worldName + "' for this game");
+        }
+
+        // Fallback: try the default/first world if configured world doesn't exist
+        if (world == null) {
+            world = Bukkit.getWorlds().get(0); // main world is always index 0
+            plugin.getLogger().warning("World '" + worldName + "' not found! Falling back to '" + world.getName() + "'");
+        }
+        return world;
+    }
+
     /**
      * Gets the lobby/spawn location to teleport players back to after a game.
      * Checks for:
@@ -570,7 +1077,7 @@ public class GameManager {
 
     // Getters
     public GameState getState() {
-        return state;
+        return stateMachine.get();
     }
 
     public Map<UUID, GamePlayer> getPlayers() {
@@ -589,20 +1096,103 @@ public class GameManager {
         return players.get(player.getUniqueId());
     }
 
+    /**
+     * Points the roster at the new Player object of a player who reconnected
+     * @param player The player that joined the server
+     */
+    public void handleReconnect(Player player) {
+        roster.rebind(player);
+    }
+
+    /**
+     * Gets the live Player references of the players in the game, see {@link PlayerRoster}
+     * @return The roster
+     */
+    public PlayerRoster getRoster() {
+        return roster;
+    }
+
     public boolean isPlaying(Player player) {
         return players.containsKey(player.getUniqueId());
     }
 
+    /**
+     * Checks if a block lies inside the area of the current game
+     * @param block The block to check
+     * @return true if the block belongs to the running arena
+     */
+    public boolean isInArena(Block block) {
+        ArenaBounds bounds = arenaBounds;
+        return bounds != null && bounds.contains(block);
+    }
+
     public boolean isSpectating(Player player) {
         return spectators.contains(player.getUniqueId());
     }
 
+    /**
+     * Gets the stats of the players in this arena.
+     * Use {@link ArenaStats#getSnapshot()} when reading off the main thread.
+     * @return The stats store
+     */
+    public ArenaStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Gets the recorder of the running game for the match history
+     * @return The match recorder
+     */
+    public MatchRecorder getMatchRecorder() {
+        return matchRecorder;
+    }
+
+    /**
+     * Gets the id of this arena, used to label its timings, metrics and recorded events
+     * @return The arena id
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Gets the tick cost of this arena's subsystems
+     * @return The timings
+     */
+    public Timings getTimings() {
+        return timings;
+    }
+
     public int getAliveCount() {
-        return (int) players.values().stream().filter(GamePlayer::isAlive).count();
+        int alive = 0;
+        PlayerSlots slots = playerSlots;
+        for (int slot = 0; slot < slots.capacity(); slot++) {
+            GamePlayer gamePlayer = slots.get(slot);
+            if (gamePlayer != null && gamePlayer.isAlive()) {
+                alive++;
+            }
+        }
+        return alive;
+    }
+
+    /**
+     * Gets the number of players in the game
+     * @return The player count
+     */
+    public int getPlayerCount() {
+        return playerSlots.size();
+    }
+
+    /**
+     * Checks if every player slot is taken
+     * @return true if no one else can join
+     */
+    public boolean isFull() {
+        return playerSlots.size() >= playerSlots.capacity();
     }
 
     public long getGameTime() {
-        if (state != GameState.ACTIVE) return 0;
+        if (getState() != GameState.ACTIVE) return 0;
         return System.currentTimeMillis() - gameStartTime;
     }
 
@@ -610,7 +1200,19 @@ public class GameManager {
         return pillarGenerator;
     }
 
+    public SoundRegistry getSoundRegistry() {
+        return soundRegistry;
+    }
+
     public LootManager getLootManager() {
         return lootManager;
     }
+
+    public BlockJournal getBlockJournal() {
+        return blockJournal;
+    }
+
+    public ArenaMutationLog getMutationLog() {
+        return mutationLog;
+    }
 }
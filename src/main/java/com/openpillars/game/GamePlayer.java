@@ -7,31 +7,42 @@ import java.util.UUID;
 
 /**
  * Represents a player in the game with their stats and state.
+ * Stats live in the arena's {@link ArenaStats} store, in the row of the player's slot.
  */
 public class GamePlayer {
 
     private final UUID uuid;
     private final String name;
+    private final int slot;
+    private final ArenaStats stats;
+    private final int statsRow;
     
     private boolean alive;
     private boolean frozen;
     private Location spawnLocation;
     private Location pillarBase;
-    
-    private int kills;
-    private int blocksPlaced;
-    private int blocksBroken;
-    private int itemsCollected;
 
     public GamePlayer(Player player) {
+        this(player, -1, new ArenaStats(1), 0);
+    }
+
+    /**
+     * @param player The player
+     * @param slot The player's slot id in the game, see {@link PlayerSlots}
+     * @param stats The arena's stats store
+     */
+    public GamePlayer(Player player, int slot, ArenaStats stats) {
+        this(player, slot, stats, slot);
+    }
+
+    private GamePlayer(Player player, int slot, ArenaStats stats, int statsRow) {
         this.uuid = player.getUniqueId();
         this.name = player.getName();
+        this.slot = slot;
+        this.stats = stats;
+        this.statsRow = statsRow;
         this.alive = true;
         this.frozen = false;
-        this.kills = 0;
-        this.blocksPlaced = 0;
-        this.blocksBroken = 0;
-        this.itemsCollected = 0;
     }
 
     public UUID getUuid() {
@@ -42,6 +53,14 @@ public class GamePlayer {
         return name;
     }
 
+    /**
+     * Gets the player's slot id, a small int unique within the game
+     * @return The slot id, or -1 if the player has no slot
+     */
+    public int getSlot() {
+        return slot;
+    }
+
     public boolean isAlive() {
         return alive;
     }
@@ -75,38 +94,38 @@ public class GamePlayer {
     }
 
     public int getKills() {
-        return kills;
+        return stats.get(ArenaStats.Stat.KILLS, statsRow);
     }
 
     public void addKill() {
-        this.kills++;
+        stats.add(ArenaStats.Stat.KILLS, statsRow, 1);
     }
 
     public int getBlocksPlaced() {
-        return blocksPlaced;
+        return stats.get(ArenaStats.Stat.BLOCKS_PLACED, statsRow);
     }
 
     public void addBlockPlaced() {
-        this.blocksPlaced++;
+        stats.add(ArenaStats.Stat.BLOCKS_PLACED, statsRow, 1);
     }
 
     public int getBlocksBroken() {
-        return blocksBroken;
+        return stats.get(ArenaStats.Stat.BLOCKS_BROKEN, statsRow);
     }
 
     public void addBlockBroken() {
-        this.blocksBroken++;
+        stats.add(ArenaStats.Stat.BLOCKS_BROKEN, statsRow, 1);
     }
 
     public int getItemsCollected() {
-        return itemsCollected;
+        return stats.get(ArenaStats.Stat.ITEMS_COLLECTED, statsRow);
     }
 
     public void addItemCollected() {
-        this.itemsCollected++;
+        stats.add(ArenaStats.Stat.ITEMS_COLLECTED, statsRow, 1);
     }
 
     public void addItemsCollected(int amount) {
-        this.itemsCollected += amount;
+        stats.add(ArenaStats.Stat.ITEMS_COLLECTED, statsRow, amount);
     }
 }
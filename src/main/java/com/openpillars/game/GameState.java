@@ -1,8 +1,13 @@
 package com.openpillars.game;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * Represents the different states a game can be in.
- * Follows the flow: LOBBY -> STARTING -> ACTIVE -> ENDING
+ * Follows the flow: LOBBY -> STARTING -> ACTIVE -> ENDING -> RESETTING -> LOBBY
+ * A countdown can be cancelled back to LOBBY, and a force stop resets from any
+ * state but RESETTING itself.
  */
 public enum GameState {
     
@@ -34,5 +39,28 @@ public enum GameState {
      * Game is being reset/cleaned up.
      * No players should be in this state.
      */
-    RESETTING
+    RESETTING;
+
+    // Legal transitions, indexed by ordinal of the current state
+    private static final Set<GameState>[] TRANSITIONS = buildTransitions();
+
+    /**
+     * Checks if the game may move from this state to another
+     * @param next The state to move to
+     * @return true if the transition is legal
+     */
+    public boolean canTransitionTo(GameState next) {
+        return TRANSITIONS[ordinal()].contains(next);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<GameState>[] buildTransitions() {
+        Set<GameState>[] table = new Set[values().length];
+        table[LOBBY.ordinal()] = EnumSet.of(STARTING, RESETTING);
+        table[STARTING.ordinal()] = EnumSet.of(LOBBY, ACTIVE, RESETTING);
+        table[ACTIVE.ordinal()] = EnumSet.of(ENDING, RESETTING);
+        table[ENDING.ordinal()] = EnumSet.of(RESETTING);
+        table[RESETTING.ordinal()] = EnumSet.of(LOBBY);
+        return table;
+    }
 }
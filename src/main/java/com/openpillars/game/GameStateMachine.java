@@ -0,0 +1,64 @@
+package com.openpillars.game;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+
+/**
+ * Lock-free holder of the game state.
+ * Every change is a compare-and-set checked against the transition table in
+ * {@link GameState}, so of two racing transitions (say a game ending on its
+ * own while it is being force stopped) exactly one wins, and only the winner
+ * notifies the listener. The state can be read safely from any thread.
+ */
+public class GameStateMachine {
+
+    private final AtomicReference<GameState> state;
+    private final BiConsumer<GameState, GameState> listener;
+
+    /**
+     * @param initial The initial state
+     * @param listener Called with (previous, new) state by the thread that made a transition
+     */
+    public GameStateMachine(GameState initial, BiConsumer<GameState, GameState> listener) {
+        this.state = new AtomicReference<>(initial);
+        this.listener = listener;
+    }
+
+    /**
+     * Gets the current state
+     * @return The current state
+     */
+    public GameState get() {
+        return state.get();
+    }
+
+    /**
+     * Moves from an expected state to another
+     * @param expected The state the game must currently be in
+     * @param next The state to move to
+     * @return true if this call made the transition
+     */
+    public boolean transition(GameState expected, GameState next) {
+        if (!expected.canTransitionTo(next) || !state.compareAndSet(expected, next)) {
+            return false;
+        }
+        listener.accept(expected, next);
+        return true;
+    }
+
+    /**
+     * Moves to a state from whatever state the game is in, if that is legal
+     * @param next The state to move to
+     * @return true if this call made the transition
+     */
+    public boolean advance(GameState next) {
+        while (true) {
+            GameState current = state.get();
+            if (!current.canTransitionTo(next)) return false;
+            if (state.compareAndSet(current, next)) {
+                listener.accept(current, next);
+                return true;
+            }
+        }
+    }
+}
@@ -2,18 +2,22 @@ package com.openpillars.game;
 
 import com.cryptomorin.xseries.XMaterial;
 import com.openpillars.OpenPillars;
+import com.openpillars.arena.ArenaMutationLog;
 import com.openpillars.events.PillarBlockBreakEvent;
 import com.openpillars.events.PillarBlockGenerateEvent;
+import com.openpillars.jfr.GameEvents;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.block.Block;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Handles pillar generation and block management.
@@ -28,11 +32,69 @@ public class PillarGenerator {
     
     // Map of block locations to owning player
     private final Map<Location, UUID> blockOwners;
+    
+    // Block palettes by game phase, sorted by start time
+    private long[] phaseStarts;
+    private BlockPalette[] phasePalettes;
 
     public PillarGenerator(OpenPillars plugin) {
         this.plugin = plugin;
         this.playerPillars = new ConcurrentHashMap<>();
         this.blockOwners = new ConcurrentHashMap<>();
+        loadPalettes();
+    }
+
+    /**
+     * Loads the weighted block palettes from the config.
+     * The "default" palette is used from the start of the game, the
+     * "phases" list switches to other palettes after a number of minutes.
+     */
+    public void loadPalettes() {
+        ConfigurationSection section = plugin.getConfig().getConfigurationSection("palette");
+        Map<String, BlockPalette> palettes = new HashMap<>();
+        
+        if (section != null) {
+            for (String name : section.getKeys(false)) {
+                if (name.equals("phases")) continue;
+                BlockPalette palette = BlockPalette.parse(name, section.getMapList(name), plugin.getLogger());
+                if (palette != null) {
+                    palettes.put(name, palette);
+                }
+            }
+        }
+        
+        BlockPalette defaultPalette = palettes.get("default");
+        if (defaultPalette == null) {
+            plugin.getLogger().warning("No usable 'default' block palette found, using stone");
+            defaultPalette = new BlockPalette(new Material[] {getBaseMaterial()}, new double[] {1});
+        }
+        
+        // Collect phase switches, ordered by start time
+        TreeMap<Long, BlockPalette> phases = new TreeMap<>();
+        phases.put(0L, defaultPalette);
+        if (section != null) {
+            for (Map<?, ?> phase : section.getMapList("phases")) {
+                Object time = phase.get("time");
+                Object name = phase.get("palette");
+                BlockPalette palette = name != null ? palettes.get(String.valueOf(name)) : null;
+                if (!(time instanceof Number) || palette == null) {
+                    plugin.getLogger().warning("Invalid palette phase: " + phase);
+                    continue;
+                }
+                phases.put(((Number) time).longValue() * 60000L, palette);
+            }
+        }
+        
+        long[] starts = new long[phases.size()];
+        BlockPalette[] byPhase = new BlockPalette[phases.size()];
+        int i = 0;
+        for (Map.Entry<Long, BlockPalette> entry : phases.entrySet()) {
+            starts[i] = entry.getKey();
+            byPhase[i] = entry.getValue();
+            i++;
+        }
+        this.phaseStarts = starts;
+        this.phasePalettes = byPhase;
     }
 
     /**
@@ -41,7 +103,18 @@ public class PillarGenerator {
      * @param playerId The player's UUID
      */
     public void generateInitialPillar(Location baseLocation, UUID playerId) {
-        int initialHeight = plugin.getConfig().getInt("pillar.pillar-initial-height", 5);
+        generateInitialPillar(baseLocation, playerId, 0);
+    }
+
+    /**
+     * Generates the initial pillar for a player, skipping blocks that were
+     * already placed ahead of time by the {@link PillarPrebuilder}
+     * @param baseLocation The base location of the pillar
+     * @param playerId The player's UUID
+     * @param prebuilt The number of shape blocks already in place
+     */
+    public void generateInitialPillar(Location baseLocation, UUID playerId, int prebuilt) {
+        int initialHeight = getInitialHeight();
         World world = baseLocation.getWorld();
         
         if (world == null) return;
@@ -50,31 +123,21 @@ public class PillarGenerator {
         playerPillars.put(playerId, pillarData);
         
         // Get the base material (stone for initial pillar)
-        Material baseMaterial = XMaterial.STONE.parseMaterial();
-        if (baseMaterial == null) baseMaterial = Material.STONE;
+        Material baseMaterial = getBaseMaterial();
+        ArenaMutationLog mutationLog = plugin.getGameManager().getMutationLog();
         
-        // Generate the 1x1 pillar column (all layers except the top)
-        for (int y = 0; y < initialHeight - 1; y++) {
-            Location blockLoc = baseLocation.clone().add(0, y, 0);
-            Block block = world.getBlockAt(blockLoc);
-            block.setType(baseMaterial);
-            
-            pillarData.addBlock(blockLoc);
-            blockOwners.put(normalizeLocation(blockLoc), playerId);
-        }
-        
-        // Generate a 3x3 platform on the topmost layer so the player
-        // has room to stand and doesn't get pushed off by new 1x1 growth
-        int topY = initialHeight - 1;
-        for (int dx = -1; dx <= 1; dx++) {
-            for (int dz = -1; dz <= 1; dz++) {
-                Location blockLoc = baseLocation.clone().add(dx, topY, dz);
+        // 1x1 column with a 3x3 platform on the topmost layer
+        int[] shape = getInitialPillarShape(initialHeight);
+        for (int i = 0; i < shape.length; i += 3) {
+            Location blockLoc = baseLocation.clone().add(shape[i], shape[i + 1], shape[i + 2]);
+            if (i / 3 >= prebuilt) {
                 Block block = world.getBlockAt(blockLoc);
+                mutationLog.record(block);
                 block.setType(baseMaterial);
-                
-                pillarData.addBlock(blockLoc);
-                blockOwners.put(normalizeLocation(blockLoc), playerId);
             }
+            
+            pillarData.addBlock(blockLoc);
+            blockOwners.put(normalizeLocation(blockLoc), playerId);
         }
         
         // Store the current top for future generation
@@ -88,21 +151,86 @@ public class PillarGenerator {
         }
     }
 
+    /**
+     * Gets the block offsets of an initial pillar, in placement order.
+     * The 1x1 column fills all layers except the top, which holds a 3x3
+     * platform so the player has room to stand and doesn't get pushed off
+     * by new 1x1 growth.
+     * @param initialHeight The initial pillar height
+     * @return Flat array of (dx, dy, dz) triples
+     */
+    public static int[] getInitialPillarShape(int initialHeight) {
+        int columnHeight = Math.max(0, initialHeight - 1);
+        int[] shape = new int[(columnHeight + 9) * 3];
+        int i = 0;
+        for (int y = 0; y < columnHeight; y++) {
+            shape[i++] = 0;
+            shape[i++] = y;
+            shape[i++] = 0;
+        }
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dz = -1; dz <= 1; dz++) {
+                shape[i++] = dx;
+                shape[i++] = columnHeight;
+                shape[i++] = dz;
+            }
+        }
+        return shape;
+    }
+
+    /**
+     * Gets the configured initial pillar height
+     * @return The initial height in blocks
+     */
+    public int getInitialHeight() {
+        return plugin.getConfig().getInt("pillar.pillar-initial-height", 5);
+    }
+
+    /**
+     * Gets the material initial pillars are built from
+     * @return The base material
+     */
+    public Material getBaseMaterial() {
+        Material baseMaterial = XMaterial.STONE.parseMaterial();
+        return baseMaterial != null ? baseMaterial : Material.STONE;
+    }
+
     /**
      * Generates a new block on a player's pillar
      * @param playerId The player's UUID
      * @param lootManager The loot manager for item selection
      */
     public void generateBlock(UUID playerId, LootManager lootManager) {
+        generateBlock(playerId, lootManager, null);
+    }
+
+    /**
+     * Generates a new block on a player's pillar
+     * @param playerId The player's UUID
+     * @param lootManager The loot manager for item selection
+     * @param generated Collects the placed blocks, or null if not needed
+     */
+    public void generateBlock(UUID playerId, LootManager lootManager, List<Block> generated) {
+        Player player = Bukkit.getPlayer(playerId);
+        if (player == null) return;
+        
+        generateBlock(player, lootManager, generated);
+    }
+
+    /**
+     * Generates a new block on a player's pillar
+     * @param player The online player
+     * @param lootManager The loot manager for item selection
+     * @param generated Collects the placed blocks, or null if not needed
+     */
+    public void generateBlock(Player player, LootManager lootManager, List<Block> generated) {
+        UUID playerId = player.getUniqueId();
         PillarData pillarData = playerPillars.get(playerId);
         if (pillarData == null) return;
         
         int maxHeight = plugin.getConfig().getInt("pillar.max-height", 50);
         if (pillarData.getCurrentHeight() >= maxHeight) return;
         
-        Player player = Bukkit.getPlayer(playerId);
-        if (player == null) return;
-        
         Location baseLocation = pillarData.getBaseLocation();
         World world = baseLocation.getWorld();
         if (world == null) return;
@@ -112,15 +240,18 @@ public class PillarGenerator {
         for (int i = 0; i < blocksPerInterval && pillarData.getCurrentHeight() < maxHeight; i++) {
             Location blockLoc = baseLocation.clone().add(0, pillarData.getCurrentHeight(), 0);
             
-            // Get random block material - using a selection of building blocks
-            Material blockMaterial = getRandomPillarBlock();
+            // Pick a block from the palette of the current game phase
+            Material blockMaterial = getRandomPillarBlock(plugin.getGameManager().getGameTime());
             
-            // Fire pre-generation event
-            PillarBlockGenerateEvent event = new PillarBlockGenerateEvent(
-                    player, blockLoc, blockMaterial);
-            Bukkit.getPluginManager().callEvent(event);
-            
-            if (event.isCancelled()) continue;
+            // Fire pre-generation event, skipped entirely when nobody listens
+            if (PillarBlockGenerateEvent.getHandlerList().getRegisteredListeners().length > 0) {
+                PillarBlockGenerateEvent event = new PillarBlockGenerateEvent(
+                        player, blockLoc, blockMaterial);
+                Bukkit.getPluginManager().callEvent(event);
+                
+                if (event.isCancelled()) continue;
+                blockMaterial = event.getMaterial();
+            }
             
             // If the player is standing at or near the block placement height,
             // push them up first so the block doesn't spawn inside them
@@ -142,46 +273,44 @@ public class PillarGenerator {
             
             // Place the block
             Block block = world.getBlockAt(blockLoc);
-            block.setType(event.getMaterial());
+            plugin.getGameManager().getMutationLog().record(block);
+            block.setType(blockMaterial);
+            if (generated != null) {
+                generated.add(block);
+            }
             
             pillarData.addBlock(blockLoc);
             blockOwners.put(normalizeLocation(blockLoc), playerId);
             pillarData.setCurrentHeight(pillarData.getCurrentHeight() + 1);
+            plugin.getGameManager().getMatchRecorder().blockGenerated();
+            plugin.getMetrics().blockGenerated();
             
             // Store loot for this block
             String lootTable = lootManager.getCurrentLootTable(
                     plugin.getGameManager().getGameTime());
+            long rollStart = GameEvents.start();
             ItemStack loot = lootManager.getRandomItem(lootTable);
+            if (lootTable != null) {
+                plugin.getMetrics().lootRolled(lootTable);
+                GameEvents.lootRoll(plugin.getGameManager().getId(), rollStart, lootTable, loot != null);
+            }
             if (loot != null) {
-                pillarData.setBlockLoot(blockLoc, loot);
+                pillarData.setBlockLoot(blockLoc, loot, lootTable);
             }
         }
     }
 
     /**
      * Gets a random block material for pillar generation
+     * @param gameTimeMillis The current game time in milliseconds
      * @return A random Material for the pillar block
      */
-    private Material getRandomPillarBlock() {
-        // List of possible pillar blocks
-        XMaterial[] pillarBlocks = {
-            XMaterial.STONE,
-            XMaterial.COBBLESTONE,
-            XMaterial.DIRT,
-            XMaterial.OAK_PLANKS,
-            XMaterial.GRAVEL,
-            XMaterial.SAND,
-            XMaterial.CLAY,
-            XMaterial.SANDSTONE,
-            XMaterial.MOSSY_COBBLESTONE,
-            XMaterial.ANDESITE,
-            XMaterial.DIORITE,
-            XMaterial.GRANITE
-        };
-        
-        XMaterial selected = pillarBlocks[new Random().nextInt(pillarBlocks.length)];
-        Material material = selected.parseMaterial();
-        return material != null ? material : Material.STONE;
+    private Material getRandomPillarBlock(long gameTimeMillis) {
+        int phase = 0;
+        while (phase + 1 < phaseStarts.length && gameTimeMillis >= phaseStarts[phase + 1]) {
+            phase++;
+        }
+        return phasePalettes[phase].sample(ThreadLocalRandom.current());
     }
 
     /**
@@ -201,35 +330,43 @@ public class PillarGenerator {
         
         // Get the stored loot for this block
         ItemStack loot = pillarData.getBlockLoot(blockLoc);
+        String lootTable = pillarData.getBlockLootTable(blockLoc);
         
-        // Fire event
-        PillarBlockBreakEvent event = new PillarBlockBreakEvent(
-                player, block, loot, ownerId.equals(player.getUniqueId()));
-        Bukkit.getPluginManager().callEvent(event);
-        
-        if (event.isCancelled()) return true;
+        // Fire event, skipped entirely when nobody listens
+        if (PillarBlockBreakEvent.getHandlerList().getRegisteredListeners().length > 0) {
+            PillarBlockBreakEvent event = new PillarBlockBreakEvent(
+                    player, block, loot, ownerId.equals(player.getUniqueId()));
+            Bukkit.getPluginManager().callEvent(event);
+            
+            if (event.isCancelled()) return true;
+            loot = event.getLoot();
+        }
         
         // Remove the block from tracking
         pillarData.removeBlock(blockLoc);
         blockOwners.remove(blockLoc);
+        plugin.getMetrics().blockBroken();
         
         // Give loot to player if configured
-        if (plugin.getConfig().getBoolean("pillar.drop-items", true) && event.getLoot() != null) {
-            player.getInventory().addItem(event.getLoot());
+        if (plugin.getConfig().getBoolean("pillar.drop-items", true) && loot != null) {
+            player.getInventory().addItem(loot);
+            if (lootTable != null) {
+                plugin.getGameManager().getMatchRecorder().lootDropped(lootTable);
+            }
             
             GamePlayer gamePlayer = plugin.getGameManager().getGamePlayer(player);
             if (gamePlayer != null) {
                 gamePlayer.addBlockBroken();
-                gamePlayer.addItemsCollected(event.getLoot().getAmount());
+                gamePlayer.addItemsCollected(loot.getAmount());
             }
             
             // Send item received message
-            String itemName = event.getLoot().hasItemMeta() && event.getLoot().getItemMeta().hasDisplayName()
-                    ? event.getLoot().getItemMeta().getDisplayName()
-                    : formatMaterialName(event.getLoot().getType().name());
+            String itemName = loot.hasItemMeta() && loot.getItemMeta().hasDisplayName()
+                    ? loot.getItemMeta().getDisplayName()
+                    : formatMaterialName(loot.getType().name());
             
             String message = plugin.getFileHandler().getMessage("game.item-received",
-                    "%item%", itemName + " x" + event.getLoot().getAmount());
+                    "%item%", itemName + " x" + loot.getAmount());
             player.sendMessage(message);
         }
         
@@ -300,6 +437,15 @@ public class PillarGenerator {
         blockOwners.clear();
     }
 
+    /**
+     * Forgets all pillar tracking without touching the world.
+     * Used when the whole arena world is discarded instead of cleaned.
+     */
+    public void forgetAllPillars() {
+        playerPillars.clear();
+        blockOwners.clear();
+    }
+
     /**
      * Normalizes a location for consistent map keys
      * @param location The location to normalize
@@ -322,6 +468,7 @@ public class PillarGenerator {
         private final UUID ownerId;
         private final Set<Location> blocks;
         private final Map<Location, ItemStack> blockLoot;
+        private final Map<Location, String> blockLootTable;
         private int currentHeight;
 
         public PillarData(Location baseLocation, UUID ownerId) {
@@ -329,6 +476,7 @@ public class PillarGenerator {
             this.ownerId = ownerId;
             this.blocks = ConcurrentHashMap.newKeySet();
             this.blockLoot = new ConcurrentHashMap<>();
+            this.blockLootTable = new ConcurrentHashMap<>();
             this.currentHeight = 0;
         }
 
@@ -351,6 +499,7 @@ public class PillarGenerator {
         public void removeBlock(Location location) {
             blocks.remove(location);
             blockLoot.remove(location);
+            blockLootTable.remove(location);
         }
 
         public int getCurrentHeight() {
@@ -366,7 +515,31 @@ public class PillarGenerator {
         }
 
         public void setBlockLoot(Location location, ItemStack loot) {
+            setBlockLoot(location, loot, null);
+        }
+
+        /**
+         * Stores the loot of a block along with the loot table it was rolled from
+         * @param location The block location
+         * @param loot The loot
+         * @param lootTable The loot table name, or null if unknown
+         */
+        public void setBlockLoot(Location location, ItemStack loot, String lootTable) {
             blockLoot.put(location, loot);
+            if (lootTable != null) {
+                blockLootTable.put(location, lootTable);
+            } else {
+                blockLootTable.remove(location);
+            }
+        }
+
+        /**
+         * Gets the loot table the loot of a block was rolled from
+         * @param location The block location
+         * @return The loot table name, or null if unknown
+         */
+        public String getBlockLootTable(Location location) {
+            return blockLootTable.get(location);
         }
     }
 }
@@ -0,0 +1,267 @@
+package com.openpillars.game;
+
+import com.openpillars.OpenPillars;
+import com.openpillars.arena.ArenaMutationLog;
+import com.openpillars.arena.BlockJournal;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.*;
+
+/**
+ * Builds the next game's initial pillars ahead of time ("warm standby").
+ * Pillars are placed a few blocks at a time within a per-tick time budget
+ * while the arena waits in the lobby, so starting the countdown only has to
+ * hand the finished pillars to the players instead of building them.
+ *
+ * Re-planning for a different player count is incremental: pillars that keep
+ * their position stay, the rest are torn down and new ones are queued.
+ */
+public class PillarPrebuilder {
+
+    private final OpenPillars plugin;
+    private final PillarGenerator pillarGenerator;
+    private final ArenaMutationLog mutationLog;
+
+    // Pillars wanted for the next game, keyed by packed base position
+    private final Map<Long, StandbyPillar> standby;
+    // Pillars no longer wanted, restored to their original blocks
+    private final Map<Long, StandbyPillar> teardown;
+
+    private World world;
+    private boolean logged;
+    private BukkitTask task;
+
+    public PillarPrebuilder(OpenPillars plugin, PillarGenerator pillarGenerator, ArenaMutationLog mutationLog) {
+        this.plugin = plugin;
+        this.pillarGenerator = pillarGenerator;
+        this.mutationLog = mutationLog;
+        this.standby = new LinkedHashMap<>();
+        this.teardown = new LinkedHashMap<>();
+    }
+
+    /**
+     * Sets the pillar layout the next game is expected to use
+     * @param world The arena world
+     * @param bases The pillar base locations
+     * @param logged true to write the placed blocks to the crash-safe mutation log
+     */
+    public void plan(World world, List<Location> bases, boolean logged) {
+        if (this.world != null && !this.world.equals(world)) {
+            discardNow();
+        }
+        this.world = world;
+        this.logged = logged;
+
+        if (logged && !mutationLog.isActive()) {
+            mutationLog.begin(world);
+        }
+
+        Set<Long> wanted = new HashSet<>();
+        int[] shape = PillarGenerator.getInitialPillarShape(pillarGenerator.getInitialHeight());
+        for (Location base : bases) {
+            long key = key(base);
+            wanted.add(key);
+            if (standby.containsKey(key)) continue;
+
+            // Revive a pillar that was about to be torn down if it still fits
+            StandbyPillar pillar = teardown.remove(key);
+            if (pillar != null && pillar.shape.length != shape.length) {
+                while (pillar.placed > 0) {
+                    removeBlock(pillar);
+                }
+                pillar = null;
+            }
+            standby.put(key, pillar != null ? pillar : new StandbyPillar(base, shape));
+        }
+
+        Iterator<Map.Entry<Long, StandbyPillar>> iterator = standby.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, StandbyPillar> entry = iterator.next();
+            if (!wanted.contains(entry.getKey())) {
+                teardown.put(entry.getKey(), entry.getValue());
+                iterator.remove();
+            }
+        }
+
+        ensureRunning();
+    }
+
+    /**
+     * Hands a standby pillar over to a player.
+     * Nothing protects standby pillars in the lobby, so the placed blocks are
+     * checked again and only the intact ones count.
+     * @param base The pillar base location
+     * @return The number of leading shape blocks still in place (0 if none)
+     */
+    public int claim(Location base) {
+        if (world == null || !world.equals(base.getWorld())) return 0;
+        StandbyPillar pillar = standby.remove(key(base));
+        if (pillar == null) return 0;
+
+        Material material = pillarGenerator.getBaseMaterial();
+        for (int i = 0; i < pillar.placed; i++) {
+            if (pillar.blockAt(world, i).getType() != material) return i;
+        }
+        return pillar.placed;
+    }
+
+    /**
+     * Tears down every standby pillar nobody claimed, in the background
+     */
+    public void releaseUnclaimed() {
+        teardown.putAll(standby);
+        standby.clear();
+        ensureRunning();
+    }
+
+    /**
+     * Immediately restores every block placed by the prebuilder
+     */
+    public void discardNow() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        teardown.putAll(standby);
+        standby.clear();
+        for (StandbyPillar pillar : teardown.values()) {
+            while (pillar.placed > 0) {
+                removeBlock(pillar);
+            }
+        }
+        teardown.clear();
+        world = null;
+    }
+
+    /**
+     * Writes every block placed so far to a fresh mutation log session.
+     * Called after the log was compacted while standby pillars were still
+     * standing, e.g. when the previous game in another arena slot finished.
+     */
+    public void relog() {
+        if (!logged || world == null) return;
+        if (!mutationLog.isActive()) {
+            mutationLog.begin(world);
+        }
+
+        relog(standby.values());
+        relog(teardown.values());
+    }
+
+    private void relog(Collection<StandbyPillar> pillars) {
+        for (StandbyPillar pillar : pillars) {
+            for (int i = 0; i < pillar.placed; i++) {
+                int s = i * 3;
+                mutationLog.append(BlockJournal.pack(pillar.baseX + pillar.shape[s],
+                        pillar.baseY + pillar.shape[s + 1], pillar.baseZ + pillar.shape[s + 2]),
+                        pillar.originals[i]);
+            }
+        }
+    }
+
+    /**
+     * Checks if the standby pillars were built for the given world
+     * @param world The world to check
+     * @return true if there is nothing to discard before using that world
+     */
+    public boolean isFor(World world) {
+        return this.world == null || this.world.equals(world);
+    }
+
+    private void ensureRunning() {
+        if (task != null || !plugin.isEnabled()) return;
+
+        long budgetNanos = plugin.getConfig().getLong("pillar.prebuild.max-micros-per-tick", 500) * 1000L;
+        task = new BukkitRunnable() {
+            @Override
+            public void run() {
+                long deadline = System.nanoTime() + budgetNanos;
+                do {
+                    if (!step()) {
+                        this.cancel();
+                        task = null;
+                        return;
+                    }
+                } while (System.nanoTime() < deadline);
+            }
+        }.runTaskTimer(plugin, 1L, 1L);
+    }
+
+    /**
+     * Performs one block of work, teardowns first
+     * @return false if there is nothing left to do
+     */
+    private boolean step() {
+        Iterator<StandbyPillar> removals = teardown.values().iterator();
+        while (removals.hasNext()) {
+            StandbyPillar pillar = removals.next();
+            if (pillar.placed == 0) {
+                removals.remove();
+                continue;
+            }
+            removeBlock(pillar);
+            return true;
+        }
+
+        for (StandbyPillar pillar : standby.values()) {
+            if (pillar.placed < pillar.originals.length) {
+                placeBlock(pillar);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void placeBlock(StandbyPillar pillar) {
+        Block block = pillar.blockAt(world, pillar.placed);
+        if (logged) {
+            mutationLog.record(block);
+        }
+        pillar.originals[pillar.placed] = block.getType();
+        block.setType(pillarGenerator.getBaseMaterial());
+        pillar.placed++;
+    }
+
+    private void removeBlock(StandbyPillar pillar) {
+        pillar.placed--;
+        Block block = pillar.blockAt(world, pillar.placed);
+        // Leave blocks alone that someone else changed since
+        if (block.getType() == pillarGenerator.getBaseMaterial()) {
+            block.setType(pillar.originals[pillar.placed], false);
+        }
+    }
+
+    private static long key(Location base) {
+        return BlockJournal.pack(base.getBlockX(), base.getBlockY(), base.getBlockZ());
+    }
+
+    /**
+     * A pillar built (or being built) ahead of the game
+     */
+    private static final class StandbyPillar {
+        private final int baseX;
+        private final int baseY;
+        private final int baseZ;
+        private final int[] shape;
+        private final Material[] originals;
+        private int placed;
+
+        private StandbyPillar(Location base, int[] shape) {
+            this.baseX = base.getBlockX();
+            this.baseY = base.getBlockY();
+            this.baseZ = base.getBlockZ();
+            this.shape = shape;
+            this.originals = new Material[shape.length / 3];
+        }
+
+        private Block blockAt(World world, int index) {
+            int i = index * 3;
+            return world.getBlockAt(baseX + shape[i], baseY + shape[i + 1], baseZ + shape[i + 2]);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.openpillars.game;
+
+import org.bukkit.entity.Player;
+
+/**
+ * Live {@link Player} references of the players in a game, indexed by slot id.
+ * Hot loops walk the backing array directly instead of looking every player up
+ * by UUID on each pass.
+ *
+ * Entries are set on join, cleared on leave or quit, swapped for the new
+ * Player object on reconnect, and the whole roster is emptied on reset, so no
+ * Player outlives the game it played in. Main thread only.
+ */
+public class PlayerRoster {
+
+    private final Player[] players;
+
+    /**
+     * @param capacity The number of slots, matching the game's {@link PlayerSlots}
+     */
+    public PlayerRoster(int capacity) {
+        this.players = new Player[Math.max(1, capacity)];
+    }
+
+    /**
+     * Puts a player into a slot
+     * @param slot The slot id
+     * @param player The player
+     */
+    public void set(int slot, Player player) {
+        if (slot >= 0 && slot < players.length) {
+            players[slot] = player;
+        }
+    }
+
+    /**
+     * Clears a slot
+     * @param slot The slot id
+     */
+    public void remove(int slot) {
+        if (slot >= 0 && slot < players.length) {
+            players[slot] = null;
+        }
+    }
+
+    /**
+     * Replaces the entry of a player that reconnected with their new Player object
+     * @param player The player that joined the server
+     * @return true if the player was on the roster
+     */
+    public boolean rebind(Player player) {
+        for (int slot = 0; slot < players.length; slot++) {
+            Player current = players[slot];
+            if (current != null && current.getUniqueId().equals(player.getUniqueId())) {
+                players[slot] = player;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Empties the roster
+     */
+    public void clear() {
+        for (int slot = 0; slot < players.length; slot++) {
+            players[slot] = null;
+        }
+    }
+
+    /**
+     * Gets the player in a slot
+     * @param slot The slot id
+     * @return The player, or null if the slot is free
+     */
+    public Player get(int slot) {
+        return slot >= 0 && slot < players.length ? players[slot] : null;
+    }
+
+    /**
+     * Gets the backing array, indexed by slot id with null for free slots.
+     * The array is live and must not be modified.
+     * @return The roster array
+     */
+    public Player[] array() {
+        return players;
+    }
+
+    public int capacity() {
+        return players.length;
+    }
+}
@@ -0,0 +1,150 @@
+package com.openpillars.game;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free admission of players into a game of fixed capacity.
+ * A join first reserves a place on an atomic counter, so concurrent joins can
+ * never overfill the game, then claims the lowest free bit of an occupancy
+ * bitmap. The bit index is the player's slot id: a small int, stable for as
+ * long as the player stays in the game, used to index per-player arrays.
+ */
+public class PlayerSlots {
+
+    private final int capacity;
+    private final AtomicInteger count;
+    private final AtomicLongArray occupied;
+    private final AtomicReferenceArray<GamePlayer> occupants;
+
+    /**
+     * @param capacity The maximum number of players
+     */
+    public PlayerSlots(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.count = new AtomicInteger();
+        this.occupied = new AtomicLongArray((this.capacity + 63) >>> 6);
+        this.occupants = new AtomicReferenceArray<>(this.capacity);
+    }
+
+    /**
+     * Reserves a slot
+     * @return The slot id (0 to capacity - 1), or -1 if the game is full
+     */
+    public int acquire() {
+        int current;
+        do {
+            current = count.get();
+            if (current >= capacity) return -1;
+        } while (!count.compareAndSet(current, current + 1));
+
+        // A free bit is guaranteed to exist now, only racing joins can delay us
+        while (true) {
+            for (int word = 0; word < occupied.length(); word++) {
+                long usable = wordMask(word);
+                long bits = occupied.get(word);
+                long free = ~bits & usable;
+                while (free != 0) {
+                    int bit = Long.numberOfTrailingZeros(free);
+                    if (occupied.compareAndSet(word, bits, bits | (1L << bit))) {
+                        return (word << 6) + bit;
+                    }
+                    bits = occupied.get(word);
+                    free = ~bits & usable;
+                }
+            }
+        }
+    }
+
+    /**
+     * Reserves a slot while the game still takes players (lobby or countdown).
+     * The state is checked again once the slot is taken, so a join racing the
+     * game start is either turned down or already counted when the start
+     * reads the slots: nobody is admitted after the game went active.
+     * @param state The game's state
+     * @return The slot id, or -1 if the game is full or no longer takes players
+     */
+    public int acquire(GameStateMachine state) {
+        if (!admits(state.get())) return -1;
+
+        int slot = acquire();
+        if (slot >= 0 && !admits(state.get())) {
+            release(slot);
+            return -1;
+        }
+        return slot;
+    }
+
+    private static boolean admits(GameState state) {
+        return state == GameState.LOBBY || state == GameState.STARTING;
+    }
+
+    /**
+     * Attaches a player to an acquired slot
+     * @param slot The slot id
+     * @param gamePlayer The player in the slot
+     */
+    public void occupy(int slot, GamePlayer gamePlayer) {
+        occupants.set(slot, gamePlayer);
+    }
+
+    /**
+     * Releases a slot. Releasing a slot that is already free does nothing.
+     * @param slot The slot id
+     * @return true if the slot was released by this call
+     */
+    public boolean release(int slot) {
+        if (slot < 0 || slot >= capacity) return false;
+
+        int word = slot >>> 6;
+        long bit = 1L << (slot & 63);
+        occupants.set(slot, null);
+        while (true) {
+            long bits = occupied.get(word);
+            if ((bits & bit) == 0) return false;
+            if (occupied.compareAndSet(word, bits, bits & ~bit)) {
+                count.decrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases every slot
+     */
+    public void releaseAll() {
+        for (int slot = 0; slot < capacity; slot++) {
+            release(slot);
+        }
+    }
+
+    /**
+     * Gets the player in a slot
+     * @param slot The slot id
+     * @return The player, or null if the slot is free
+     */
+    public GamePlayer get(int slot) {
+        return occupants.get(slot);
+    }
+
+    /**
+     * Gets the number of occupied slots
+     * @return The player count
+     */
+    public int size() {
+        return count.get();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the bits of a bitmap word that map to real slots
+     */
+    private long wordMask(int word) {
+        int bits = Math.min(64, capacity - (word << 6));
+        return bits == 64 ? -1L : (1L << bits) - 1;
+    }
+}
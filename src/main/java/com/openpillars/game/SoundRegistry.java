@@ -0,0 +1,128 @@
+package com.openpillars.game;
+
+import com.cryptomorin.xseries.XSound;
+import com.openpillars.OpenPillars;
+import org.bukkit.Sound;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The sounds configured under {@code sounds} in config.yml, resolved once at load.
+ * Names are matched through XSound, so 1.8 and 1.9+ names work on every version.
+ * Names that contain a '.' are kept as resource pack sounds. Anything else
+ * is reported once when loading and then plays nothing.
+ */
+public class SoundRegistry {
+
+    private final OpenPillars plugin;
+    private Map<String, ResolvedSound> sounds;
+
+    public SoundRegistry(OpenPillars plugin) {
+        this.plugin = plugin;
+        this.sounds = new HashMap<>();
+    }
+
+    /**
+     * Resolves every sound from config, replacing the previous ones
+     */
+    public void load() {
+        Map<String, ResolvedSound> loaded = new HashMap<>();
+        ConfigurationSection section = plugin.getConfig().getConfigurationSection("sounds");
+
+        if (section != null && section.getBoolean("enabled", true)) {
+            for (String key : section.getKeys(false)) {
+                if (key.equals("enabled")) continue;
+
+                String name = section.getString(key);
+                if (name == null || name.isEmpty()) continue;
+
+                ResolvedSound sound = resolve(name);
+                if (sound == null) {
+                    plugin.getLogger().warning("Unknown sound '" + name + "' for sounds." + key + ", it will not play");
+                    continue;
+                }
+                loaded.put(key, sound);
+            }
+        }
+
+        this.sounds = loaded;
+    }
+
+    /**
+     * Plays a sound to a player
+     * @param player The player
+     * @param key The sound key under sounds in config
+     */
+    public void play(Player player, String key) {
+        ResolvedSound sound = sounds.get(key);
+        if (sound != null && player != null) {
+            sound.play(player);
+        }
+    }
+
+    /**
+     * Plays a sound to every player of an audience, resolving the key once
+     * @param audience The players, null entries are skipped
+     * @param key The sound key under sounds in config
+     */
+    public void playToAudience(Player[] audience, String key) {
+        ResolvedSound sound = sounds.get(key);
+        if (sound == null) return;
+
+        for (Player player : audience) {
+            if (player != null) {
+                sound.play(player);
+            }
+        }
+    }
+
+    /**
+     * Checks if a sound key resolved to something playable
+     * @param key The sound key
+     * @return true if the sound will play
+     */
+    public boolean isResolved(String key) {
+        return sounds.containsKey(key);
+    }
+
+    private static ResolvedSound resolve(String name) {
+        Optional<XSound> xSound = XSound.matchXSound(name);
+        if (xSound.isPresent()) {
+            Sound sound = xSound.get().parseSound();
+            if (sound != null) {
+                return new ResolvedSound(sound, null);
+            }
+        }
+
+        // Namespaced resource pack sound, e.g. "minecraft:custom.win" or "custom.win"
+        if (name.indexOf('.') >= 0) {
+            return new ResolvedSound(null, name);
+        }
+        return null;
+    }
+
+    /**
+     * A sound resolved for this server version: a Bukkit sound or a resource pack name
+     */
+    private static final class ResolvedSound {
+        private final Sound sound;
+        private final String name;
+
+        private ResolvedSound(Sound sound, String name) {
+            this.sound = sound;
+            this.name = name;
+        }
+
+        private void play(Player player) {
+            if (sound != null) {
+                player.playSound(player.getLocation(), sound, 1.0f, 1.0f);
+            } else {
+                player.playSound(player.getLocation(), name, 1.0f, 1.0f);
+            }
+        }
+    }
+}
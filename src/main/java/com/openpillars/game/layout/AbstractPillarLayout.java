@@ -0,0 +1,57 @@
+package com.openpillars.game.layout;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Base class caching validated plans by (player count, spacing).
+ * If a computed plan would let two platforms overlap, the spacing is
+ * widened until it no longer does.
+ */
+public abstract class AbstractPillarLayout implements PillarLayout {
+
+    private static final int MIN_SPACING = LayoutPlan.PLATFORM_RADIUS * 2 + 1;
+
+    private final String name;
+    private final Map<Long, LayoutPlan> cache;
+
+    protected AbstractPillarLayout(String name) {
+        this.name = name;
+        this.cache = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public LayoutPlan plan(int playerCount, int spacing) {
+        int count = Math.max(0, playerCount);
+        int safeSpacing = Math.max(MIN_SPACING, spacing);
+        long key = ((long) count << 32) | safeSpacing;
+        return cache.computeIfAbsent(key, k -> createPlan(count, safeSpacing));
+    }
+
+    private LayoutPlan createPlan(int count, int spacing) {
+        for (int attempt = spacing; attempt < spacing + 64; attempt++) {
+            int[] xs = new int[count];
+            int[] zs = new int[count];
+            compute(count, attempt, xs, zs);
+
+            LayoutPlan plan = new LayoutPlan(xs, zs);
+            if (plan.isValid()) return plan;
+        }
+        throw new IllegalStateException("Layout '" + name + "' cannot fit " + count
+                + " pillars at spacing " + spacing);
+    }
+
+    /**
+     * Fills in the pillar offsets from the arena center
+     * @param count The number of pillars
+     * @param spacing The distance between pillars (at least 3)
+     * @param xs The X offsets to fill
+     * @param zs The Z offsets to fill
+     */
+    protected abstract void compute(int count, int spacing, int[] xs, int[] zs);
+}
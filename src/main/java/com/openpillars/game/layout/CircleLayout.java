@@ -0,0 +1,24 @@
+package com.openpillars.game.layout;
+
+/**
+ * Pillars evenly spread on a circle, roughly spacing blocks apart
+ * along its circumference. The radius never drops below the spacing.
+ */
+public class CircleLayout extends AbstractPillarLayout {
+
+    public CircleLayout() {
+        super("circle");
+    }
+
+    @Override
+    protected void compute(int count, int spacing, int[] xs, int[] zs) {
+        double angleStep = (2 * Math.PI) / Math.max(1, count);
+        double radius = Math.max(spacing, (count * spacing) / (2 * Math.PI));
+
+        for (int i = 0; i < count; i++) {
+            double angle = angleStep * i;
+            xs[i] = (int) Math.round(radius * Math.cos(angle));
+            zs[i] = (int) Math.round(radius * Math.sin(angle));
+        }
+    }
+}
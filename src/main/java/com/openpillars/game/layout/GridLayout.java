@@ -0,0 +1,25 @@
+package com.openpillars.game.layout;
+
+/**
+ * Pillars on a square grid centered on the arena, filled row by row.
+ */
+public class GridLayout extends AbstractPillarLayout {
+
+    public GridLayout() {
+        super("grid");
+    }
+
+    @Override
+    protected void compute(int count, int spacing, int[] xs, int[] zs) {
+        int columns = (int) Math.ceil(Math.sqrt(count));
+        int rows = columns == 0 ? 0 : (count + columns - 1) / columns;
+
+        // Offsets are doubled first so even sizes stay centered without fractions
+        for (int i = 0; i < count; i++) {
+            int column = i % columns;
+            int row = i / columns;
+            xs[i] = (2 * column - (columns - 1)) * spacing / 2;
+            zs[i] = (2 * row - (rows - 1)) * spacing / 2;
+        }
+    }
+}
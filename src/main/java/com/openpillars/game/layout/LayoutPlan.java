@@ -0,0 +1,106 @@
+package com.openpillars.game.layout;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Precomputed pillar positions as block offsets from the arena center,
+ * together with the bounding box they cover (platforms and the center included).
+ * Plans are immutable and shared between games.
+ */
+public final class LayoutPlan {
+
+    /** Half the width of the starting platform, in blocks */
+    public static final int PLATFORM_RADIUS = 1;
+
+    private final int[] offsetX;
+    private final int[] offsetZ;
+    private final int minX;
+    private final int minZ;
+    private final int maxX;
+    private final int maxZ;
+
+    LayoutPlan(int[] offsetX, int[] offsetZ) {
+        this.offsetX = offsetX;
+        this.offsetZ = offsetZ;
+
+        int lowX = 0, lowZ = 0, highX = 0, highZ = 0;
+        for (int i = 0; i < offsetX.length; i++) {
+            lowX = Math.min(lowX, offsetX[i]);
+            highX = Math.max(highX, offsetX[i]);
+            lowZ = Math.min(lowZ, offsetZ[i]);
+            highZ = Math.max(highZ, offsetZ[i]);
+        }
+        this.minX = lowX - PLATFORM_RADIUS;
+        this.minZ = lowZ - PLATFORM_RADIUS;
+        this.maxX = highX + PLATFORM_RADIUS;
+        this.maxZ = highZ + PLATFORM_RADIUS;
+    }
+
+    /**
+     * Checks that no two starting platforms share a block
+     * @return true if every pillar has its own footprint
+     */
+    boolean isValid() {
+        int minDistance = PLATFORM_RADIUS * 2 + 1;
+        for (int i = 0; i < offsetX.length; i++) {
+            for (int j = i + 1; j < offsetX.length; j++) {
+                int distance = Math.max(Math.abs(offsetX[i] - offsetX[j]), Math.abs(offsetZ[i] - offsetZ[j]));
+                if (distance < minDistance) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates the pillar base locations around a center
+     * @param center The arena center
+     * @param y The Y level of the pillar bases
+     * @return The base location of every pillar, in plan order
+     */
+    public List<Location> toBases(Location center, int y) {
+        World world = center.getWorld();
+        int cx = center.getBlockX();
+        int cz = center.getBlockZ();
+        List<Location> bases = new ArrayList<>(offsetX.length);
+        for (int i = 0; i < offsetX.length; i++) {
+            bases.add(new Location(world, cx + offsetX[i], y, cz + offsetZ[i]));
+        }
+        return bases;
+    }
+
+    public int size() {
+        return offsetX.length;
+    }
+
+    public int getOffsetX(int index) {
+        return offsetX[index];
+    }
+
+    public int getOffsetZ(int index) {
+        return offsetZ[index];
+    }
+
+    /** @return The lowest X offset covered by any platform */
+    public int getMinX() {
+        return minX;
+    }
+
+    /** @return The lowest Z offset covered by any platform */
+    public int getMinZ() {
+        return minZ;
+    }
+
+    /** @return The highest X offset covered by any platform */
+    public int getMaxX() {
+        return maxX;
+    }
+
+    /** @return The highest Z offset covered by any platform */
+    public int getMaxZ() {
+        return maxZ;
+    }
+}
@@ -0,0 +1,23 @@
+package com.openpillars.game.layout;
+
+/**
+ * Strategy for arranging pillars around the arena center.
+ * Implementations precompute and cache a {@link LayoutPlan} per
+ * (player count, spacing) pair, so placing pillars never does any math.
+ */
+public interface PillarLayout {
+
+    /**
+     * Gets the config name of this layout
+     * @return The layout name
+     */
+    String getName();
+
+    /**
+     * Gets the (cached) plan for a number of pillars
+     * @param playerCount The number of pillars
+     * @param spacing The desired distance between pillars
+     * @return The validated layout plan
+     */
+    LayoutPlan plan(int playerCount, int spacing);
+}
@@ -0,0 +1,46 @@
+package com.openpillars.game.layout;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Registry of the built-in pillar layouts.
+ * Layout instances (and their plan caches) are shared for the server lifetime.
+ */
+public final class PillarLayouts {
+
+    public static final PillarLayout CIRCLE = new CircleLayout();
+    public static final PillarLayout GRID = new GridLayout();
+    public static final PillarLayout SPIRAL = new SpiralLayout();
+
+    private static final Map<String, PillarLayout> LAYOUTS;
+
+    static {
+        Map<String, PillarLayout> layouts = new LinkedHashMap<>();
+        layouts.put(CIRCLE.getName(), CIRCLE);
+        layouts.put(GRID.getName(), GRID);
+        layouts.put(SPIRAL.getName(), SPIRAL);
+        LAYOUTS = Collections.unmodifiableMap(layouts);
+    }
+
+    private PillarLayouts() {
+    }
+
+    /**
+     * Gets a layout by its config name
+     * @param name The layout name (case-insensitive)
+     * @return The layout, or null if unknown
+     */
+    public static PillarLayout get(String name) {
+        return name == null ? null : LAYOUTS.get(name.toLowerCase());
+    }
+
+    /**
+     * Gets all registered layouts
+     * @return Layouts by name
+     */
+    public static Map<String, PillarLayout> getAll() {
+        return LAYOUTS;
+    }
+}
@@ -0,0 +1,40 @@
+package com.openpillars.game.layout;
+
+/**
+ * Pillars on a square spiral walking outward from the center.
+ * Every plan is a prefix of the next larger one, so adding a player only
+ * adds a pillar and never moves the existing ones.
+ */
+public class SpiralLayout extends AbstractPillarLayout {
+
+    public SpiralLayout() {
+        super("spiral");
+    }
+
+    @Override
+    protected void compute(int count, int spacing, int[] xs, int[] zs) {
+        int x = 0, z = 0;
+        int dx = 1, dz = 0;
+        int segmentLength = 1;
+        int segmentProgress = 0;
+        int segmentsDone = 0;
+
+        for (int i = 0; i < count; i++) {
+            xs[i] = x * spacing;
+            zs[i] = z * spacing;
+
+            x += dx;
+            z += dz;
+            if (++segmentProgress == segmentLength) {
+                segmentProgress = 0;
+                // Turn left; the segment grows after every second turn
+                int turn = dx;
+                dx = -dz;
+                dz = turn;
+                if (++segmentsDone % 2 == 0) {
+                    segmentLength++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,413 @@
+package com.openpillars.history;
+
+import com.openpillars.OpenPillars;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Archive of every finished game, kept in columnar segment files under history/.
+ *
+ * A segment holds up to history.segment-size games. Each column is stored
+ * deflated on its own behind its id and lengths, so a query only inflates the
+ * columns it needs and skips over the rest. The newest segment is rewritten
+ * through a temp file on every game and sealed once full; each server start
+ * begins a new segment.
+ *
+ * All file access happens on a dedicated thread. Queries run there too and
+ * therefore always see every game archived before them.
+ */
+public class MatchHistory {
+
+    private static final int MAGIC = 0x4F504D48; // "OPMH"
+    private static final short VERSION = 1;
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".opm";
+
+    /**
+     * The columns of a segment. Per-game columns have one value per game,
+     * the offset columns point each game at its range of the per-player
+     * and per-loot-tier columns.
+     */
+    enum Column {
+        ENDED_AT,
+        DURATION,
+        PLAYER_COUNT,
+        BLOCKS_GENERATED,
+        BLOCKS_BROKEN,
+        KILLS,
+        PLAYER_OFFSETS,
+        PLAYER_UUID_MOST,
+        PLAYER_UUID_LEAST,
+        PLAYER_PLACEMENT,
+        PLAYER_KILLS,
+        LOOT_OFFSETS,
+        LOOT_TIER,
+        LOOT_COUNT,
+        LOOT_DICTIONARY
+    }
+
+    private static final Column[] COLUMNS = Column.values();
+
+    private final OpenPillars plugin;
+    private final File folder;
+    private final int segmentSize;
+    private final List<MatchRecord> open;
+
+    private ExecutorService executor;
+    private int segmentIndex;
+
+    public MatchHistory(OpenPillars plugin) {
+        this.plugin = plugin;
+        this.folder = new File(plugin.getDataFolder(), "history");
+        this.segmentSize = Math.max(1, plugin.getConfig().getInt("history.segment-size", 256));
+        this.open = new ArrayList<>();
+    }
+
+    /**
+     * Starts the archive thread and picks the segment new games go to
+     */
+    public void start() {
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "OpenPillars History I/O");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.execute(() -> {
+            if (!folder.isDirectory() && !folder.mkdirs()) {
+                plugin.getLogger().warning("Could not create " + folder + ", match history will not be saved");
+            }
+            int last = 0;
+            for (File file : segments()) {
+                last = Math.max(last, indexOf(file));
+            }
+            segmentIndex = last + 1;
+        });
+    }
+
+    /**
+     * Queues a finished game to be archived
+     * @param record The game
+     */
+    public void append(MatchRecord record) {
+        if (executor == null) return;
+        executor.execute(() -> {
+            open.add(record);
+            try {
+                writeSegment(new File(folder, segmentName(segmentIndex)), open);
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Could not archive match history", e);
+            }
+            if (open.size() >= segmentSize) {
+                open.clear();
+                segmentIndex++;
+            }
+        });
+    }
+
+    /**
+     * Gets the game length, in milliseconds, of every archived game grouped by player count
+     * @return A future completed on the archive thread with stats per player count
+     */
+    public CompletableFuture<Map<Integer, LongSummaryStatistics>> averageDurationByPlayerCount() {
+        return query(() -> {
+            Map<Integer, LongSummaryStatistics> result = new TreeMap<>();
+            for (File file : segments()) {
+                Segment segment = readSegment(file, Column.PLAYER_COUNT, Column.DURATION);
+                DataInputStream counts = segment.reader(Column.PLAYER_COUNT);
+                DataInputStream durations = segment.reader(Column.DURATION);
+                for (int row = 0; row < segment.rows; row++) {
+                    result.computeIfAbsent(counts.readInt(), count -> new LongSummaryStatistics())
+                            .accept(durations.readInt());
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Counts the items every loot tier dropped over all archived games
+     * @return A future completed on the archive thread with item counts per loot table name
+     */
+    public CompletableFuture<Map<String, Long>> lootTierFrequency() {
+        return query(() -> {
+            Map<String, Long> result = new TreeMap<>();
+            for (File file : segments()) {
+                Segment segment = readSegment(file, Column.LOOT_DICTIONARY, Column.LOOT_TIER, Column.LOOT_COUNT);
+                DataInputStream dictionaryColumn = segment.reader(Column.LOOT_DICTIONARY);
+                String[] dictionary = new String[dictionaryColumn.readInt()];
+                for (int i = 0; i < dictionary.length; i++) {
+                    dictionary[i] = dictionaryColumn.readUTF();
+                }
+
+                int tiers = segment.columns.get(Column.LOOT_TIER).length / Integer.BYTES;
+                DataInputStream tierColumn = segment.reader(Column.LOOT_TIER);
+                DataInputStream countColumn = segment.reader(Column.LOOT_COUNT);
+                for (int i = 0; i < tiers; i++) {
+                    result.merge(dictionary[tierColumn.readInt()], (long) countColumn.readInt(), Long::sum);
+                }
+            }
+            return result;
+        });
+    }
+
+    private <T> CompletableFuture<T> query(Query<T> query) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (executor == null) {
+            future.completeExceptionally(new IllegalStateException("Match history is not running"));
+            return future;
+        }
+        executor.execute(() -> {
+            try {
+                future.complete(query.run());
+            } catch (IOException | RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Finishes archiving queued games. Blocks, only used on shutdown.
+     */
+    public void stop() {
+        if (executor == null) return;
+
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("Timed out archiving match history, the latest games may be lost");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+    }
+
+    private List<File> segments() {
+        List<File> result = new ArrayList<>();
+        File[] files = folder.listFiles((dir, name) -> name.startsWith(PREFIX) && name.endsWith(SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                if (indexOf(file) > 0) result.add(file);
+            }
+        }
+        return result;
+    }
+
+    private static int indexOf(File segment) {
+        String name = segment.getName();
+        try {
+            return Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String segmentName(int index) {
+        return String.format("%s%06d%s", PREFIX, index, SUFFIX);
+    }
+
+    private static void writeSegment(File file, List<MatchRecord> records) throws IOException {
+        Map<Column, DataOutputStream> columns = new EnumMap<>(Column.class);
+        Map<Column, ByteArrayOutputStream> buffers = new EnumMap<>(Column.class);
+        for (Column column : COLUMNS) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            buffers.put(column, buffer);
+            columns.put(column, new DataOutputStream(buffer));
+        }
+
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> tiers = new ArrayList<>();
+        int playerOffset = 0;
+        int lootOffset = 0;
+        for (MatchRecord record : records) {
+            columns.get(Column.ENDED_AT).writeLong(record.getEndedAt());
+            columns.get(Column.DURATION).writeInt(record.getDurationMillis());
+            columns.get(Column.PLAYER_COUNT).writeInt(record.getPlayerCount());
+            columns.get(Column.BLOCKS_GENERATED).writeInt(record.getBlocksGenerated());
+            columns.get(Column.BLOCKS_BROKEN).writeInt(record.getBlocksBroken());
+            columns.get(Column.KILLS).writeInt(record.getTotalKills());
+
+            columns.get(Column.PLAYER_OFFSETS).writeInt(playerOffset);
+            for (int i = 0; i < record.getPlayerCount(); i++) {
+                columns.get(Column.PLAYER_UUID_MOST).writeLong(record.getPlayer(i).getMostSignificantBits());
+                columns.get(Column.PLAYER_UUID_LEAST).writeLong(record.getPlayer(i).getLeastSignificantBits());
+                columns.get(Column.PLAYER_PLACEMENT).writeInt(record.getPlacement(i));
+                columns.get(Column.PLAYER_KILLS).writeInt(record.getKills(i));
+            }
+            playerOffset += record.getPlayerCount();
+
+            columns.get(Column.LOOT_OFFSETS).writeInt(lootOffset);
+            for (int i = 0; i < record.getLootTierCount(); i++) {
+                String tier = record.getLootTier(i);
+                Integer id = dictionary.get(tier);
+                if (id == null) {
+                    id = tiers.size();
+                    dictionary.put(tier, id);
+                    tiers.add(tier);
+                }
+                columns.get(Column.LOOT_TIER).writeInt(id);
+                columns.get(Column.LOOT_COUNT).writeInt(record.getLootCount(i));
+            }
+            lootOffset += record.getLootTierCount();
+        }
+
+        DataOutputStream dictionaryColumn = columns.get(Column.LOOT_DICTIONARY);
+        dictionaryColumn.writeInt(tiers.size());
+        for (String tier : tiers) {
+            dictionaryColumn.writeUTF(tier);
+        }
+
+        File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(temp))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeInt(records.size());
+            out.writeShort(COLUMNS.length);
+            for (Column column : COLUMNS) {
+                byte[] raw = buffers.get(column).toByteArray();
+                byte[] compressed = deflate(deflater, raw);
+                out.writeByte(column.ordinal());
+                out.writeInt(raw.length);
+                out.writeInt(compressed.length);
+                out.write(compressed);
+            }
+        } finally {
+            deflater.end();
+        }
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Reads the given columns of a segment, skipping over all others
+     * @param file The segment file
+     * @param wanted The columns to inflate
+     * @return The segment with only the wanted columns
+     */
+    private static Segment readSegment(File file, Column... wanted) throws IOException {
+        boolean[] wants = new boolean[COLUMNS.length];
+        for (Column column : wanted) {
+            wants[column.ordinal()] = true;
+        }
+
+        Inflater inflater = new Inflater();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+                throw new IOException("Not a match history segment: " + file.getName());
+            }
+            Segment segment = new Segment(in.readInt());
+            int count = in.readShort();
+            for (int i = 0; i < count; i++) {
+                int id = in.readUnsignedByte();
+                int rawLength = in.readInt();
+                int compressedLength = in.readInt();
+                if (id >= COLUMNS.length || !wants[id]) {
+                    skip(in, compressedLength);
+                    continue;
+                }
+                byte[] compressed = new byte[compressedLength];
+                in.readFully(compressed);
+                segment.columns.put(COLUMNS[id], inflate(inflater, compressed, rawLength));
+            }
+            return segment;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void skip(DataInputStream in, int length) throws IOException {
+        int remaining = length;
+        while (remaining > 0) {
+            int skipped = in.skipBytes(remaining);
+            if (skipped <= 0) throw new EOFException();
+            remaining -= skipped;
+        }
+    }
+
+    private static byte[] deflate(Deflater deflater, byte[] raw) {
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+        byte[] buffer = new byte[4096];
+        while (!deflater.finished()) {
+            out.write(buffer, 0, deflater.deflate(buffer));
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] inflate(Inflater inflater, byte[] compressed, int rawLength) throws IOException {
+        inflater.reset();
+        inflater.setInput(compressed);
+        byte[] raw = new byte[rawLength];
+        try {
+            int read = 0;
+            while (read < rawLength) {
+                int n = inflater.inflate(raw, read, rawLength - read);
+                if (n == 0 && (inflater.finished() || inflater.needsInput())) break;
+                read += n;
+            }
+            if (read != rawLength) throw new IOException("Truncated match history column");
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt match history column", e);
+        }
+        return raw;
+    }
+
+    private static DataInputStream reader(byte[] column) {
+        return new DataInputStream(new ByteArrayInputStream(column));
+    }
+
+    /**
+     * The columns read from one segment file
+     */
+    private static final class Segment {
+        private final int rows;
+        private final Map<Column, byte[]> columns;
+
+        private Segment(int rows) {
+            this.rows = rows;
+            this.columns = new EnumMap<>(Column.class);
+        }
+
+        private DataInputStream reader(Column column) {
+            return MatchHistory.reader(columns.get(column));
+        }
+    }
+
+    private interface Query<T> {
+        T run() throws IOException;
+    }
+}
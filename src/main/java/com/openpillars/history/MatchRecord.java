@@ -0,0 +1,99 @@
+package com.openpillars.history;
+
+import java.util.UUID;
+
+/**
+ * Everything kept about one finished game
+ */
+public final class MatchRecord {
+
+    private final long endedAt;
+    private final int durationMillis;
+    private final int blocksGenerated;
+    private final int blocksBroken;
+    private final UUID[] players;
+    private final int[] placements;
+    private final int[] kills;
+    private final String[] lootTiers;
+    private final int[] lootCounts;
+
+    /**
+     * @param endedAt When the game ended, in epoch millis
+     * @param durationMillis How long the game ran
+     * @param blocksGenerated Pillar blocks generated during the game
+     * @param blocksBroken Pillar blocks broken during the game
+     * @param players Every player who played
+     * @param placements Final placement of each player, 1 for the winner
+     * @param kills Kills of each player
+     * @param lootTiers Loot tables that dropped items
+     * @param lootCounts Items dropped from each loot table
+     */
+    public MatchRecord(long endedAt, int durationMillis, int blocksGenerated, int blocksBroken,
+                       UUID[] players, int[] placements, int[] kills, String[] lootTiers, int[] lootCounts) {
+        this.endedAt = endedAt;
+        this.durationMillis = durationMillis;
+        this.blocksGenerated = blocksGenerated;
+        this.blocksBroken = blocksBroken;
+        this.players = players;
+        this.placements = placements;
+        this.kills = kills;
+        this.lootTiers = lootTiers;
+        this.lootCounts = lootCounts;
+    }
+
+    public long getEndedAt() {
+        return endedAt;
+    }
+
+    public int getDurationMillis() {
+        return durationMillis;
+    }
+
+    public int getPlayerCount() {
+        return players.length;
+    }
+
+    public int getBlocksGenerated() {
+        return blocksGenerated;
+    }
+
+    public int getBlocksBroken() {
+        return blocksBroken;
+    }
+
+    public UUID getPlayer(int index) {
+        return players[index];
+    }
+
+    public int getPlacement(int index) {
+        return placements[index];
+    }
+
+    public int getKills(int index) {
+        return kills[index];
+    }
+
+    /**
+     * Sums the kills of every player
+     * @return The total kills
+     */
+    public int getTotalKills() {
+        int total = 0;
+        for (int value : kills) {
+            total += value;
+        }
+        return total;
+    }
+
+    public int getLootTierCount() {
+        return lootTiers.length;
+    }
+
+    public String getLootTier(int index) {
+        return lootTiers[index];
+    }
+
+    public int getLootCount(int index) {
+        return lootCounts[index];
+    }
+}
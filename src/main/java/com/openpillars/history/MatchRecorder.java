@@ -0,0 +1,117 @@
+package com.openpillars.history;
+
+import com.openpillars.game.ArenaStats;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Collects what happens during one game of an arena, for the match history.
+ * Main thread only.
+ */
+public class MatchRecorder {
+
+    private long startedAt;
+    private int blocksGenerated;
+    private int[] eliminated;
+    private int eliminatedCount;
+    private final Map<String, int[]> lootDrops;
+
+    public MatchRecorder() {
+        this.eliminated = new int[16];
+        this.lootDrops = new LinkedHashMap<>();
+    }
+
+    /**
+     * Starts recording a new game
+     */
+    public void begin() {
+        startedAt = System.currentTimeMillis();
+        blocksGenerated = 0;
+        eliminatedCount = 0;
+        lootDrops.clear();
+    }
+
+    /**
+     * Counts a pillar block generated
+     */
+    public void blockGenerated() {
+        blocksGenerated++;
+    }
+
+    /**
+     * Counts a loot drop handed out from a loot table
+     * @param lootTable The loot table the item came from
+     */
+    public void lootDropped(String lootTable) {
+        int[] count = lootDrops.get(lootTable);
+        if (count == null) {
+            lootDrops.put(lootTable, new int[] {1});
+        } else {
+            count[0]++;
+        }
+    }
+
+    /**
+     * Notes that a player is out of the game, the first one out places last
+     * @param slot The player's slot id
+     */
+    public void eliminated(int slot) {
+        if (eliminatedCount == eliminated.length) {
+            eliminated = Arrays.copyOf(eliminated, eliminatedCount * 2);
+        }
+        eliminated[eliminatedCount++] = slot;
+    }
+
+    /**
+     * Builds the record of the game that just ended.
+     * Players still alive at the end share first place.
+     * @param results The final stats of the arena
+     * @return The match record
+     */
+    public MatchRecord finish(ArenaStats.Snapshot results) {
+        long endedAt = System.currentTimeMillis();
+
+        int[] placementBySlot = new int[results.size()];
+        int playerCount = 0;
+        for (int slot = 0; slot < results.size(); slot++) {
+            if (results.getPlayer(slot) != null) playerCount++;
+        }
+        for (int i = 0; i < eliminatedCount; i++) {
+            int slot = eliminated[i];
+            if (slot >= 0 && slot < placementBySlot.length && placementBySlot[slot] == 0) {
+                placementBySlot[slot] = playerCount - i;
+            }
+        }
+
+        UUID[] players = new UUID[playerCount];
+        int[] placements = new int[playerCount];
+        int[] kills = new int[playerCount];
+        int index = 0;
+        for (int slot = 0; slot < results.size(); slot++) {
+            UUID uuid = results.getPlayer(slot);
+            if (uuid == null) continue;
+
+            players[index] = uuid;
+            placements[index] = placementBySlot[slot] > 0 ? placementBySlot[slot] : 1;
+            kills[index] = results.get(ArenaStats.Stat.KILLS, slot);
+            index++;
+        }
+
+        String[] lootTiers = new String[lootDrops.size()];
+        int[] lootCounts = new int[lootDrops.size()];
+        int tier = 0;
+        for (Map.Entry<String, int[]> drop : lootDrops.entrySet()) {
+            lootTiers[tier] = drop.getKey();
+            lootCounts[tier] = drop.getValue()[0];
+            tier++;
+        }
+
+        int duration = (int) Math.min(Integer.MAX_VALUE, endedAt - startedAt);
+        int blocksBroken = (int) Math.min(Integer.MAX_VALUE, results.total(ArenaStats.Stat.BLOCKS_BROKEN));
+        return new MatchRecord(endedAt, duration, blocksGenerated, blocksBroken,
+                players, placements, kills, lootTiers, lootCounts);
+    }
+}
@@ -0,0 +1,137 @@
+package com.openpillars.jfr;
+
+/**
+ * Emits JDK Flight Recorder events for the game lifecycle and hot operations,
+ * so recordings show plugin activity next to GC and lock events.
+ *
+ * The events are compiled for Java 11 from src/main/java11 and only loaded once
+ * jdk.jfr is known to be present. On Java 8 every method is a no-op. Events are
+ * only committed while a recording with them enabled is running, e.g.
+ * -XX:StartFlightRecording or jcmd &lt;pid&gt; JFR.start.
+ *
+ * Durations are measured from a {@link #start()} taken by the caller, which
+ * keeps call sites free of event objects when nothing is recording.
+ */
+public final class GameEvents {
+
+    private static final Recorder RECORDER = load();
+
+    private GameEvents() {
+    }
+
+    private static Recorder load() {
+        ClassLoader loader = GameEvents.class.getClassLoader();
+        try {
+            Class.forName("jdk.jfr.Event", false, loader);
+            return (Recorder) Class.forName("com.openpillars.jfr.JfrRecorder", true, loader)
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // No JFR, or a Java 8 build of it that cannot load the Java 11 classes
+            return new NoopRecorder();
+        }
+    }
+
+    /**
+     * Checks if events are recorded on this JVM at all
+     * @return false on Java 8
+     */
+    public static boolean isSupported() {
+        return !(RECORDER instanceof NoopRecorder);
+    }
+
+    /**
+     * Takes the start of a timed operation
+     * @return The current time, or 0 if JFR is unsupported
+     */
+    public static long start() {
+        return RECORDER instanceof NoopRecorder ? 0L : System.nanoTime();
+    }
+
+    /**
+     * Records an arena moving to another game phase
+     * @param arena The arena id
+     * @param from The previous phase
+     * @param to The new phase
+     * @param phaseStart The {@link #start()} taken when the previous phase began
+     */
+    public static void phaseChanged(String arena, String from, String to, long phaseStart) {
+        RECORDER.phaseChanged(arena, from, to, phaseStart);
+    }
+
+    /**
+     * Records one pass of pillar generation
+     * @param arena The arena id
+     * @param start The {@link #start()} of the pass
+     * @param players The pillars grown
+     */
+    public static void generationBatch(String arena, long start, int players) {
+        RECORDER.generationBatch(arena, start, players);
+    }
+
+    /**
+     * Records a roll on a loot table
+     * @param arena The arena id
+     * @param start The {@link #start()} of the roll
+     * @param table The loot table
+     * @param dropped true if the roll produced an item
+     */
+    public static void lootRoll(String arena, long start, String table, boolean dropped) {
+        RECORDER.lootRoll(arena, start, table, dropped);
+    }
+
+    /**
+     * Records an arena reset, from clearing the pillars until the arena is back in the lobby
+     * @param arena The arena id
+     * @param start The {@link #start()} of the reset
+     */
+    public static void reset(String arena, long start) {
+        RECORDER.reset(arena, start);
+    }
+
+    /**
+     * Records the players of an arena being teleported together
+     * @param arena The arena id
+     * @param start The {@link #start()} of the teleports
+     * @param players The players teleported
+     * @param destination Where they went, "pillars" or "lobby"
+     */
+    public static void massTeleport(String arena, long start, int players, String destination) {
+        RECORDER.massTeleport(arena, start, players, destination);
+    }
+
+    /**
+     * Records a configuration reload
+     * @param arena The arena id, "server" for a reload of the whole plugin
+     * @param start The {@link #start()} of the reload
+     */
+    public static void configReload(String arena, long start) {
+        RECORDER.configReload(arena, start);
+    }
+
+    private static final class NoopRecorder implements Recorder {
+
+        @Override
+        public void phaseChanged(String arena, String from, String to, long phaseStart) {
+        }
+
+        @Override
+        public void generationBatch(String arena, long start, int players) {
+        }
+
+        @Override
+        public void lootRoll(String arena, long start, String table, boolean dropped) {
+        }
+
+        @Override
+        public void reset(String arena, long start) {
+        }
+
+        @Override
+        public void massTeleport(String arena, long start, int players, String destination) {
+        }
+
+        @Override
+        public void configReload(String arena, long start) {
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.openpillars.jfr;
+
+/**
+ * Target of {@link GameEvents}. Implemented with JDK Flight Recorder events
+ * in src/main/java11, and as a no-op where JFR is unavailable.
+ */
+interface Recorder {
+
+    void phaseChanged(String arena, String from, String to, long phaseStart);
+
+    void generationBatch(String arena, long start, int players);
+
+    void lootRoll(String arena, long start, String table, boolean dropped);
+
+    void reset(String arena, long start);
+
+    void massTeleport(String arena, long start, int players, String destination);
+
+    void configReload(String arena, long start);
+}
@@ -4,6 +4,7 @@ import com.openpillars.OpenPillars;
 import com.openpillars.game.GameManager;
 import com.openpillars.game.GamePlayer;
 import com.openpillars.game.GameState;
+import com.openpillars.perf.Subsystem;
 import com.openpillars.util.FileHandler;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
@@ -28,69 +29,75 @@ public class MovementController implements Listener {
     @EventHandler(priority = EventPriority.HIGH)
     public void onPlayerMove(PlayerMoveEvent event) {
         Player player = event.getPlayer();
-        GameManager gameManager = plugin.getGameManager();
-        
-        // Check if player is in our game
-        GamePlayer gamePlayer = gameManager.getGamePlayer(player);
-        if (gamePlayer == null) return;
-        
-        // Check if freeze is enabled in config
-        if (!plugin.getConfig().getBoolean("freeze.enabled", true)) return;
-        
-        // Only freeze during STARTING state
-        if (gameManager.getState() != GameState.STARTING) return;
         
-        // Check if player is frozen
-        if (!gamePlayer.isFrozen()) return;
-        
-        Location from = event.getFrom();
-        Location to = event.getTo();
-        
-        if (to == null) return;
-        
-        // Check if player actually moved (not just looked around)
-        boolean moved = from.getX() != to.getX() || 
-                       from.getY() != to.getY() || 
-                       from.getZ() != to.getZ();
-        
-        if (moved) {
-            boolean allowLook = plugin.getConfig().getBoolean("freeze.allow-look", true);
-            boolean strictMode = plugin.getConfig().getBoolean("freeze.strict-mode", true);
+        // Check if player is in a game
+        GameManager gameManager = plugin.getArenaRouter().arenaOf(player);
+        if (gameManager == null) return;
+        long start = plugin.getPerfMonitor().start();
+        try {
+            GamePlayer gamePlayer = gameManager.getGamePlayer(player);
+            if (gamePlayer == null) return;
+            
+            // Check if freeze is enabled in config
+            if (!plugin.getConfig().getBoolean("freeze.enabled", true)) return;
             
-            if (strictMode) {
-                // Teleport player back to spawn location
-                Location spawnLoc = gamePlayer.getSpawnLocation();
-                if (spawnLoc != null) {
-                    // Keep their head rotation but reset position
-                    Location correctedLoc = spawnLoc.clone();
-                    correctedLoc.setYaw(to.getYaw());
-                    correctedLoc.setPitch(to.getPitch());
-                    
-                    // Use teleport to prevent any movement
-                    new BukkitRunnable() {
-                        @Override
-                        public void run() {
-                            if (player.isOnline() && gamePlayer.isFrozen()) {
-                                player.teleport(correctedLoc);
+            // Only freeze during STARTING state
+            if (gameManager.getState() != GameState.STARTING) return;
+            
+            // Check if player is frozen
+            if (!gamePlayer.isFrozen()) return;
+            
+            Location from = event.getFrom();
+            Location to = event.getTo();
+            
+            if (to == null) return;
+            
+            // Check if player actually moved (not just looked around)
+            boolean moved = from.getX() != to.getX() || 
+                           from.getY() != to.getY() || 
+                           from.getZ() != to.getZ();
+            
+            if (moved) {
+                boolean allowLook = plugin.getConfig().getBoolean("freeze.allow-look", true);
+                boolean strictMode = plugin.getConfig().getBoolean("freeze.strict-mode", true);
+                
+                if (strictMode) {
+                    // Teleport player back to spawn location
+                    Location spawnLoc = gamePlayer.getSpawnLocation();
+                    if (spawnLoc != null) {
+                        // Keep their head rotation but reset position
+                        Location correctedLoc = spawnLoc.clone();
+                        correctedLoc.setYaw(to.getYaw());
+                        correctedLoc.setPitch(to.getPitch());
+                        
+                        // Use teleport to prevent any movement
+                        new BukkitRunnable() {
+                            @Override
+                            public void run() {
+                                if (player.isOnline() && gamePlayer.isFrozen()) {
+                                    player.teleport(correctedLoc);
+                                }
                             }
-                        }
-                    }.runTask(plugin);
-                }
-            } else {
-                // Just cancel the movement
-                if (allowLook) {
-                    // Allow looking but not moving
-                    Location cancelLoc = from.clone();
-                    cancelLoc.setYaw(to.getYaw());
-                    cancelLoc.setPitch(to.getPitch());
-                    event.setTo(cancelLoc);
+                        }.runTask(plugin);
+                    }
                 } else {
-                    event.setCancelled(true);
+                    // Just cancel the movement
+                    if (allowLook) {
+                        // Allow looking but not moving
+                        Location cancelLoc = from.clone();
+                        cancelLoc.setYaw(to.getYaw());
+                        cancelLoc.setPitch(to.getPitch());
+                        event.setTo(cancelLoc);
+                    } else {
+                        event.setCancelled(true);
+                    }
                 }
+                
+                // Send action bar message
+                sendFreezeActionBar(player);
             }
-            
-            // Send action bar message
-            sendFreezeActionBar(player);
+        } finally {
+            gameManager.getTimings().stop(Subsystem.LISTENERS, start);
         }
     }
 
@@ -115,9 +122,10 @@ public class MovementController implements Listener {
      * @return true if the player can move
      */
     public boolean canMove(Player player) {
-        GameManager gameManager = plugin.getGameManager();
-        GamePlayer gamePlayer = gameManager.getGamePlayer(player);
+        GameManager gameManager = plugin.getArenaRouter().arenaOf(player);
+        if (gameManager == null) return true;
         
+        GamePlayer gamePlayer = gameManager.getGamePlayer(player);
         if (gamePlayer == null) return true;
         
         if (gameManager.getState() == GameState.STARTING && gamePlayer.isFrozen()) {
@@ -1,17 +1,30 @@
 package com.openpillars.listeners;
 
 import com.openpillars.OpenPillars;
+import com.openpillars.game.ArenaRouter;
 import com.openpillars.game.GameManager;
+import com.openpillars.game.GamePlayer;
 import com.openpillars.game.GameState;
+import com.openpillars.perf.Subsystem;
+import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockFromToEvent;
 import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.player.PlayerBucketEmptyEvent;
+import org.bukkit.event.player.PlayerBucketFillEvent;
+
+import java.util.List;
 
 /**
  * Handles pillar block interactions (breaking and placing).
+ * Every other block change inside the arena is recorded in the
+ * block journal so it can be rolled back after the game.
  */
 public class PillarBlockListener implements Listener {
 
@@ -24,40 +37,118 @@ public class PillarBlockListener implements Listener {
     @EventHandler(priority = EventPriority.HIGH)
     public void onBlockBreak(BlockBreakEvent event) {
         Player player = event.getPlayer();
-        GameManager gameManager = plugin.getGameManager();
         
         // Only handle if player is in game and game is active
-        if (!gameManager.isPlaying(player)) return;
-        if (gameManager.getState() != GameState.ACTIVE) {
-            event.setCancelled(true);
-            return;
-        }
-        
-        // Check if it's a pillar block
-        if (gameManager.getPillarGenerator().isPillarBlock(event.getBlock().getLocation())) {
-            // Cancel the default event, we handle it ourselves
-            event.setCancelled(true);
+        GameManager gameManager = plugin.getArenaRouter().arenaOf(player);
+        if (gameManager == null) return;
+        long start = plugin.getPerfMonitor().start();
+        try {
+            if (gameManager.getState() != GameState.ACTIVE) {
+                event.setCancelled(true);
+                return;
+            }
             
-            // Handle through pillar generator (gives loot, fires events)
-            gameManager.getPillarGenerator().handleBlockBreak(player, event.getBlock());
+            // Check if it's a pillar block
+            if (gameManager.getPillarGenerator().isPillarBlock(event.getBlock().getLocation())) {
+                // Cancel the default event, we handle it ourselves
+                event.setCancelled(true);
+                
+                // Handle through pillar generator (gives loot, fires events)
+                gameManager.getPillarGenerator().handleBlockBreak(player, event.getBlock());
+                return;
+            }
+            
+            gameManager.getBlockJournal().record(event.getBlock());
+        } finally {
+            gameManager.getTimings().stop(Subsystem.LISTENERS, start);
         }
     }
 
     @EventHandler(priority = EventPriority.HIGH)
     public void onBlockPlace(BlockPlaceEvent event) {
         Player player = event.getPlayer();
-        GameManager gameManager = plugin.getGameManager();
         
         // Only handle if player is in game
-        if (!gameManager.isPlaying(player)) return;
+        GameManager gameManager = plugin.getArenaRouter().arenaOf(player);
+        if (gameManager == null) return;
         
-        // Prevent block placement during non-active states
-        if (gameManager.getState() != GameState.ACTIVE) {
-            event.setCancelled(true);
-            return;
+        long start = plugin.getPerfMonitor().start();
+        try {
+            // Prevent block placement during non-active states
+            if (gameManager.getState() != GameState.ACTIVE) {
+                event.setCancelled(true);
+                return;
+            }
+            
+            // Allow block placement during active game
+            // Could add restrictions here (e.g., only near their pillar)
+            gameManager.getBlockJournal().record(event.getBlockReplacedState());
+            
+            GamePlayer gamePlayer = gameManager.getGamePlayer(player);
+            if (gamePlayer != null) {
+                gamePlayer.addBlockPlaced();
+            }
+        } finally {
+            gameManager.getTimings().stop(Subsystem.LISTENERS, start);
         }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBucketEmpty(PlayerBucketEmptyEvent event) {
+        GameManager gameManager = plugin.getArenaRouter().arenaOf(event.getPlayer());
+        if (gameManager == null) return;
+        
+        gameManager.getBlockJournal().record(
+                event.getBlockClicked().getRelative(event.getBlockFace()));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBucketFill(PlayerBucketFillEvent event) {
+        GameManager gameManager = plugin.getArenaRouter().arenaOf(event.getPlayer());
+        if (gameManager == null) return;
         
-        // Allow block placement during active game
-        // Could add restrictions here (e.g., only near their pillar)
+        gameManager.getBlockJournal().record(event.getBlockClicked());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onFluidFlow(BlockFromToEvent event) {
+        Block target = event.getToBlock();
+        GameManager gameManager = plugin.getArenaRouter().arenaAt(target);
+        if (gameManager == null) return;
+        
+        gameManager.getBlockJournal().record(target);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        recordExplosion(event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        recordExplosion(event.blockList());
+    }
+
+    /**
+     * Journals every arena block destroyed by an explosion.
+     * Pillar blocks are skipped, they are cleared with their pillar.
+     * @param blocks The blocks the explosion will remove
+     */
+    private void recordExplosion(List<Block> blocks) {
+        if (blocks.isEmpty()) return;
+        
+        long start = plugin.getPerfMonitor().start();
+        try {
+            ArenaRouter router = plugin.getArenaRouter();
+            for (Block block : blocks) {
+                GameManager gameManager = router.arenaAt(block);
+                if (gameManager != null
+                        && !gameManager.getPillarGenerator().isPillarBlock(block.getLocation())) {
+                    gameManager.getBlockJournal().record(block);
+                }
+            }
+        } finally {
+            plugin.getPerfMonitor().getServerTimings().stop(Subsystem.LISTENERS, start);
+        }
     }
 }
@@ -1,11 +1,13 @@
 package com.openpillars.listeners;
 
 import com.openpillars.OpenPillars;
+import com.openpillars.bus.EventChannel;
+import com.openpillars.bus.PlayerEliminated;
 import com.openpillars.events.PlayerEliminatedEvent;
 import com.openpillars.game.GameManager;
 import com.openpillars.game.GamePlayer;
 import com.openpillars.game.GameState;
-import org.bukkit.Bukkit;
+import com.openpillars.perf.Subsystem;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -25,79 +27,79 @@ import org.bukkit.scheduler.BukkitRunnable;
 public class PlayerListener implements Listener {
 
     private final OpenPillars plugin;
+    private final EventChannel<PlayerEliminated> eliminated;
 
     public PlayerListener(OpenPillars plugin) {
         this.plugin = plugin;
+        this.eliminated = plugin.getEventBus().channel(PlayerEliminated.class);
     }
 
     @EventHandler(priority = EventPriority.HIGHEST)
     public void onPlayerDeath(PlayerDeathEvent event) {
         Player player = event.getEntity();
-        GameManager gameManager = plugin.getGameManager();
+        GameManager gameManager = plugin.getArenaRouter().arenaOf(player);
         
-        if (!gameManager.isPlaying(player)) return;
-        if (gameManager.getState() != GameState.ACTIVE) return;
-        
-        GamePlayer gamePlayer = gameManager.getGamePlayer(player);
-        if (gamePlayer == null || !gamePlayer.isAlive()) return;
-        
-        // Get killer if applicable
-        Player killer = player.getKiller();
-        PlayerEliminatedEvent.EliminationCause cause = killer != null 
-                ? PlayerEliminatedEvent.EliminationCause.KILLED 
-                : PlayerEliminatedEvent.EliminationCause.OTHER;
-        
-        // Check for void death
-        EntityDamageEvent lastDamage = player.getLastDamageCause();
-        if (lastDamage != null && lastDamage.getCause() == EntityDamageEvent.DamageCause.VOID) {
-            cause = PlayerEliminatedEvent.EliminationCause.VOID;
-        }
-        
-        // Fire elimination event
-        PlayerEliminatedEvent eliminatedEvent = new PlayerEliminatedEvent(
-                player, gamePlayer, cause, killer);
-        Bukkit.getPluginManager().callEvent(eliminatedEvent);
-        
-        if (eliminatedEvent.isCancelled()) {
-            // PlayerDeathEvent is not cancellable, restore health instead
-            player.setHealth(player.getMaxHealth());
-            return;
-        }
-        
-        // Clear drops in game
-        event.getDrops().clear();
-        event.setDroppedExp(0);
-        
-        // Broadcast death message
-        String deathMessage;
-        if (killer != null) {
-            deathMessage = plugin.getFileHandler().getMessage("game.player-killed",
-                    "%player%", player.getName(),
-                    "%killer%", killer.getName());
+        if (gameManager == null) return;
+        long start = plugin.getPerfMonitor().start();
+        try {
+            if (gameManager.getState() != GameState.ACTIVE) return;
+            
+            GamePlayer gamePlayer = gameManager.getGamePlayer(player);
+            if (gamePlayer == null || !gamePlayer.isAlive()) return;
             
-            // Give kill to killer
-            GamePlayer killerPlayer = gameManager.getGamePlayer(killer);
-            if (killerPlayer != null) {
-                killerPlayer.addKill();
+            // Get killer if applicable
+            Player killer = player.getKiller();
+            PlayerEliminatedEvent.EliminationCause cause = killer != null 
+                    ? PlayerEliminatedEvent.EliminationCause.KILLED 
+                    : PlayerEliminatedEvent.EliminationCause.OTHER;
+            
+            // Check for void death
+            EntityDamageEvent lastDamage = player.getLastDamageCause();
+            if (lastDamage != null && lastDamage.getCause() == EntityDamageEvent.DamageCause.VOID) {
+                cause = PlayerEliminatedEvent.EliminationCause.VOID;
             }
-        } else if (cause == PlayerEliminatedEvent.EliminationCause.VOID) {
-            deathMessage = plugin.getFileHandler().getMessage("game.player-died-void",
-                    "%player%", player.getName());
-        } else {
-            deathMessage = plugin.getFileHandler().getMessage("game.player-died",
-                    "%player%", player.getName());
+            
+            // Fire elimination event (kills are credited by its internal handlers)
+            PlayerEliminated elimination = new PlayerEliminated(player, gamePlayer, cause, killer);
+            eliminated.post(elimination);
+            
+            if (elimination.isCancelled()) {
+                // PlayerDeathEvent is not cancellable, restore health instead
+                player.setHealth(player.getMaxHealth());
+                return;
+            }
+            
+            // Clear drops in game
+            event.getDrops().clear();
+            event.setDroppedExp(0);
+            
+            // Broadcast death message
+            String deathMessage;
+            if (killer != null) {
+                deathMessage = plugin.getFileHandler().getMessage("game.player-killed",
+                        "%player%", player.getName(),
+                        "%killer%", killer.getName());
+            } else if (cause == PlayerEliminatedEvent.EliminationCause.VOID) {
+                deathMessage = plugin.getFileHandler().getMessage("game.player-died-void",
+                        "%player%", player.getName());
+            } else {
+                deathMessage = plugin.getFileHandler().getMessage("game.player-died",
+                        "%player%", player.getName());
+            }
+            
+            event.setDeathMessage(null); // Remove vanilla death message
+            gameManager.broadcastMessage(deathMessage);
+            
+            // Show death title
+            String title = plugin.getFileHandler().getRawMessage("titles.death.title");
+            String subtitle = plugin.getFileHandler().getRawMessage("titles.death.subtitle");
+            com.openpillars.util.FileHandler.sendTitle(player, title, subtitle, 10, 60, 20);
+            
+            // Make spectator
+            gameManager.makeSpectator(player);
+        } finally {
+            gameManager.getTimings().stop(Subsystem.LISTENERS, start);
         }
-        
-        event.setDeathMessage(null); // Remove vanilla death message
-        gameManager.broadcastMessage(deathMessage);
-        
-        // Show death title
-        String title = plugin.getFileHandler().getRawMessage("titles.death.title");
-        String subtitle = plugin.getFileHandler().getRawMessage("titles.death.subtitle");
-        com.openpillars.util.FileHandler.sendTitle(player, title, subtitle, 10, 60, 20);
-        
-        // Make spectator
-        gameManager.makeSpectator(player);
     }
 
     @EventHandler(priority = EventPriority.HIGH)
@@ -105,48 +107,53 @@ public class PlayerListener implements Listener {
         if (!(event.getEntity() instanceof Player)) return;
         
         Player player = (Player) event.getEntity();
-        GameManager gameManager = plugin.getGameManager();
+        GameManager gameManager = plugin.getArenaRouter().arenaOf(player);
         
-        if (!gameManager.isPlaying(player)) return;
+        if (gameManager == null) return;
         
-        // Prevent damage during countdown
-        if (gameManager.getState() == GameState.STARTING) {
-            event.setCancelled(true);
-            return;
-        }
-        
-        // Handle void damage with grace period
-        if (event.getCause() == EntityDamageEvent.DamageCause.VOID) {
-            int gracePeriod = plugin.getConfig().getInt("game.void-grace-period", 3);
-            
-            if (gracePeriod > 0) {
+        long start = plugin.getPerfMonitor().start();
+        try {
+            // Prevent damage during countdown
+            if (gameManager.getState() == GameState.STARTING) {
                 event.setCancelled(true);
+                return;
+            }
+            
+            // Handle void damage with grace period
+            if (event.getCause() == EntityDamageEvent.DamageCause.VOID) {
+                int gracePeriod = plugin.getConfig().getInt("game.void-grace-period", 3);
                 
-                // Warn player
-                player.sendMessage(plugin.getFileHandler().getMessage("game.void-warning"));
-                
-                // Teleport back to spawn after grace period
-                GamePlayer gamePlayer = gameManager.getGamePlayer(player);
-                if (gamePlayer != null) {
-                    Location spawnLoc = gamePlayer.getSpawnLocation();
-                    if (spawnLoc != null) {
-                        new BukkitRunnable() {
-                            @Override
-                            public void run() {
-                                if (player.isOnline() && gamePlayer.isAlive()) {
-                                    player.teleport(spawnLoc);
-                                    player.sendMessage(plugin.getFileHandler().getMessage("game.void-saved"));
+                if (gracePeriod > 0) {
+                    event.setCancelled(true);
+                    
+                    // Warn player
+                    player.sendMessage(plugin.getFileHandler().getMessage("game.void-warning"));
+                    
+                    // Teleport back to spawn after grace period
+                    GamePlayer gamePlayer = gameManager.getGamePlayer(player);
+                    if (gamePlayer != null) {
+                        Location spawnLoc = gamePlayer.getSpawnLocation();
+                        if (spawnLoc != null) {
+                            new BukkitRunnable() {
+                                @Override
+                                public void run() {
+                                    if (player.isOnline() && gamePlayer.isAlive()) {
+                                        player.teleport(spawnLoc);
+                                        player.sendMessage(plugin.getFileHandler().getMessage("game.void-saved"));
+                                    }
                                 }
-                            }
-                        }.runTaskLater(plugin, gracePeriod * 20L);
+                            }.runTaskLater(plugin, gracePeriod * 20L);
+                        }
                     }
+                } else if (gracePeriod == -1) {
+                    // Instant spectator mode (no death)
+                    event.setCancelled(true);
+                    gameManager.makeSpectator(player);
                 }
-            } else if (gracePeriod == -1) {
-                // Instant spectator mode (no death)
-                event.setCancelled(true);
-                gameManager.makeSpectator(player);
+                // gracePeriod == 0 means normal death
             }
-            // gracePeriod == 0 means normal death
+        } finally {
+            gameManager.getTimings().stop(Subsystem.LISTENERS, start);
         }
     }
 
@@ -157,20 +164,19 @@ public class PlayerListener implements Listener {
         
         Player victim = (Player) event.getEntity();
         Player attacker = (Player) event.getDamager();
-        GameManager gameManager = plugin.getGameManager();
         
         // Check if both players are in the same game
-        boolean victimInGame = gameManager.isPlaying(victim);
-        boolean attackerInGame = gameManager.isPlaying(attacker);
+        GameManager victimArena = plugin.getArenaRouter().arenaOf(victim);
+        GameManager attackerArena = plugin.getArenaRouter().arenaOf(attacker);
         
-        if (victimInGame != attackerInGame) {
-            // One is in game, one isn't - prevent damage
+        if (victimArena != attackerArena) {
+            // Not in the same game - prevent damage
             event.setCancelled(true);
             return;
         }
         
         // Prevent PvP during non-active states
-        if (victimInGame && gameManager.getState() != GameState.ACTIVE) {
+        if (victimArena != null && victimArena.getState() != GameState.ACTIVE) {
             event.setCancelled(true);
         }
     }
@@ -178,9 +184,9 @@ public class PlayerListener implements Listener {
     @EventHandler
     public void onPlayerRespawn(PlayerRespawnEvent event) {
         Player player = event.getPlayer();
-        GameManager gameManager = plugin.getGameManager();
+        GameManager gameManager = plugin.getArenaRouter().arenaOf(player);
         
-        if (gameManager.isPlaying(player) || gameManager.isSpectating(player)) {
+        if (gameManager != null) {
             GamePlayer gamePlayer = gameManager.getGamePlayer(player);
             
             if (gamePlayer != null && gamePlayer.getSpawnLocation() != null) {
@@ -193,19 +199,17 @@ public class PlayerListener implements Listener {
     @EventHandler
     public void onPlayerQuit(PlayerQuitEvent event) {
         Player player = event.getPlayer();
-        GameManager gameManager = plugin.getGameManager();
+        GameManager gameManager = plugin.getArenaRouter().arenaOf(player);
         
-        if (gameManager.isPlaying(player)) {
+        if (gameManager != null) {
             GamePlayer gamePlayer = gameManager.getGamePlayer(player);
             
             // Fire elimination event for disconnect
             if (gamePlayer != null && gamePlayer.isAlive() && 
                     gameManager.getState() == GameState.ACTIVE) {
                 
-                PlayerEliminatedEvent eliminatedEvent = new PlayerEliminatedEvent(
-                        player, gamePlayer, 
-                        PlayerEliminatedEvent.EliminationCause.DISCONNECT, null);
-                Bukkit.getPluginManager().callEvent(eliminatedEvent);
+                eliminated.post(new PlayerEliminated(player, gamePlayer,
+                        PlayerEliminatedEvent.EliminationCause.DISCONNECT, null));
             }
             
             // Remove from game
@@ -215,6 +219,10 @@ public class PlayerListener implements Listener {
 
     @EventHandler
     public void onPlayerJoin(PlayerJoinEvent event) {
-        // Could implement reconnection logic here in the future
+        // A quit normally removes the player, but never keep a stale Player around
+        GameManager gameManager = plugin.getArenaRouter().rebind(event.getPlayer());
+        if (gameManager != null) {
+            gameManager.handleReconnect(event.getPlayer());
+        }
     }
 }
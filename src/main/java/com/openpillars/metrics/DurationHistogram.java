@@ -0,0 +1,54 @@
+package com.openpillars.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prometheus-style histogram of durations with fixed bucket bounds in seconds.
+ * Counters are striped, so recording never contends. Safe to use from any thread.
+ */
+class DurationHistogram {
+
+    private final double[] bounds;
+    private final LongAdder[] buckets;
+    private final LongAdder sumNanos;
+
+    /**
+     * @param bounds The upper bounds of the buckets in seconds, ascending
+     */
+    DurationHistogram(double... bounds) {
+        this.bounds = bounds;
+        this.buckets = new LongAdder[bounds.length + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+        this.sumNanos = new LongAdder();
+    }
+
+    void record(long nanos) {
+        double seconds = nanos / (double) TimeUnit.SECONDS.toNanos(1);
+        int bucket = 0;
+        while (bucket < bounds.length && seconds > bounds[bucket]) {
+            bucket++;
+        }
+        buckets[bucket].increment();
+        sumNanos.add(nanos);
+    }
+
+    /**
+     * Writes the _bucket, _sum and _count samples
+     * @param text The output
+     * @param name The metric name without suffix
+     */
+    void write(PrometheusText text, String name) {
+        long cumulative = 0;
+        for (int i = 0; i < bounds.length; i++) {
+            cumulative += buckets[i].sum();
+            text.sample(name + "_bucket", cumulative, "le", String.valueOf(bounds[i]));
+        }
+        cumulative += buckets[bounds.length].sum();
+        text.sample(name + "_bucket", cumulative, "le", "+Inf");
+        text.sample(name + "_sum", sumNanos.sum() / (double) TimeUnit.SECONDS.toNanos(1));
+        text.sample(name + "_count", cumulative);
+    }
+}
@@ -0,0 +1,104 @@
+package com.openpillars.metrics;
+
+import com.openpillars.OpenPillars;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+
+/**
+ * Embedded HTTP endpoint serving {@link PillarsMetrics} to Prometheus.
+ * Scrapes are answered on a single background thread and never touch the main thread.
+ *
+ * Try it locally with: curl http://127.0.0.1:9464/metrics
+ */
+public class MetricsServer {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final OpenPillars plugin;
+    private final PillarsMetrics metrics;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public MetricsServer(OpenPillars plugin, PillarsMetrics metrics) {
+        this.plugin = plugin;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Starts listening on the configured address. Failing to bind is logged, not thrown.
+     */
+    public void start() {
+        String host = plugin.getConfig().getString("metrics.host", "127.0.0.1");
+        int port = plugin.getConfig().getInt("metrics.port", 9464);
+        String path = plugin.getConfig().getString("metrics.path", "/metrics");
+
+        try {
+            server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not serve metrics on " + host + ":" + port, e);
+            return;
+        }
+
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "OpenPillars Metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext(path, this::handle);
+        server.start();
+        plugin.getLogger().info("Serving metrics on http://" + host + ":" + port + path);
+    }
+
+    /**
+     * Stops listening, called on disable
+     */
+    public void stop() {
+        if (server == null) return;
+
+        server.stop(0);
+        executor.shutdownNow();
+        server = null;
+        executor = null;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            if (!method.equals("GET") && !method.equals("HEAD")) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            byte[] body;
+            try {
+                body = metrics.scrape().getBytes(StandardCharsets.UTF_8);
+            } catch (RuntimeException e) {
+                plugin.getLogger().log(Level.WARNING, "Could not collect metrics", e);
+                exchange.sendResponseHeaders(500, -1);
+                return;
+            }
+
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            if (method.equals("HEAD")) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.openpillars.metrics;
+
+import com.openpillars.OpenPillars;
+import com.openpillars.game.GameManager;
+import com.openpillars.game.GameState;
+import com.openpillars.perf.LatencyHistogram;
+import com.openpillars.perf.PerfMonitor;
+import com.openpillars.perf.Subsystem;
+import com.openpillars.perf.Timings;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Engine counters for the Prometheus endpoint served by {@link MetricsServer}.
+ *
+ * Counters are striped {@link LongAdder}s so the generation and block break
+ * paths only pay an uncontended add. Gauges are read from the arenas and the
+ * {@link PerfMonitor} when scraped. Safe to use from any thread.
+ */
+public class PillarsMetrics {
+
+    private static final GameState[] STATES = GameState.values();
+    private static final Subsystem[] SUBSYSTEMS = Subsystem.values();
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final OpenPillars plugin;
+    private final LongAdder blocksGenerated;
+    private final LongAdder blocksBroken;
+    private final Map<String, LongAdder> lootRolls;
+    private final DurationHistogram resets;
+
+    public PillarsMetrics(OpenPillars plugin) {
+        this.plugin = plugin;
+        this.blocksGenerated = new LongAdder();
+        this.blocksBroken = new LongAdder();
+        this.lootRolls = new ConcurrentHashMap<>();
+        this.resets = new DurationHistogram(0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60);
+    }
+
+    /**
+     * Counts a pillar block generated
+     */
+    public void blockGenerated() {
+        blocksGenerated.increment();
+    }
+
+    /**
+     * Counts a pillar block broken
+     */
+    public void blockBroken() {
+        blocksBroken.increment();
+    }
+
+    /**
+     * Counts a roll on a loot table
+     * @param table The loot table name
+     */
+    public void lootRolled(String table) {
+        LongAdder rolls = lootRolls.get(table);
+        if (rolls == null) {
+            // Tables are few, only the first roll of each takes this path
+            rolls = lootRolls.computeIfAbsent(table, name -> new LongAdder());
+        }
+        rolls.increment();
+    }
+
+    /**
+     * Records how long an arena took to reset, until it was back in the lobby
+     * @param nanos The duration in nanoseconds
+     */
+    public void resetFinished(long nanos) {
+        resets.record(nanos);
+    }
+
+    /**
+     * Renders every metric in the Prometheus text format
+     * @return The exposition text
+     */
+    public String scrape() {
+        PrometheusText text = new PrometheusText();
+        GameManager arena = plugin.getGameManager();
+
+        text.family("openpillars_arenas", "gauge", "Arenas by game state.");
+        GameState state = arena != null ? arena.getState() : null;
+        for (GameState candidate : STATES) {
+            text.sample("openpillars_arenas", candidate == state ? 1 : 0, "state", candidate.name().toLowerCase(Locale.ROOT));
+        }
+
+        if (arena != null) {
+            String name = arena.getId();
+            text.family("openpillars_players", "gauge", "Players in a game, alive or eliminated.");
+            text.sample("openpillars_players", arena.getPlayerCount(), "arena", name);
+            text.family("openpillars_players_alive", "gauge", "Players still alive in a game.");
+            text.sample("openpillars_players_alive", arena.getAliveCount(), "arena", name);
+            text.family("openpillars_spectators", "gauge", "Spectators of a game, including eliminated players.");
+            text.sample("openpillars_spectators", arena.getSpectators().size(), "arena", name);
+        }
+
+        text.family("openpillars_blocks_generated_total", "counter", "Pillar blocks generated.");
+        text.sample("openpillars_blocks_generated_total", blocksGenerated.sum());
+        text.family("openpillars_blocks_broken_total", "counter", "Pillar blocks broken.");
+        text.sample("openpillars_blocks_broken_total", blocksBroken.sum());
+
+        text.family("openpillars_loot_rolls_total", "counter", "Rolls on each loot table.");
+        for (Map.Entry<String, LongAdder> entry : new TreeMap<>(lootRolls).entrySet()) {
+            text.sample("openpillars_loot_rolls_total", entry.getValue().sum(), "table", entry.getKey());
+        }
+
+        text.family("openpillars_reset_duration_seconds", "histogram", "Time from the start of an arena reset until it is back in the lobby.");
+        resets.write(text, "openpillars_reset_duration_seconds");
+
+        writeTickCost(text, plugin.getPerfMonitor());
+        return text.toString();
+    }
+
+    /**
+     * Writes the tick cost of every subsystem as a summary, empty while profiling is off
+     */
+    private void writeTickCost(PrometheusText text, PerfMonitor perf) {
+        text.family("openpillars_tick_cost_seconds", "summary", "Time spent per call in each subsystem, needs perf.enabled.");
+        for (Timings timings : perf.getTimings()) {
+            for (Subsystem subsystem : SUBSYSTEMS) {
+                LatencyHistogram histogram = timings.get(subsystem);
+                String arena = timings.getName();
+                String key = subsystem.getKey();
+                text.sample("openpillars_tick_cost_seconds", histogram.percentile(0.5) / NANOS_PER_SECOND,
+                        "arena", arena, "subsystem", key, "quantile", "0.5");
+                text.sample("openpillars_tick_cost_seconds", histogram.percentile(0.99) / NANOS_PER_SECOND,
+                        "arena", arena, "subsystem", key, "quantile", "0.99");
+                text.sample("openpillars_tick_cost_seconds_sum", histogram.total() / NANOS_PER_SECOND,
+                        "arena", arena, "subsystem", key);
+                text.sample("openpillars_tick_cost_seconds_count", histogram.count(),
+                        "arena", arena, "subsystem", key);
+            }
+        }
+
+        text.family("openpillars_tick_cost_max_seconds", "gauge", "Longest single call in each subsystem since the last perf reset.");
+        for (Timings timings : perf.getTimings()) {
+            for (Subsystem subsystem : SUBSYSTEMS) {
+                text.sample("openpillars_tick_cost_max_seconds", timings.get(subsystem).max() / NANOS_PER_SECOND,
+                        "arena", timings.getName(), "subsystem", subsystem.getKey());
+            }
+        }
+
+        text.family("openpillars_allocated_bytes_total", "counter", "Bytes allocated on the main thread by each subsystem, needs perf.allocations.");
+        for (Timings timings : perf.getTimings()) {
+            for (Subsystem subsystem : SUBSYSTEMS) {
+                text.sample("openpillars_allocated_bytes_total", timings.getAllocatedBytes(subsystem),
+                        "arena", timings.getName(), "subsystem", subsystem.getKey());
+            }
+        }
+
+        text.family("openpillars_profiled_ticks_total", "counter", "Server ticks counted while profiling was on.");
+        text.sample("openpillars_profiled_ticks_total", perf.getTicks());
+    }
+}
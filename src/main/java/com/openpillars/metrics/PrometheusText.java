@@ -0,0 +1,82 @@
+package com.openpillars.metrics;
+
+/**
+ * Writes metrics in the Prometheus text exposition format (version 0.0.4).
+ * Labels are given as alternating name and value pairs.
+ */
+class PrometheusText {
+
+    private final StringBuilder out;
+
+    PrometheusText() {
+        this.out = new StringBuilder(4096);
+    }
+
+    /**
+     * Starts a metric family, must come before its samples
+     * @param name The metric name
+     * @param type counter, gauge, histogram or summary
+     * @param help What the metric measures
+     */
+    PrometheusText family(String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        return this;
+    }
+
+    PrometheusText sample(String name, long value, String... labels) {
+        appendName(name, labels);
+        out.append(value).append('\n');
+        return this;
+    }
+
+    PrometheusText sample(String name, double value, String... labels) {
+        appendName(name, labels);
+        if (Double.isInfinite(value)) {
+            out.append(value > 0 ? "+Inf" : "-Inf");
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+        return this;
+    }
+
+    private void appendName(String name, String[] labels) {
+        out.append(name);
+        if (labels.length > 0) {
+            out.append('{');
+            for (int i = 0; i + 1 < labels.length; i += 2) {
+                if (i > 0) out.append(',');
+                out.append(labels[i]).append("=\"");
+                appendEscaped(labels[i + 1]);
+                out.append('"');
+            }
+            out.append('}');
+        }
+        out.append(' ');
+    }
+
+    private void appendEscaped(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                default:
+                    out.append(c);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+}
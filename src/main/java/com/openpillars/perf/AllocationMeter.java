@@ -0,0 +1,62 @@
+package com.openpillars.perf;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Reads how many bytes a thread has allocated so far, through the HotSpot
+ * extension of {@link ThreadMXBean}.
+ *
+ * On some JDKs the read itself allocates a few small arrays. That overhead is
+ * measured once when the meter is created and subtracted from every
+ * {@link #since(long)}, so an allocation-free handler reports 0 bytes.
+ */
+class AllocationMeter {
+
+    private final com.sun.management.ThreadMXBean threads;
+    private final long overhead;
+
+    private AllocationMeter(com.sun.management.ThreadMXBean threads) {
+        this.threads = threads;
+
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < 16; i++) {
+            long start = read();
+            min = Math.min(min, read() - start);
+        }
+        this.overhead = Math.max(0, min);
+    }
+
+    /**
+     * Creates a meter if the JVM can count allocations per thread
+     * @return The meter, or null if unsupported
+     */
+    static AllocationMeter create() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) return null;
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        if (!threads.isThreadAllocatedMemorySupported()) return null;
+        if (!threads.isThreadAllocatedMemoryEnabled()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+        }
+        return new AllocationMeter(threads);
+    }
+
+    /**
+     * Gets the bytes the current thread has allocated since it started
+     * @return The allocated bytes
+     */
+    long read() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Gets the bytes the current thread allocated since an earlier {@link #read()}
+     * @param start The earlier read
+     * @return The allocated bytes, without the cost of reading
+     */
+    long since(long start) {
+        return Math.max(0, read() - start - overhead);
+    }
+}
@@ -0,0 +1,195 @@
+package com.openpillars.perf;
+
+import com.openpillars.OpenPillars;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Measures how much of each server tick the engine uses, per {@link Subsystem}
+ * and per arena, for /pillars perf.
+ *
+ * Instrumented code takes a {@link #start()} and hands it to
+ * {@link Timings#stop(Subsystem, long)}. While profiling is off the start is 0
+ * and both calls return after a single check, no clock is read and nothing is
+ * recorded.
+ *
+ * With perf.allocations on, the bytes the main thread allocates between the
+ * two calls are counted as well. Starts on the main thread are kept on a small
+ * stack keyed by their start time, so nested subsystems each get their own
+ * count. Work on other threads is only timed.
+ */
+public class PerfMonitor {
+
+    private final OpenPillars plugin;
+    private final List<Timings> timings;
+    private final Timings server;
+    private final Thread mainThread;
+
+    private volatile boolean enabled;
+    private volatile long ticks;
+    private BukkitTask ticker;
+
+    private volatile AllocationMeter allocations;
+    private final long[] allocationStarts;
+    private final long[] allocationBytes;
+    private int allocationDepth;
+
+    public PerfMonitor(OpenPillars plugin) {
+        this.plugin = plugin;
+        this.timings = new CopyOnWriteArrayList<>();
+        this.server = register("server");
+        this.mainThread = Thread.currentThread();
+        this.allocationStarts = new long[32];
+        this.allocationBytes = new long[32];
+    }
+
+    /**
+     * Turns profiling on or off as configured
+     */
+    public void load() {
+        setEnabled(plugin.getConfig().getBoolean("perf.enabled", false));
+        setAllocationTracking(plugin.getConfig().getBoolean("perf.allocations", false));
+    }
+
+    /**
+     * Turns counting of the main thread's allocations on or off
+     * @param tracking true to count allocated bytes while profiling
+     */
+    public void setAllocationTracking(boolean tracking) {
+        if (!tracking) {
+            allocations = null;
+            return;
+        }
+        if (allocations != null) return;
+
+        AllocationMeter meter = AllocationMeter.create();
+        if (meter == null) {
+            plugin.getLogger().warning("This JVM cannot count allocations per thread, perf.allocations is ignored");
+            return;
+        }
+        allocationDepth = 0;
+        allocations = meter;
+    }
+
+    public boolean isTrackingAllocations() {
+        return allocations != null;
+    }
+
+    /**
+     * Turns profiling on or off. Counted ticks and recorded timings are kept.
+     * @param enabled true to start measuring
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (enabled && ticker == null) {
+            // Only ticks spent profiling count towards calls per tick
+            ticker = Bukkit.getScheduler().runTaskTimer(plugin, () -> ticks++, 1L, 1L);
+        } else if (!enabled && ticker != null) {
+            ticker.cancel();
+            ticker = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts measuring a piece of work
+     * @return The current time, or 0 if profiling is off
+     */
+    public long start() {
+        if (!enabled) return 0L;
+
+        long start = System.nanoTime();
+        AllocationMeter meter = allocations;
+        if (meter != null && Thread.currentThread() == mainThread) {
+            pushAllocation(start, meter.read());
+        }
+        return start;
+    }
+
+    /**
+     * Gets the bytes the main thread allocated since a start
+     * @param start The start taken from {@link #start()}
+     * @return The allocated bytes, or -1 if the start was not tracked
+     */
+    long allocatedSince(long start) {
+        AllocationMeter meter = allocations;
+        if (meter == null || Thread.currentThread() != mainThread) return -1;
+
+        // Starts that never stopped (a task that threw) are dropped on the way down
+        for (int i = allocationDepth - 1; i >= 0; i--) {
+            if (allocationStarts[i] == start) {
+                allocationDepth = i;
+                return meter.since(allocationBytes[i]);
+            }
+        }
+        return -1;
+    }
+
+    private void pushAllocation(long start, long bytes) {
+        if (allocationDepth == allocationStarts.length) {
+            // Subsystems nest a few levels at most, only leaked starts get this deep
+            allocationDepth = 0;
+        }
+        allocationStarts[allocationDepth] = start;
+        allocationBytes[allocationDepth] = bytes;
+        allocationDepth++;
+    }
+
+    /**
+     * Creates the timings of an arena
+     * @param name The name shown by /pillars perf
+     * @return The timings
+     */
+    public Timings register(String name) {
+        Timings arena = new Timings(this, name);
+        timings.add(arena);
+        return arena;
+    }
+
+    /**
+     * Gets the timings of work done for events that are not routed to one arena
+     * @return The server-wide timings
+     */
+    public Timings getServerTimings() {
+        return server;
+    }
+
+    /**
+     * Gets the timings of the server and every arena
+     * @return The timings, server first
+     */
+    public List<Timings> getTimings() {
+        return timings;
+    }
+
+    /**
+     * Gets the number of server ticks profiled since the last reset
+     * @return The tick count
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Discards all recorded timings and counted ticks
+     */
+    public void reset() {
+        for (Timings arena : timings) {
+            arena.reset();
+        }
+        ticks = 0;
+    }
+
+    /**
+     * Stops counting ticks, called on disable
+     */
+    public void stop() {
+        setEnabled(false);
+    }
+}
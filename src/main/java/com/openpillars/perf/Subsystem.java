@@ -0,0 +1,25 @@
+package com.openpillars.perf;
+
+/**
+ * The parts of the engine whose cost is measured by the {@link PerfMonitor}.
+ * Subsystems may nest, a broadcast sent by the countdown counts for both.
+ */
+public enum Subsystem {
+
+    GENERATION("generation"),
+    COUNTDOWN("countdown"),
+    BROADCAST("broadcast"),
+    LISTENERS("listeners"),
+    RESET("reset"),
+    PLACEHOLDERS("placeholders");
+
+    private final String key;
+
+    Subsystem(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+}
@@ -0,0 +1,89 @@
+package com.openpillars.perf;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The cost of each {@link Subsystem} within one arena, or of the server-wide
+ * work that belongs to no arena: time per call, and bytes allocated on the
+ * main thread when the {@link PerfMonitor} tracks allocations.
+ * Safe to use from any thread.
+ */
+public class Timings {
+
+    private static final Subsystem[] SUBSYSTEMS = Subsystem.values();
+
+    private final PerfMonitor monitor;
+    private final String name;
+    private final LatencyHistogram[] histograms;
+    private final AtomicLongArray allocatedBytes;
+    private final AtomicLongArray allocationCalls;
+
+    Timings(PerfMonitor monitor, String name) {
+        this.monitor = monitor;
+        this.name = name;
+        this.histograms = new LatencyHistogram[SUBSYSTEMS.length];
+        for (Subsystem subsystem : SUBSYSTEMS) {
+            histograms[subsystem.ordinal()] = new LatencyHistogram();
+        }
+        this.allocatedBytes = new AtomicLongArray(SUBSYSTEMS.length);
+        this.allocationCalls = new AtomicLongArray(SUBSYSTEMS.length);
+    }
+
+    /**
+     * Records the time since a start taken from {@link PerfMonitor#start()}
+     * @param subsystem The subsystem that did the work
+     * @param start The start, 0 if profiling was off and nothing should be recorded
+     */
+    public void stop(Subsystem subsystem, long start) {
+        if (start != 0) {
+            histograms[subsystem.ordinal()].record(System.nanoTime() - start);
+
+            long allocated = monitor.allocatedSince(start);
+            if (allocated >= 0) {
+                allocatedBytes.addAndGet(subsystem.ordinal(), allocated);
+                allocationCalls.incrementAndGet(subsystem.ordinal());
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the histogram of a subsystem
+     * @param subsystem The subsystem
+     * @return The histogram
+     */
+    public LatencyHistogram get(Subsystem subsystem) {
+        return histograms[subsystem.ordinal()];
+    }
+
+    /**
+     * Gets the bytes a subsystem allocated on the main thread
+     * @param subsystem The subsystem
+     * @return The total bytes
+     */
+    public long getAllocatedBytes(Subsystem subsystem) {
+        return allocatedBytes.get(subsystem.ordinal());
+    }
+
+    /**
+     * Gets the number of calls whose allocations were counted
+     * @param subsystem The subsystem
+     * @return The call count, 0 if allocations were never tracked
+     */
+    public long getAllocationCalls(Subsystem subsystem) {
+        return allocationCalls.get(subsystem.ordinal());
+    }
+
+    void reset() {
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+        for (int i = 0; i < SUBSYSTEMS.length; i++) {
+            allocatedBytes.set(i, 0);
+            allocationCalls.set(i, 0);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.openpillars.placeholders;
+
+import com.openpillars.stats.Leaderboard;
+import com.openpillars.stats.LifetimeStat;
+import org.bukkit.entity.Player;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * A parsed leaderboard placeholder:
+ * top_&lt;stat&gt;_&lt;rank&gt;_name, top_&lt;stat&gt;_&lt;rank&gt;_value or rank_&lt;stat&gt;,
+ * where stat is wins, kills, blocks_broken, items_collected or games_played.
+ * Params are parsed once and cached by {@link PillarsExpansion}.
+ * Ranks are served from pre-rendered strings, like the top values are.
+ */
+final class LeaderboardPlaceholder {
+
+    /**
+     * Cached for params that are not a leaderboard placeholder
+     */
+    static final LeaderboardPlaceholder NONE = new LeaderboardPlaceholder(null, 0, Field.RANK);
+
+    private static final int INITIAL_RANK_TEXTS = 256;
+
+    // Rank i rendered at index i, grown by doubling as the leaderboard grows
+    private static volatile String[] rankTexts = renderRanks(new String[0], INITIAL_RANK_TEXTS);
+
+    private enum Field {
+        NAME,
+        VALUE,
+        RANK
+    }
+
+    private final LifetimeStat stat;
+    private final int rank;
+    private final Field field;
+
+    private LeaderboardPlaceholder(LifetimeStat stat, int rank, Field field) {
+        this.stat = stat;
+        this.rank = rank;
+        this.field = field;
+    }
+
+    /**
+     * Parses params into a leaderboard placeholder
+     * @param params The params after "openpillars_"
+     * @return The placeholder, or {@link #NONE} if the params are not one
+     */
+    static LeaderboardPlaceholder parse(String params) {
+        String key = params.toLowerCase(Locale.ROOT);
+
+        if (key.startsWith("rank_")) {
+            LifetimeStat stat = statOf(key.substring("rank_".length()));
+            return stat != null ? new LeaderboardPlaceholder(stat, 0, Field.RANK) : NONE;
+        }
+        if (!key.startsWith("top_")) return NONE;
+
+        Field field;
+        if (key.endsWith("_name")) {
+            field = Field.NAME;
+        } else if (key.endsWith("_value")) {
+            field = Field.VALUE;
+        } else {
+            return NONE;
+        }
+
+        // top_<stat>_<rank>_<field>
+        String body = key.substring("top_".length(), key.lastIndexOf('_'));
+        int split = body.lastIndexOf('_');
+        if (split <= 0) return NONE;
+
+        LifetimeStat stat = statOf(body.substring(0, split));
+        int rank;
+        try {
+            rank = Integer.parseInt(body.substring(split + 1));
+        } catch (NumberFormatException e) {
+            return NONE;
+        }
+        return stat != null && rank > 0 ? new LeaderboardPlaceholder(stat, rank, field) : NONE;
+    }
+
+    private static LifetimeStat statOf(String key) {
+        for (LifetimeStat stat : LifetimeStat.values()) {
+            if (stat.getKey().equals(key)) return stat;
+        }
+        return null;
+    }
+
+    /**
+     * Resolves the placeholder against the leaderboard
+     * @param leaderboard The leaderboard
+     * @param player The player, only needed for ranks
+     * @return The value; an empty name, "0" or rank 0 if nobody holds the rank
+     */
+    String resolve(Leaderboard leaderboard, Player player) {
+        switch (field) {
+            case NAME: {
+                String name = leaderboard.getName(stat, rank);
+                return name != null ? name : "";
+            }
+            case VALUE: {
+                String value = leaderboard.getValue(stat, rank);
+                return value != null ? value : "0";
+            }
+            default:
+                return rankText(player != null ? leaderboard.getRank(stat, player.getUniqueId()) : 0);
+        }
+    }
+
+    /**
+     * Gets a rank as text without allocating, once the rank was rendered before
+     * @param rank The rank, 0 for unranked
+     * @return The rendered rank
+     */
+    private static String rankText(int rank) {
+        String[] texts = rankTexts;
+        if (rank >= texts.length) {
+            texts = growRanks(rank);
+        }
+        return texts[rank];
+    }
+
+    private static synchronized String[] growRanks(int rank) {
+        String[] texts = rankTexts;
+        if (rank < texts.length) return texts;
+
+        int size = texts.length;
+        while (size <= rank) {
+            size <<= 1;
+        }
+        texts = renderRanks(texts, size);
+        rankTexts = texts;
+        return texts;
+    }
+
+    private static String[] renderRanks(String[] rendered, int size) {
+        String[] texts = Arrays.copyOf(rendered, size);
+        for (int rank = rendered.length; rank < size; rank++) {
+            texts[rank] = String.valueOf(rank);
+        }
+        return texts;
+    }
+}
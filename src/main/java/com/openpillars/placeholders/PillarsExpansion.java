@@ -3,22 +3,35 @@ package com.openpillars.placeholders;
 import com.openpillars.OpenPillars;
 import com.openpillars.game.GameManager;
 import com.openpillars.game.GamePlayer;
-import com.openpillars.game.GameState;
+import com.openpillars.perf.Subsystem;
+import com.openpillars.stats.StatsService;
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * PlaceholderAPI expansion for OpenPillars.
  * Provides placeholders for scoreboards, holograms, etc.
+ * Values come pre-rendered from a {@link PlaceholderCache}.
  */
 public class PillarsExpansion extends PlaceholderExpansion {
 
+    // Parsed leaderboard params kept at most, so arbitrary unknown params cannot grow the map forever
+    private static final int MAX_LEADERBOARD_PARAMS = 256;
+
     private final OpenPillars plugin;
+    private final PlaceholderCache cache;
+    private final Map<String, LeaderboardPlaceholder> leaderboardPlaceholders;
 
     public PillarsExpansion(OpenPillars plugin) {
         this.plugin = plugin;
+        this.cache = new PlaceholderCache(plugin, plugin.getGameManager());
+        cache.start();
+        this.leaderboardPlaceholders = new ConcurrentHashMap<>();
     }
 
     @Override
@@ -41,104 +54,72 @@ public class PillarsExpansion extends PlaceholderExpansion {
         return true;
     }
 
+    /**
+     * Resolves top_&lt;stat&gt;_&lt;rank&gt;_name/value and rank_&lt;stat&gt; placeholders
+     * @param player The player, may be null
+     * @param params The params
+     * @return The value, or null if the params are unknown
+     */
+    private @Nullable String onLeaderboardRequest(Player player, String params) {
+        LeaderboardPlaceholder placeholder = leaderboardPlaceholders.get(params);
+        if (placeholder == null) {
+            placeholder = LeaderboardPlaceholder.parse(params);
+            if (leaderboardPlaceholders.size() < MAX_LEADERBOARD_PARAMS) {
+                leaderboardPlaceholders.put(params, placeholder);
+            }
+        }
+        if (placeholder == LeaderboardPlaceholder.NONE) return null;
+        
+        StatsService statsService = plugin.getStatsService();
+        return statsService != null ? placeholder.resolve(statsService.getLeaderboard(), player) : null;
+    }
+
     @Override
     public @Nullable String onPlaceholderRequest(Player player, @NotNull String params) {
+        long start = plugin.getPerfMonitor().start();
+        try {
+            return resolve(player, params);
+        } finally {
+            plugin.getGameManager().getTimings().stop(Subsystem.PLACEHOLDERS, start);
+        }
+    }
+
+    /**
+     * Resolves a placeholder, may run off the main thread
+     * @param player The player, may be null
+     * @param params The params
+     * @return The value, or null if the params are unknown
+     */
+    private @Nullable String resolve(Player player, String params) {
+        Placeholder placeholder = Placeholder.fromKey(params);
+        if (placeholder == null) return onLeaderboardRequest(player, params);
+        if (placeholder.isGlobal()) return cache.getGlobal(placeholder);
+        
+        // Player Stats (requires player)
+        // Read from the published snapshot, placeholders may run off the main thread
+        if (placeholder.getStat() != null) {
+            return player != null ? cache.getStat(player.getUniqueId(), placeholder.getStat()) : "0";
+        }
+        
         GameManager gameManager = plugin.getGameManager();
         GamePlayer gamePlayer = player != null ? gameManager.getGamePlayer(player) : null;
         
-        switch (params.toLowerCase()) {
-            // Game State
-            case "state":
-                return gameManager.getState().name();
-            
-            case "state_formatted":
-                return formatState(gameManager.getState());
-            
-            // Player Counts
-            case "players":
-                return String.valueOf(gameManager.getPlayers().size());
-            
-            case "players_alive":
-                return String.valueOf(gameManager.getAliveCount());
-            
-            case "max_players":
-                return String.valueOf(plugin.getConfig().getInt("game.max-players", 16));
-            
-            case "min_players":
-                return String.valueOf(plugin.getConfig().getInt("game.min-players", 2));
-            
-            case "spectators":
-                return String.valueOf(gameManager.getSpectators().size());
-            
-            // Game Time
-            case "time":
-                return formatTime(gameManager.getGameTime());
-            
-            case "time_seconds":
-                return String.valueOf(gameManager.getGameTime() / 1000);
-            
-            // Player Stats (requires player)
-            case "kills":
-                return gamePlayer != null ? String.valueOf(gamePlayer.getKills()) : "0";
-            
-            case "blocks_broken":
-                return gamePlayer != null ? String.valueOf(gamePlayer.getBlocksBroken()) : "0";
-            
-            case "blocks_placed":
-                return gamePlayer != null ? String.valueOf(gamePlayer.getBlocksPlaced()) : "0";
-            
-            case "items_collected":
-                return gamePlayer != null ? String.valueOf(gamePlayer.getItemsCollected()) : "0";
-            
+        switch (placeholder) {
             // Player State
-            case "in_game":
-                return gameManager.isPlaying(player) ? "true" : "false";
+            case IN_GAME:
+                return gamePlayer != null ? "true" : "false";
             
-            case "spectating":
-                return gameManager.isSpectating(player) ? "true" : "false";
+            case SPECTATING:
+                return player != null && gameManager.isSpectating(player) ? "true" : "false";
             
-            case "alive":
+            case ALIVE:
                 return gamePlayer != null && gamePlayer.isAlive() ? "true" : "false";
             
-            case "frozen":
+            case FROZEN:
                 return gamePlayer != null && gamePlayer.isFrozen() ? "true" : "false";
             
             default:
                 return null;
         }
     }
-
-    /**
-     * Formats a game state to a readable string
-     * @param state The game state
-     * @return Formatted state string
-     */
-    private String formatState(GameState state) {
-        switch (state) {
-            case LOBBY:
-                return "Waiting";
-            case STARTING:
-                return "Starting";
-            case ACTIVE:
-                return "In Game";
-            case ENDING:
-                return "Ending";
-            case RESETTING:
-                return "Resetting";
-            default:
-                return state.name();
-        }
-    }
-
-    /**
-     * Formats milliseconds to a time string (MM:SS)
-     * @param millis The milliseconds
-     * @return Formatted time string
-     */
-    private String formatTime(long millis) {
-        long seconds = millis / 1000;
-        long minutes = seconds / 60;
-        seconds = seconds % 60;
-        return String.format("%02d:%02d", minutes, seconds);
-    }
 }
@@ -0,0 +1,97 @@
+package com.openpillars.placeholders;
+
+import com.openpillars.game.ArenaStats;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The placeholders provided by {@link PillarsExpansion}.
+ * Global placeholders are the same for every player and are rendered once per tick,
+ * stat placeholders are cached per player.
+ */
+public enum Placeholder {
+
+    // Game state
+    STATE("state", true),
+    STATE_FORMATTED("state_formatted", true),
+
+    // Player counts
+    PLAYERS("players", true),
+    PLAYERS_ALIVE("players_alive", true),
+    MAX_PLAYERS("max_players", true),
+    MIN_PLAYERS("min_players", true),
+    SPECTATORS("spectators", true),
+
+    // Game time
+    TIME("time", true),
+    TIME_SECONDS("time_seconds", true),
+
+    // Player stats
+    KILLS("kills", ArenaStats.Stat.KILLS),
+    BLOCKS_BROKEN("blocks_broken", ArenaStats.Stat.BLOCKS_BROKEN),
+    BLOCKS_PLACED("blocks_placed", ArenaStats.Stat.BLOCKS_PLACED),
+    ITEMS_COLLECTED("items_collected", ArenaStats.Stat.ITEMS_COLLECTED),
+
+    // Player state
+    IN_GAME("in_game", false),
+    SPECTATING("spectating", false),
+    ALIVE("alive", false),
+    FROZEN("frozen", false);
+
+    private static final Map<String, Placeholder> BY_KEY = new HashMap<>();
+
+    static {
+        for (Placeholder placeholder : values()) {
+            BY_KEY.put(placeholder.key, placeholder);
+        }
+    }
+
+    private final String key;
+    private final boolean global;
+    private final ArenaStats.Stat stat;
+
+    Placeholder(String key, boolean global) {
+        this.key = key;
+        this.global = global;
+        this.stat = null;
+    }
+
+    Placeholder(String key, ArenaStats.Stat stat) {
+        this.key = key;
+        this.global = false;
+        this.stat = stat;
+    }
+
+    /**
+     * Looks up a placeholder by its params. Params are almost always
+     * lowercase already, so they are only lowercased on a miss.
+     * @param params The params after "openpillars_"
+     * @return The placeholder, or null if unknown
+     */
+    public static Placeholder fromKey(String params) {
+        Placeholder placeholder = BY_KEY.get(params);
+        return placeholder != null ? placeholder : BY_KEY.get(params.toLowerCase(Locale.ROOT));
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Checks if the value is the same for every player
+     * @return true for game-wide placeholders
+     */
+    public boolean isGlobal() {
+        return global;
+    }
+
+    /**
+     * Gets the stat shown by this placeholder
+     * @return The stat, or null if this is not a stat placeholder
+     */
+    public ArenaStats.Stat getStat() {
+        return stat;
+    }
+}
@@ -0,0 +1,195 @@
+package com.openpillars.placeholders;
+
+import com.openpillars.OpenPillars;
+import com.openpillars.game.ArenaStats;
+import com.openpillars.game.GameManager;
+import com.openpillars.game.GameState;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pre-rendered placeholder values of an arena.
+ *
+ * Global values are rendered into one array at most once per server tick, on
+ * whichever thread asks first. Stat values are cached per player and only
+ * re-rendered when that player's row in the published {@link ArenaStats}
+ * snapshot changes. Safe to use from any thread.
+ */
+public class PlaceholderCache {
+
+    private static final Placeholder[] PLACEHOLDERS = Placeholder.values();
+    private static final ArenaStats.Stat[] STATS = ArenaStats.Stat.values();
+    private static final String ZERO = "0";
+
+    private final OpenPillars plugin;
+    private final GameManager gameManager;
+    private final Map<UUID, PlayerValues> players;
+
+    private volatile ArenaStats source;
+    private volatile long tick;
+    private volatile GlobalValues globals;
+    private BukkitTask ticker;
+
+    public PlaceholderCache(OpenPillars plugin, GameManager gameManager) {
+        this.plugin = plugin;
+        this.gameManager = gameManager;
+        this.players = new ConcurrentHashMap<>();
+        this.globals = new GlobalValues(-1, new String[PLACEHOLDERS.length]);
+    }
+
+    /**
+     * Starts counting server ticks
+     */
+    public void start() {
+        if (ticker == null) {
+            ticker = Bukkit.getScheduler().runTaskTimer(plugin, () -> tick++, 1L, 1L);
+        }
+    }
+
+    /**
+     * Gets the value of a global placeholder
+     * @param placeholder A placeholder with {@link Placeholder#isGlobal()}
+     * @return The rendered value
+     */
+    public String getGlobal(Placeholder placeholder) {
+        GlobalValues current = globals;
+        long now = tick;
+        if (current.tick != now) {
+            // Two threads may render the same tick at once, both results are equal
+            current = new GlobalValues(now, renderGlobals());
+            globals = current;
+        }
+        return current.values[placeholder.ordinal()];
+    }
+
+    /**
+     * Gets a player's stat from the last published stats snapshot
+     * @param uuid The player's UUID
+     * @param stat The stat
+     * @return The rendered value, "0" if the player is not in the game
+     */
+    public String getStat(UUID uuid, ArenaStats.Stat stat) {
+        ArenaStats stats = gameManager.getStats();
+        if (stats != source) {
+            // Row versions are only comparable within one store
+            players.clear();
+            source = stats;
+        }
+
+        ArenaStats.Snapshot snapshot = stats.getSnapshot();
+        PlayerValues cached = players.get(uuid);
+        if (cached != null && cached.isCurrent(snapshot, uuid)) {
+            return cached.values[stat.ordinal()];
+        }
+
+        int slot = snapshot.slotOf(uuid);
+        if (slot < 0) {
+            // Not playing, nothing worth keeping around
+            if (cached != null) {
+                players.remove(uuid);
+            }
+            return ZERO;
+        }
+
+        PlayerValues values = new PlayerValues(snapshot, slot);
+        players.put(uuid, values);
+        return values.values[stat.ordinal()];
+    }
+
+    private String[] renderGlobals() {
+        String[] values = new String[PLACEHOLDERS.length];
+        GameState state = gameManager.getState();
+        long gameTime = gameManager.getGameTime();
+
+        values[Placeholder.STATE.ordinal()] = state.name();
+        values[Placeholder.STATE_FORMATTED.ordinal()] = formatState(state);
+        values[Placeholder.PLAYERS.ordinal()] = String.valueOf(gameManager.getPlayerCount());
+        values[Placeholder.PLAYERS_ALIVE.ordinal()] = String.valueOf(gameManager.getAliveCount());
+        values[Placeholder.MAX_PLAYERS.ordinal()] = String.valueOf(plugin.getConfig().getInt("game.max-players", 16));
+        values[Placeholder.MIN_PLAYERS.ordinal()] = String.valueOf(plugin.getConfig().getInt("game.min-players", 2));
+        values[Placeholder.SPECTATORS.ordinal()] = String.valueOf(gameManager.getSpectators().size());
+        values[Placeholder.TIME.ordinal()] = formatTime(gameTime);
+        values[Placeholder.TIME_SECONDS.ordinal()] = String.valueOf(gameTime / 1000);
+        return values;
+    }
+
+    /**
+     * Formats a game state to a readable string
+     * @param state The game state
+     * @return Formatted state string
+     */
+    private static String formatState(GameState state) {
+        switch (state) {
+            case LOBBY:
+                return "Waiting";
+            case STARTING:
+                return "Starting";
+            case ACTIVE:
+                return "In Game";
+            case ENDING:
+                return "Ending";
+            case RESETTING:
+                return "Resetting";
+            default:
+                return state.name();
+        }
+    }
+
+    /**
+     * Formats milliseconds to a time string (MM:SS)
+     * @param millis The milliseconds
+     * @return Formatted time string
+     */
+    private static String formatTime(long millis) {
+        long seconds = millis / 1000;
+        long minutes = seconds / 60;
+        seconds = seconds % 60;
+
+        StringBuilder time = new StringBuilder(5);
+        if (minutes < 10) time.append('0');
+        time.append(minutes).append(':');
+        if (seconds < 10) time.append('0');
+        return time.append(seconds).toString();
+    }
+
+    /**
+     * Global values rendered for one tick
+     */
+    private static final class GlobalValues {
+        private final long tick;
+        private final String[] values;
+
+        private GlobalValues(long tick, String[] values) {
+            this.tick = tick;
+            this.values = values;
+        }
+    }
+
+    /**
+     * A player's stat values rendered from one version of their stats row
+     */
+    private static final class PlayerValues {
+        private final int slot;
+        private final int version;
+        private final String[] values;
+
+        private PlayerValues(ArenaStats.Snapshot snapshot, int slot) {
+            this.slot = slot;
+            this.version = snapshot.getVersion(slot);
+            this.values = new String[STATS.length];
+            for (ArenaStats.Stat stat : STATS) {
+                values[stat.ordinal()] = String.valueOf(snapshot.get(stat, slot));
+            }
+        }
+
+        private boolean isCurrent(ArenaStats.Snapshot snapshot, UUID uuid) {
+            return slot < snapshot.size()
+                    && snapshot.getVersion(slot) == version
+                    && uuid.equals(snapshot.getPlayer(slot));
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.openpillars.stats;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Stores stats in a SQL database over JDBC, by default a SQLite file using
+ * the driver bundled with the server. Each batch is written in a single
+ * transaction: batched increments first, inserts only for players without a row.
+ * Sticks to plain UPDATE and INSERT so old SQLite and MySQL versions work alike.
+ */
+public class JdbcStatsStorage implements StatsStorage {
+
+    private static final LifetimeStat[] STATS = LifetimeStat.values();
+    private static final String TABLE = "openpillars_stats";
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private Connection connection;
+
+    public JdbcStatsStorage(String url, String username, String password) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
+
+    @Override
+    public void open() throws IOException {
+        try {
+            if (url.startsWith("jdbc:sqlite:")) {
+                // Old servers do not register the bundled driver on their own
+                try {
+                    Class.forName("org.sqlite.JDBC");
+                } catch (ClassNotFoundException ignored) { }
+            }
+            connection = username == null || username.isEmpty()
+                    ? DriverManager.getConnection(url)
+                    : DriverManager.getConnection(url, username, password);
+
+            StringBuilder create = new StringBuilder("CREATE TABLE IF NOT EXISTS " + TABLE
+                    + " (uuid VARCHAR(36) NOT NULL PRIMARY KEY, name VARCHAR(16)");
+            for (LifetimeStat stat : STATS) {
+                create.append(", ").append(stat.getKey()).append(" INT NOT NULL DEFAULT 0");
+            }
+            create.append(')');
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate(create.toString());
+            }
+        } catch (SQLException e) {
+            close();
+            throw new IOException("Could not open stats database " + url, e);
+        }
+    }
+
+    @Override
+    public PlayerStats load(UUID uuid) throws IOException {
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT * FROM " + TABLE + " WHERE uuid = ?")) {
+            select.setString(1, uuid.toString());
+            try (ResultSet result = select.executeQuery()) {
+                if (!result.next()) return null;
+
+                return read(uuid, result);
+            }
+        } catch (SQLException e) {
+            throw new IOException("Could not load stats of " + uuid, e);
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<PlayerStats> action) throws IOException {
+        try (Statement select = connection.createStatement();
+             ResultSet result = select.executeQuery("SELECT * FROM " + TABLE)) {
+            while (result.next()) {
+                UUID uuid;
+                try {
+                    uuid = UUID.fromString(result.getString("uuid"));
+                } catch (IllegalArgumentException e) {
+                    continue;
+                }
+                action.accept(read(uuid, result));
+            }
+        } catch (SQLException e) {
+            throw new IOException("Could not read stats", e);
+        }
+    }
+
+    private static PlayerStats read(UUID uuid, ResultSet result) throws SQLException {
+        PlayerStats stats = new PlayerStats(uuid, result.getString("name"));
+        for (LifetimeStat stat : STATS) {
+            stats.set(stat, result.getInt(stat.getKey()));
+        }
+        return stats;
+    }
+
+    @Override
+    public void addAll(Collection<PlayerStats> increments) throws IOException {
+        if (increments.isEmpty()) return;
+
+        List<PlayerStats> batch = new ArrayList<>(increments);
+        try {
+            connection.setAutoCommit(false);
+
+            int[] updated;
+            try (PreparedStatement update = connection.prepareStatement(updateSql())) {
+                for (PlayerStats increment : batch) {
+                    bind(update, increment, false);
+                    update.addBatch();
+                }
+                updated = update.executeBatch();
+            }
+
+            try (PreparedStatement insert = connection.prepareStatement(insertSql())) {
+                boolean pending = false;
+                for (int i = 0; i < batch.size(); i++) {
+                    // SUCCESS_NO_INFO counts as updated, the row exists
+                    if (updated[i] != 0) continue;
+                    bind(insert, batch.get(i), true);
+                    insert.addBatch();
+                    pending = true;
+                }
+                if (pending) {
+                    insert.executeBatch();
+                }
+            }
+
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            // Roll back before auto-commit is restored, which would commit the partial batch
+            try {
+                connection.rollback();
+            } catch (SQLException ignored) { }
+            throw new IOException("Could not save " + batch.size() + " stats update(s)", e);
+        } finally {
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException ignored) { }
+        }
+    }
+
+    private static String updateSql() {
+        StringBuilder sql = new StringBuilder("UPDATE " + TABLE + " SET name = COALESCE(?, name)");
+        for (LifetimeStat stat : STATS) {
+            sql.append(", ").append(stat.getKey()).append(" = ").append(stat.getKey()).append(" + ?");
+        }
+        return sql.append(" WHERE uuid = ?").toString();
+    }
+
+    private static String insertSql() {
+        StringBuilder columns = new StringBuilder("uuid, name");
+        StringBuilder values = new StringBuilder("?, ?");
+        for (LifetimeStat stat : STATS) {
+            columns.append(", ").append(stat.getKey());
+            values.append(", ?");
+        }
+        return "INSERT INTO " + TABLE + " (" + columns + ") VALUES (" + values + ")";
+    }
+
+    /**
+     * Binds an increment to the update (name, stats..., uuid) or insert (uuid, name, stats...) statement
+     */
+    private static void bind(PreparedStatement statement, PlayerStats stats, boolean insert) throws SQLException {
+        int index = 1;
+        if (insert) {
+            statement.setString(index++, stats.getUuid().toString());
+        }
+        statement.setString(index++, stats.getName());
+        for (LifetimeStat stat : STATS) {
+            statement.setInt(index++, stats.get(stat));
+        }
+        if (!insert) {
+            statement.setString(index, stats.getUuid().toString());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException ignored) { }
+            connection = null;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.openpillars.stats;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * In-memory ranking of every player's lifetime stats, one {@link RankedList}
+ * per stat. Built from storage at startup and updated with each game's
+ * results in O(log n) per stat, so top-N and rank lookups never sort.
+ * Lookups return pre-rendered strings and do not allocate. Safe from any thread.
+ */
+public class Leaderboard {
+
+    private static final LifetimeStat[] STATS = LifetimeStat.values();
+
+    private final RankedList[] lists;
+    private final Map<UUID, Entry> entries;
+
+    public Leaderboard() {
+        this.lists = new RankedList[STATS.length];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = new RankedList();
+        }
+        this.entries = new HashMap<>();
+    }
+
+    /**
+     * Adds stats to a player's totals, moving them in every list whose value changed
+     * @param stats The stats to add, either stored totals or a game's increment
+     */
+    public synchronized void add(PlayerStats stats) {
+        Entry entry = entries.get(stats.getUuid());
+        boolean added = entry == null;
+        if (added) {
+            entry = new Entry(stats.getUuid());
+            entries.put(entry.uuid, entry);
+        }
+        if (stats.getName() != null) {
+            entry.name = stats.getName();
+        }
+
+        for (LifetimeStat stat : STATS) {
+            int amount = stats.get(stat);
+            if (amount == 0 && !added) continue;
+
+            RankedList list = lists[stat.ordinal()];
+            RankedList.Node node = entry.nodes[stat.ordinal()];
+            if (!added) {
+                list.remove(node);
+            }
+            node.value += amount;
+            node.text = String.valueOf(node.value);
+            list.insert(node);
+        }
+    }
+
+    /**
+     * Gets the name of the player at a rank
+     * @param stat The stat
+     * @param rank The 1-based rank
+     * @return The name, or null if nobody holds that rank
+     */
+    public synchronized String getName(LifetimeStat stat, int rank) {
+        RankedList.Node node = lists[stat.ordinal()].get(rank);
+        return node != null ? node.entry.name : null;
+    }
+
+    /**
+     * Gets the value at a rank
+     * @param stat The stat
+     * @param rank The 1-based rank
+     * @return The value as text, or null if nobody holds that rank
+     */
+    public synchronized String getValue(LifetimeStat stat, int rank) {
+        RankedList.Node node = lists[stat.ordinal()].get(rank);
+        return node != null ? node.text : null;
+    }
+
+    /**
+     * Gets a player's rank
+     * @param stat The stat
+     * @param uuid The player's UUID
+     * @return The 1-based rank, or 0 if the player has no stats
+     */
+    public synchronized int getRank(LifetimeStat stat, UUID uuid) {
+        Entry entry = entries.get(uuid);
+        return entry != null ? lists[stat.ordinal()].rankOf(entry.nodes[stat.ordinal()]) : 0;
+    }
+
+    /**
+     * Gets the number of ranked players
+     * @return The player count
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * A ranked player, with one node in every list
+     */
+    static final class Entry {
+        private final UUID uuid;
+        private final RankedList.Node[] nodes;
+        private String name;
+
+        private Entry(UUID uuid) {
+            this.uuid = uuid;
+            this.nodes = new RankedList.Node[STATS.length];
+            for (int i = 0; i < nodes.length; i++) {
+                nodes[i] = RankedList.newNode(this);
+            }
+        }
+
+        UUID getUuid() {
+            return uuid;
+        }
+    }
+}
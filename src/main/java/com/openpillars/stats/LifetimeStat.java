@@ -0,0 +1,26 @@
+package com.openpillars.stats;
+
+/**
+ * The stats kept for a player across all games
+ */
+public enum LifetimeStat {
+    WINS("wins"),
+    KILLS("kills"),
+    BLOCKS_BROKEN("blocks_broken"),
+    ITEMS_COLLECTED("items_collected"),
+    GAMES_PLAYED("games_played");
+
+    private final String key;
+
+    LifetimeStat(String key) {
+        this.key = key;
+    }
+
+    /**
+     * Gets the key used by storage backends, as a YAML key or column name
+     * @return The storage key
+     */
+    public String getKey() {
+        return key;
+    }
+}
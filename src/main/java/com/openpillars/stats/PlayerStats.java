@@ -0,0 +1,69 @@
+package com.openpillars.stats;
+
+import java.util.UUID;
+
+/**
+ * Lifetime stats of one player, or an increment to them waiting to be written.
+ * Not thread-safe, instances are handed between threads, never shared.
+ */
+public class PlayerStats {
+
+    private static final LifetimeStat[] STATS = LifetimeStat.values();
+
+    private final UUID uuid;
+    private String name;
+    private final int[] values;
+
+    public PlayerStats(UUID uuid, String name) {
+        this.uuid = uuid;
+        this.name = name;
+        this.values = new int[STATS.length];
+    }
+
+    public UUID getUuid() {
+        return uuid;
+    }
+
+    /**
+     * Gets the last known name of the player
+     * @return The name, may be null if it was never recorded
+     */
+    public String getName() {
+        return name;
+    }
+
+    public int get(LifetimeStat stat) {
+        return values[stat.ordinal()];
+    }
+
+    public void set(LifetimeStat stat, int value) {
+        values[stat.ordinal()] = value;
+    }
+
+    public void add(LifetimeStat stat, int amount) {
+        values[stat.ordinal()] += amount;
+    }
+
+    /**
+     * Adds every value of another record to this one, taking its name if it has one
+     * @param other The stats to add
+     */
+    public void merge(PlayerStats other) {
+        if (other.name != null) {
+            this.name = other.name;
+        }
+        for (int i = 0; i < values.length; i++) {
+            values[i] += other.values[i];
+        }
+    }
+
+    /**
+     * Creates an independent copy
+     * @return The copy
+     */
+    public PlayerStats copy() {
+        PlayerStats copy = new PlayerStats(uuid, name);
+        System.arraycopy(values, 0, copy.values, 0, values.length);
+        return copy;
+    }
+}
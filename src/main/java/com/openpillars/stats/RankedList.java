@@ -0,0 +1,163 @@
+package com.openpillars.stats;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Indexable skip list of leaderboard entries for one stat, highest value first
+ * and ties broken by UUID. Every link also stores how many entries it skips,
+ * so finding the entry at a rank and the rank of an entry both take O(log n).
+ * Not thread-safe, {@link Leaderboard} guards it.
+ */
+final class RankedList {
+
+    private static final int MAX_LEVEL = 32;
+
+    private final Node head;
+    // Search paths, reused by every insert and remove
+    private final Node[] update;
+    private final int[] rank;
+    private int level;
+    private int size;
+
+    RankedList() {
+        this.head = new Node(null, MAX_LEVEL);
+        this.update = new Node[MAX_LEVEL];
+        this.rank = new int[MAX_LEVEL];
+        this.level = 1;
+    }
+
+    /**
+     * Creates a node for an entry, with a random height
+     */
+    static Node newNode(Leaderboard.Entry entry) {
+        int height = 1;
+        while (height < MAX_LEVEL && ThreadLocalRandom.current().nextInt(4) == 0) {
+            height++;
+        }
+        return new Node(entry, height);
+    }
+
+    void insert(Node x) {
+        Node node = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            while (node.next[i] != null && before(node.next[i], x)) {
+                rank[i] += node.span[i];
+                node = node.next[i];
+            }
+            update[i] = node;
+        }
+
+        int height = x.next.length;
+        if (height > level) {
+            for (int i = level; i < height; i++) {
+                rank[i] = 0;
+                update[i] = head;
+                head.span[i] = size;
+            }
+            level = height;
+        }
+
+        for (int i = 0; i < height; i++) {
+            x.next[i] = update[i].next[i];
+            update[i].next[i] = x;
+            x.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = (rank[0] - rank[i]) + 1;
+        }
+        for (int i = height; i < level; i++) {
+            update[i].span[i]++;
+        }
+        size++;
+    }
+
+    void remove(Node x) {
+        Node node = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (node.next[i] != null && before(node.next[i], x)) {
+                node = node.next[i];
+            }
+            update[i] = node;
+        }
+        if (update[0].next[0] != x) return;
+
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == x) {
+                update[i].span[i] += x.span[i] - 1;
+                update[i].next[i] = x.next[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+        size--;
+    }
+
+    /**
+     * Gets the entry at a rank
+     * @param position The 1-based rank
+     * @return The node, or null if there are fewer entries
+     */
+    Node get(int position) {
+        if (position < 1 || position > size) return null;
+
+        Node node = head;
+        int traversed = 0;
+        for (int i = level - 1; i >= 0; i--) {
+            while (node.next[i] != null && traversed + node.span[i] <= position) {
+                traversed += node.span[i];
+                node = node.next[i];
+            }
+            if (traversed == position) return node;
+        }
+        return null;
+    }
+
+    /**
+     * Gets the rank of a node in the list
+     * @param x The node
+     * @return The 1-based rank, or 0 if the node is not in the list
+     */
+    int rankOf(Node x) {
+        Node node = head;
+        int traversed = 0;
+        for (int i = level - 1; i >= 0; i--) {
+            while (node.next[i] != null && (node.next[i] == x || before(node.next[i], x))) {
+                traversed += node.span[i];
+                node = node.next[i];
+            }
+            if (node == x) return traversed;
+        }
+        return 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private static boolean before(Node a, Node b) {
+        if (a.value != b.value) return a.value > b.value;
+        UUID first = a.entry.getUuid();
+        return first.compareTo(b.entry.getUuid()) < 0;
+    }
+
+    /**
+     * A player's position in one list, with the value pre-rendered for placeholders
+     */
+    static final class Node {
+        final Leaderboard.Entry entry;
+        final Node[] next;
+        final int[] span;
+        int value;
+        String text;
+
+        private Node(Leaderboard.Entry entry, int height) {
+            this.entry = entry;
+            this.next = new Node[height];
+            this.span = new int[height];
+            this.text = "0";
+        }
+    }
+}
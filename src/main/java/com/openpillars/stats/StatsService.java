@@ -0,0 +1,183 @@
+package com.openpillars.stats;
+
+import com.openpillars.OpenPillars;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Lifetime player stats with write-behind persistence.
+ *
+ * Game results are merged into a pending increment per player on the main
+ * thread, which only ever holds a lock for that merge. Every
+ * settings.auto-save-interval seconds the pending increments are swapped out
+ * and written as one batch on a dedicated I/O thread, so the main thread
+ * never waits on storage.
+ *
+ * A {@link Leaderboard} of all stored players is loaded once the storage is
+ * open and then kept current with every recorded result.
+ */
+public class StatsService {
+
+    private final OpenPillars plugin;
+    private final Object lock;
+    private final Leaderboard leaderboard;
+    private Map<UUID, PlayerStats> pending;
+
+    private ExecutorService executor;
+    private volatile StatsStorage storage;
+    private BukkitTask flushTask;
+
+    public StatsService(OpenPillars plugin) {
+        this.plugin = plugin;
+        this.lock = new Object();
+        this.leaderboard = new Leaderboard();
+        this.pending = new HashMap<>();
+    }
+
+    /**
+     * Opens the configured storage in the background and starts the flush timer
+     */
+    public void start() {
+        storage = createStorage();
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "OpenPillars Stats I/O");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        StatsStorage opening = storage;
+        executor.execute(() -> {
+            try {
+                opening.open();
+                // Results recorded meanwhile are not stored yet, adding both is correct
+                opening.forEach(leaderboard::add);
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.SEVERE, "Could not open stats storage, stats will not be saved", e);
+                storage = null;
+            }
+        });
+
+        long interval = Math.max(1, plugin.getConfig().getLong("settings.auto-save-interval", 300)) * 20L;
+        flushTask = Bukkit.getScheduler().runTaskTimer(plugin, this::flush, interval, interval);
+    }
+
+    private StatsStorage createStorage() {
+        String type = plugin.getConfig().getString("stats.storage", "file").toLowerCase();
+        switch (type) {
+            case "sqlite": {
+                File file = new File(plugin.getDataFolder(), plugin.getConfig().getString("stats.sqlite.file", "stats.db"));
+                return new JdbcStatsStorage("jdbc:sqlite:" + file.getAbsolutePath(), null, null);
+            }
+            case "jdbc":
+                return new JdbcStatsStorage(plugin.getConfig().getString("stats.jdbc.url", ""),
+                        plugin.getConfig().getString("stats.jdbc.username", ""),
+                        plugin.getConfig().getString("stats.jdbc.password", ""));
+            case "file":
+                break;
+            default:
+                plugin.getLogger().warning("Unknown stats storage '" + type + "', using file");
+                break;
+        }
+        return new YamlStatsStorage(new File(plugin.getDataFolder(), "stats.yml"));
+    }
+
+    /**
+     * Queues an increment to a player's lifetime stats, merged with any unsaved one
+     * @param increment The amounts to add
+     */
+    public void record(PlayerStats increment) {
+        leaderboard.add(increment);
+        synchronized (lock) {
+            PlayerStats queued = pending.get(increment.getUuid());
+            if (queued == null) {
+                pending.put(increment.getUuid(), increment.copy());
+            } else {
+                queued.merge(increment);
+            }
+        }
+    }
+
+    /**
+     * Hands every pending increment to the I/O thread as one batch
+     */
+    public void flush() {
+        if (executor == null) return;
+
+        Map<UUID, PlayerStats> batch;
+        synchronized (lock) {
+            if (pending.isEmpty()) return;
+            batch = pending;
+            pending = new HashMap<>();
+        }
+        executor.execute(() -> write(batch));
+    }
+
+    private void write(Map<UUID, PlayerStats> batch) {
+        StatsStorage current = storage;
+        if (current == null) return;
+
+        try {
+            current.addAll(batch.values());
+        } catch (IOException | RuntimeException e) {
+            // addAll applies nothing when it fails, so the batch can simply be retried
+            plugin.getLogger().log(Level.WARNING, "Could not save stats, retrying with the next batch", e);
+            // Put the increments back in front of anything queued meanwhile
+            synchronized (lock) {
+                for (PlayerStats increment : pending.values()) {
+                    PlayerStats failed = batch.get(increment.getUuid());
+                    if (failed == null) {
+                        batch.put(increment.getUuid(), increment);
+                    } else {
+                        failed.merge(increment);
+                    }
+                }
+                pending = batch;
+            }
+        }
+    }
+
+    /**
+     * Gets the ranking of all players' lifetime stats
+     * @return The leaderboard
+     */
+    public Leaderboard getLeaderboard() {
+        return leaderboard;
+    }
+
+    /**
+     * Writes everything still pending and closes the storage. Blocks, only used on shutdown.
+     */
+    public void stop() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        if (executor == null) return;
+
+        flush();
+        executor.execute(() -> {
+            if (storage != null) {
+                storage.close();
+            }
+        });
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("Timed out saving stats, the latest results may be lost");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+    }
+}
@@ -0,0 +1,48 @@
+package com.openpillars.stats;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * A backend that persists lifetime player stats.
+ * Only ever called from the stats I/O thread, one call at a time.
+ */
+public interface StatsStorage {
+
+    /**
+     * Opens the storage, creating it if needed
+     * @throws IOException if the storage cannot be opened
+     */
+    void open() throws IOException;
+
+    /**
+     * Loads a player's stats
+     * @param uuid The player's UUID
+     * @return The stats, or null if nothing is stored for the player
+     * @throws IOException if reading fails
+     */
+    PlayerStats load(UUID uuid) throws IOException;
+
+    /**
+     * Reads the stats of every stored player
+     * @param action Called once per player
+     * @throws IOException if reading fails
+     */
+    void forEach(Consumer<PlayerStats> action) throws IOException;
+
+    /**
+     * Adds a batch of increments to the stored stats, as one write where the backend allows.
+     * Must be all or nothing: a failed batch is queued again and retried, so one that
+     * throws must not have applied any of its increments.
+     * @param increments The increments, at most one per player
+     * @throws IOException if writing fails, with nothing applied
+     */
+    void addAll(Collection<PlayerStats> increments) throws IOException;
+
+    /**
+     * Closes the storage
+     */
+    void close();
+}
@@ -0,0 +1,121 @@
+package com.openpillars.stats;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Stores stats in a YAML file in the plugin folder, the default backend.
+ * The whole file is kept in memory and rewritten once per batch, through a
+ * temporary file so a crash mid-write never leaves it half written. A batch
+ * that cannot be written is taken back out of memory as well.
+ */
+public class YamlStatsStorage implements StatsStorage {
+
+    private static final LifetimeStat[] STATS = LifetimeStat.values();
+
+    private final File file;
+    private YamlConfiguration data;
+
+    public YamlStatsStorage(File file) {
+        this.file = file;
+    }
+
+    @Override
+    public void open() throws IOException {
+        if (file.exists()) {
+            data = YamlConfiguration.loadConfiguration(file);
+        } else {
+            data = new YamlConfiguration();
+        }
+    }
+
+    @Override
+    public PlayerStats load(UUID uuid) {
+        ConfigurationSection section = data.getConfigurationSection(uuid.toString());
+        if (section == null) return null;
+
+        PlayerStats stats = new PlayerStats(uuid, section.getString("name"));
+        for (LifetimeStat stat : STATS) {
+            stats.set(stat, section.getInt(stat.getKey(), 0));
+        }
+        return stats;
+    }
+
+    @Override
+    public void forEach(Consumer<PlayerStats> action) {
+        for (String key : data.getKeys(false)) {
+            UUID uuid;
+            try {
+                uuid = UUID.fromString(key);
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            PlayerStats stats = load(uuid);
+            if (stats != null) {
+                action.accept(stats);
+            }
+        }
+    }
+
+    @Override
+    public void addAll(Collection<PlayerStats> increments) throws IOException {
+        if (increments.isEmpty()) return;
+
+        // Previous values of every changed key, put back if the file cannot be written
+        Map<String, Object> previous = new HashMap<>();
+        for (PlayerStats increment : increments) {
+            String path = increment.getUuid().toString();
+            if (increment.getName() != null) {
+                change(path + ".name", increment.getName(), previous);
+            }
+            for (LifetimeStat stat : STATS) {
+                int amount = increment.get(stat);
+                if (amount != 0) {
+                    String key = path + "." + stat.getKey();
+                    change(key, data.getInt(key, 0) + amount, previous);
+                }
+            }
+        }
+
+        try {
+            File parent = file.getParentFile();
+            parent.mkdirs();
+            File temp = new File(parent, file.getName() + ".tmp");
+            Files.write(temp.toPath(), data.saveToString().getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            for (Map.Entry<String, Object> entry : previous.entrySet()) {
+                data.set(entry.getKey(), entry.getValue());
+            }
+            throw e;
+        }
+    }
+
+    private void change(String key, Object value, Map<String, Object> previous) {
+        if (!previous.containsKey(key)) {
+            previous.put(key, data.get(key));
+        }
+        data.set(key, value);
+    }
+
+    @Override
+    public void close() {
+        data = null;
+    }
+}
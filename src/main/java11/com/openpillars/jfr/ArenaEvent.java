@@ -0,0 +1,22 @@
+package com.openpillars.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Fields shared by every OpenPillars event. The elapsed time is measured by
+ * the caller with {@link GameEvents#start()}, see {@link JfrRecorder}.
+ */
+@Category("OpenPillars")
+@StackTrace(false)
+abstract class ArenaEvent extends jdk.jfr.Event {
+
+    @Label("Arena")
+    String arena;
+
+    @Label("Elapsed")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsed;
+}
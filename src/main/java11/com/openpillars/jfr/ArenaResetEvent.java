@@ -0,0 +1,11 @@
+package com.openpillars.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.openpillars.ArenaReset")
+@Label("Arena Reset")
+@Description("An arena reset, from clearing the pillars until it is back in the lobby")
+class ArenaResetEvent extends ArenaEvent {
+}
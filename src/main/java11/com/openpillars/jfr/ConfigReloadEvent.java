@@ -0,0 +1,11 @@
+package com.openpillars.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.openpillars.ConfigReload")
+@Label("Config Reload")
+@Description("The configuration files were reloaded")
+class ConfigReloadEvent extends ArenaEvent {
+}
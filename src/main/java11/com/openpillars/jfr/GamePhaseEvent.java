@@ -0,0 +1,17 @@
+package com.openpillars.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.openpillars.GamePhase")
+@Label("Game Phase")
+@Description("An arena moved to another game phase, elapsed is the time spent in the previous one")
+class GamePhaseEvent extends ArenaEvent {
+
+    @Label("From")
+    String from;
+
+    @Label("To")
+    String to;
+}
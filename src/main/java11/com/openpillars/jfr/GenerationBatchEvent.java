@@ -0,0 +1,14 @@
+package com.openpillars.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.openpillars.GenerationBatch")
+@Label("Generation Batch")
+@Description("One pass of pillar generation over every alive player")
+class GenerationBatchEvent extends ArenaEvent {
+
+    @Label("Players")
+    int players;
+}
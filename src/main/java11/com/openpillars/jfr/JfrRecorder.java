@@ -0,0 +1,81 @@
+package com.openpillars.jfr;
+
+/**
+ * Commits OpenPillars events to JDK Flight Recorder, loaded by {@link GameEvents}.
+ *
+ * JFR's own start time and duration would need the event object carried from
+ * the start of an operation to its end, so the caller passes a nanoTime start
+ * instead and the time taken goes into the elapsed field. Each event is only
+ * filled in and committed if a running recording has it enabled.
+ */
+class JfrRecorder implements Recorder {
+
+    JfrRecorder() {
+    }
+
+    @Override
+    public void phaseChanged(String arena, String from, String to, long phaseStart) {
+        GamePhaseEvent event = new GamePhaseEvent();
+        if (!event.isEnabled()) return;
+
+        fill(event, arena, phaseStart);
+        event.from = from;
+        event.to = to;
+        event.commit();
+    }
+
+    @Override
+    public void generationBatch(String arena, long start, int players) {
+        GenerationBatchEvent event = new GenerationBatchEvent();
+        if (!event.isEnabled()) return;
+
+        fill(event, arena, start);
+        event.players = players;
+        event.commit();
+    }
+
+    @Override
+    public void lootRoll(String arena, long start, String table, boolean dropped) {
+        LootRollEvent event = new LootRollEvent();
+        if (!event.isEnabled()) return;
+
+        fill(event, arena, start);
+        event.table = table;
+        event.dropped = dropped;
+        event.commit();
+    }
+
+    @Override
+    public void reset(String arena, long start) {
+        ArenaResetEvent event = new ArenaResetEvent();
+        if (!event.isEnabled()) return;
+
+        fill(event, arena, start);
+        event.commit();
+    }
+
+    @Override
+    public void massTeleport(String arena, long start, int players, String destination) {
+        MassTeleportEvent event = new MassTeleportEvent();
+        if (!event.isEnabled()) return;
+
+        fill(event, arena, start);
+        event.players = players;
+        event.destination = destination;
+        event.commit();
+    }
+
+    @Override
+    public void configReload(String arena, long start) {
+        ConfigReloadEvent event = new ConfigReloadEvent();
+        if (!event.isEnabled()) return;
+
+        fill(event, arena, start);
+        event.commit();
+    }
+
+    private static void fill(ArenaEvent event, String arena, long start) {
+        event.arena = arena;
+        event.elapsed = start != 0 ? System.nanoTime() - start : 0;
+    }
+}
@@ -0,0 +1,17 @@
+package com.openpillars.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.openpillars.LootRoll")
+@Label("Loot Roll")
+@Description("A roll on a loot table for a generated pillar block")
+class LootRollEvent extends ArenaEvent {
+
+    @Label("Table")
+    String table;
+
+    @Label("Dropped")
+    boolean dropped;
+}
@@ -0,0 +1,17 @@
+package com.openpillars.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.openpillars.MassTeleport")
+@Label("Mass Teleport")
+@Description("The players of an arena teleported together")
+class MassTeleportEvent extends ArenaEvent {
+
+    @Label("Players")
+    int players;
+
+    @Label("Destination")
+    String destination;
+}
@@ -0,0 +1,170 @@
+package com.openpillars.simulation;
+
+import com.openpillars.game.GameManager;
+import com.openpillars.game.GamePlayer;
+import com.openpillars.game.GameState;
+import com.openpillars.game.PillarGenerator;
+import com.openpillars.headless.HeadlessServer;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A scripted player. Every tick of an active game it may walk around, break
+ * the top block of its pillar, bridge out, hit another player, walk off into
+ * the void or disconnect, each decided by its own seeded random. Everything
+ * goes through the server's events, like a real client's actions would.
+ */
+final class Bot {
+
+    // Chances per tick while alive in an active game
+    private static final double MOVE = 0.2;
+    private static final double BREAK = 0.08;
+    private static final double PLACE = 0.03;
+    private static final double ATTACK = 0.02;
+    private static final double FALL = 0.0015;
+    private static final double QUIT = 0.0003;
+
+    private static final int BRIDGE_REACH = 3;
+
+    private final String name;
+    private final Random random;
+    private Player player;
+
+    Bot(String name, long seed) {
+        this.name = name;
+        this.random = new Random(seed);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the bot's player
+     * @return The player, or null while disconnected
+     */
+    Player getPlayer() {
+        return player;
+    }
+
+    boolean isOnline() {
+        return player != null;
+    }
+
+    /**
+     * Joins the server, as a new player object like after a reconnect
+     */
+    void connect() {
+        player = HeadlessServer.addPlayer(name);
+    }
+
+    /**
+     * Leaves the server
+     */
+    void disconnect() {
+        HeadlessServer.quit(player);
+        player = null;
+    }
+
+    /**
+     * Plays one tick
+     * @param game The arena the bot plays in
+     * @param bots Every bot, to pick opponents from
+     */
+    void tick(GameManager game, List<Bot> bots) {
+        if (player == null) return;
+
+        GameState state = game.getState();
+        if (state == GameState.STARTING) {
+            // Frozen on the pillar, but clients still send moves
+            if (chance(MOVE)) wander();
+            return;
+        }
+        if (state != GameState.ACTIVE || !isAlive(game)) return;
+
+        if (chance(QUIT)) {
+            disconnect();
+            return;
+        }
+        if (chance(FALL)) {
+            HeadlessServer.fallIntoVoid(player);
+            return;
+        }
+        if (chance(ATTACK)) {
+            Bot target = pickTarget(game, bots);
+            if (target != null) {
+                HeadlessServer.attack(player, target.player, 2 + random.nextInt(7));
+            }
+        }
+        if (chance(BREAK)) breakTop(game.getPillarGenerator());
+        if (chance(PLACE)) bridge(game.getPillarGenerator());
+        if (chance(MOVE)) wander();
+    }
+
+    private boolean isAlive(GameManager game) {
+        GamePlayer gamePlayer = game.getGamePlayer(player);
+        return gamePlayer != null && gamePlayer.isAlive();
+    }
+
+    private boolean chance(double probability) {
+        return random.nextDouble() < probability;
+    }
+
+    private void wander() {
+        Location to = player.getLocation().add(random.nextDouble() - 0.5, 0, random.nextDouble() - 0.5);
+        HeadlessServer.move(player, to);
+    }
+
+    private Bot pickTarget(GameManager game, List<Bot> bots) {
+        List<Bot> targets = new ArrayList<>();
+        for (Bot bot : bots) {
+            if (bot != this && bot.player != null && bot.isAlive(game)) {
+                targets.add(bot);
+            }
+        }
+        return targets.isEmpty() ? null : targets.get(random.nextInt(targets.size()));
+    }
+
+    /**
+     * Mines the highest block of the bot's own pillar for its loot
+     */
+    private void breakTop(PillarGenerator generator) {
+        PillarGenerator.PillarData pillar = generator.getPillarData(player.getUniqueId());
+        if (pillar == null) return;
+
+        Location top = null;
+        for (Location location : pillar.getBlocks()) {
+            if (top == null || location.getBlockY() > top.getBlockY()) {
+                top = location;
+            }
+        }
+        if (top != null) {
+            HeadlessServer.breakBlock(player, top.getBlock());
+        }
+    }
+
+    /**
+     * Places a block next to the bot's pillar, which the arena has to roll back later
+     */
+    private void bridge(PillarGenerator generator) {
+        PillarGenerator.PillarData pillar = generator.getPillarData(player.getUniqueId());
+        if (pillar == null || pillar.getCurrentHeight() == 0) return;
+
+        int dx = random.nextInt(2 * BRIDGE_REACH + 1) - BRIDGE_REACH;
+        int dz = random.nextInt(2 * BRIDGE_REACH + 1) - BRIDGE_REACH;
+        if (dx == 0 && dz == 0) return;
+
+        Block block = pillar.getBaseLocation().clone()
+                .add(dx, random.nextInt(pillar.getCurrentHeight()), dz)
+                .getBlock();
+        if (block.getType() == Material.AIR) {
+            HeadlessServer.placeBlock(player, block, Material.COBBLESTONE);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.openpillars.simulation;
+
+import com.openpillars.perf.LatencyHistogram;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What a simulation run measured: throughput, the time of every tick, heap
+ * samples taken after a full GC, and the invariants the games broke.
+ */
+final class SimulationReport {
+
+    private static final long TICK_BUDGET = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final int PRINTED_VIOLATIONS = 50;
+
+    private final int players;
+    private final long seed;
+    private final long startTime;
+    private final LatencyHistogram tickTimes;
+    private final List<long[]> heapSamples;
+    private final List<String> violations;
+    private int games;
+    private int wins;
+    private int draws;
+    private long overBudget;
+    private long slowestTick;
+    private int slowestTickGame;
+    private int violationCount;
+
+    SimulationReport(int players, long seed) {
+        this.players = players;
+        this.seed = seed;
+        this.startTime = System.nanoTime();
+        this.tickTimes = new LatencyHistogram();
+        this.heapSamples = new ArrayList<>();
+        this.violations = new ArrayList<>();
+    }
+
+    /**
+     * Records the time one tick took
+     * @param game The game the tick belonged to
+     * @param nanos The tick's duration
+     */
+    void tick(int game, long nanos) {
+        tickTimes.record(nanos);
+        if (nanos > TICK_BUDGET) {
+            overBudget++;
+        }
+        if (nanos > slowestTick) {
+            slowestTick = nanos;
+            slowestTickGame = game;
+        }
+    }
+
+    /**
+     * Records a finished game
+     * @param won true if the game had a winner, false for a draw
+     */
+    void gameEnded(boolean won) {
+        if (won) {
+            wins++;
+        } else {
+            draws++;
+        }
+    }
+
+    /**
+     * Counts a game played to the end, back in the lobby
+     */
+    void gamePlayed() {
+        games++;
+    }
+
+    /**
+     * Records the heap in use after a full GC
+     * @param game The games played so far
+     * @param usedBytes The heap in use
+     */
+    void heapSample(int game, long usedBytes) {
+        heapSamples.add(new long[] {game, usedBytes});
+    }
+
+    /**
+     * Records a broken invariant
+     * @param game The game it broke in
+     * @param description What went wrong
+     */
+    void violation(int game, String description) {
+        violationCount++;
+        if (violations.size() < PRINTED_VIOLATIONS) {
+            violations.add("game " + game + ": " + description);
+        }
+    }
+
+    int getViolations() {
+        return violationCount;
+    }
+
+    /**
+     * Prints a one-line progress update
+     * @param out Where to print
+     */
+    void printProgress(PrintStream out) {
+        double seconds = elapsedSeconds();
+        out.println(String.format(Locale.ROOT, "%d games, %.1f games/s, tick p99 %s, %d violation(s)",
+                games, games / seconds, formatNanos(tickTimes.percentile(0.99)), violationCount));
+    }
+
+    /**
+     * Prints the full report
+     * @param out Where to print
+     */
+    void print(PrintStream out) {
+        double seconds = elapsedSeconds();
+        long ticks = tickTimes.count();
+
+        out.println(String.format(Locale.ROOT, "Simulated %d games of %d players (seed %d) in %.1f s",
+                games, players, seed, seconds));
+        out.println(String.format(Locale.ROOT, "  Outcome:     %d won, %d draws", wins, draws));
+        out.println(String.format(Locale.ROOT, "  Throughput:  %.1f games/s, %.0f ticks/s (%d ticks)",
+                games / seconds, ticks / seconds, ticks));
+        out.println(String.format(Locale.ROOT, "  Tick time:   p50 %s, p99 %s, p99.9 %s, max %s in game %d",
+                formatNanos(tickTimes.percentile(0.5)), formatNanos(tickTimes.percentile(0.99)),
+                formatNanos(tickTimes.percentile(0.999)), formatNanos(slowestTick), slowestTickGame));
+        out.println(String.format(Locale.ROOT, "  Over budget: %d tick(s) above %s", overBudget, formatNanos(TICK_BUDGET)));
+
+        if (heapSamples.size() >= 2) {
+            long[] first = heapSamples.get(0);
+            long[] last = heapSamples.get(heapSamples.size() - 1);
+            out.println(String.format(Locale.ROOT, "  Heap:        %s after game %d, %s after game %d, %s per game",
+                    formatBytes(first[1]), first[0], formatBytes(last[1]), last[0], formatBytes((long) growthPerGame())));
+        }
+
+        out.println("  Violations:  " + violationCount);
+        for (String violation : violations) {
+            out.println("    " + violation);
+        }
+        if (violationCount > violations.size()) {
+            out.println("    ... and " + (violationCount - violations.size()) + " more");
+        }
+    }
+
+    /**
+     * Fits a line through the heap samples, so single noisy samples do not decide
+     * @return The heap growth in bytes per game
+     */
+    private double growthPerGame() {
+        int n = heapSamples.size();
+        double meanX = 0;
+        double meanY = 0;
+        for (long[] sample : heapSamples) {
+            meanX += sample[0];
+            meanY += sample[1];
+        }
+        meanX /= n;
+        meanY /= n;
+
+        double covariance = 0;
+        double variance = 0;
+        for (long[] sample : heapSamples) {
+            double dx = sample[0] - meanX;
+            covariance += dx * (sample[1] - meanY);
+            variance += dx * dx;
+        }
+        return variance == 0 ? 0 : covariance / variance;
+    }
+
+    private double elapsedSeconds() {
+        return Math.max(1, System.nanoTime() - startTime) / 1e9;
+    }
+
+    private static String formatNanos(long nanos) {
+        if (nanos < 1_000_000) return String.format(Locale.ROOT, "%.1f\u00b5s", nanos / 1_000.0);
+        return String.format(Locale.ROOT, "%.2fms", nanos / 1_000_000.0);
+    }
+
+    private static String formatBytes(long bytes) {
+        long magnitude = Math.abs(bytes);
+        if (magnitude < 1024) return bytes + " B";
+        if (magnitude < 1024 * 1024) return String.format(Locale.ROOT, "%.1f KiB", bytes / 1024.0);
+        return String.format(Locale.ROOT, "%.2f MiB", bytes / (1024.0 * 1024.0));
+    }
+}
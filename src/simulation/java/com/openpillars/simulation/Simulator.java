@@ -0,0 +1,285 @@
+package com.openpillars.simulation;
+
+import com.openpillars.OpenPillars;
+import com.openpillars.bus.GameEnded;
+import com.openpillars.game.GameManager;
+import com.openpillars.game.GameState;
+import com.openpillars.headless.HeadlessServer;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Plays full games with scripted bots on the {@link HeadlessServer}, to find
+ * leaks and tick time outliers that only show after thousands of games.
+ *
+ * Every game runs the real engine from join to reset: countdown, pillar
+ * generation, loot, block breaks and placements, kills, void deaths,
+ * disconnects and the block rollback. After each game the arena must be back
+ * to what it was before the first one: nobody bound to it, no pillars, no
+ * journaled blocks, no extra blocks in the world, no leftover tasks and no
+ * exceptions. Every broken invariant is reported with its game.
+ *
+ * The bots are seeded, so a run can be repeated with the same script. Pillar
+ * blocks and loot still come from the engine's own random and differ per run.
+ *
+ * Usage: Simulator [games] [players] [seed]
+ * Exits with 1 if any invariant was violated.
+ */
+public final class Simulator {
+
+    private static final int DEFAULT_GAMES = 10_000;
+    private static final int DEFAULT_PLAYERS = 16;
+
+    // The lobby counts as settled once the world stayed unchanged this long
+    private static final int SETTLE_TICKS = 40;
+    private static final int MAX_SETTLE_TICKS = 2_000;
+
+    // Heap samples taken over the run, each after a full GC
+    private static final int HEAP_SAMPLES = 100;
+    private static final int PROGRESS_REPORTS = 20;
+
+    private final OpenPillars plugin;
+    private final GameManager gameManager;
+    private final List<Bot> bots;
+    private final SimulationReport report;
+    private final MemoryMXBean memory;
+    private final int maxTicksPerGame;
+    private int currentGame;
+    private int baselineBlocks;
+    private int baselineTasks;
+    private long errors;
+
+    private Simulator(OpenPillars plugin, int players, long seed) {
+        this.plugin = plugin;
+        this.gameManager = plugin.getGameManager();
+        this.report = new SimulationReport(players, seed);
+        this.memory = ManagementFactory.getMemoryMXBean();
+
+        Random random = new Random(seed);
+        this.bots = new ArrayList<>(players);
+        for (int i = 0; i < players; i++) {
+            bots.add(new Bot("Bot" + i, random.nextLong()));
+        }
+
+        // Countdown, the game timer, the end screen and a slow rollback, with room to spare
+        int countdown = plugin.getConfig().getInt("game.countdown", 10);
+        int duration = plugin.getConfig().getInt("game.game-duration", 15);
+        this.maxTicksPerGame = 2 * (countdown * 20 + duration * 60 * 20 + 100) + MAX_SETTLE_TICKS;
+
+        plugin.getEventBus().channel(GameEnded.class).subscribe(event -> report.gameEnded(event.getWinner() != null));
+    }
+
+    public static void main(String[] args) throws IOException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PLAYERS;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.currentTimeMillis();
+        if (games < 1 || players < 2) {
+            System.err.println("Usage: Simulator [games] [players >= 2] [seed]");
+            System.exit(2);
+        }
+
+        Path dataFolder = Files.createTempDirectory("openpillars-simulation");
+        writeConfig(dataFolder.toFile(), players);
+
+        HeadlessServer.install();
+        HeadlessServer.setLive(true);
+        OpenPillars plugin = HeadlessServer.loadPlugin(dataFolder.toFile());
+
+        SimulationReport report;
+        try {
+            Simulator simulator = new Simulator(plugin, players, seed);
+            report = simulator.run(games);
+        } finally {
+            HeadlessServer.unloadPlugin(plugin);
+            HeadlessServer.removePlayers();
+            try (Stream<Path> files = Files.walk(dataFolder)) {
+                files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+
+        report.print(System.out);
+        System.exit(report.getViolations() > 0 ? 1 : 0);
+    }
+
+    /**
+     * Overrides the default config for fast, deadly games. Anything not set
+     * here keeps its default, so the simulation runs what servers run.
+     */
+    private static void writeConfig(File dataFolder, int players) throws IOException {
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("game.min-players", players);
+        config.set("game.max-players", players);
+        config.set("game.countdown", 3);
+        // Falling into the void kills, so games end
+        config.set("game.void-grace-period", 0);
+        config.save(new File(dataFolder, "config.yml"));
+    }
+
+    private SimulationReport run(int games) {
+        // Let the first standby pillars finish, they are part of every later lobby too
+        settle();
+        baselineBlocks = HeadlessServer.getBlockCount();
+        baselineTasks = HeadlessServer.getPendingTasks();
+        errors = HeadlessServer.getErrors();
+
+        int sampleInterval = Math.max(1, games / HEAP_SAMPLES);
+        int progressInterval = Math.max(1, games / PROGRESS_REPORTS);
+        for (currentGame = 1; currentGame <= games; currentGame++) {
+            play();
+            checkLobby();
+            report.gamePlayed();
+
+            if (currentGame % sampleInterval == 0) {
+                report.heapSample(currentGame, usedHeapAfterGc());
+            }
+            if (currentGame % progressInterval == 0) {
+                report.printProgress(System.out);
+            }
+        }
+        return report;
+    }
+
+    /**
+     * Plays one game from the first join until the arena is back in the lobby
+     */
+    private void play() {
+        for (Bot bot : bots) {
+            if (!bot.isOnline()) {
+                bot.connect();
+            }
+            if (!gameManager.addPlayer(bot.getPlayer())) {
+                violation(bot.getName() + " could not join the " + gameManager.getState() + " arena");
+            }
+        }
+        if (gameManager.getState() != GameState.STARTING) {
+            violation("Countdown did not start with " + gameManager.getPlayerCount() + " players");
+        }
+
+        boolean started = false;
+        int lastAlive = Integer.MAX_VALUE;
+        for (int ticks = 0; ; ticks++) {
+            if (ticks > maxTicksPerGame) {
+                violation("Stuck in " + gameManager.getState() + " after " + ticks + " ticks");
+                gameManager.stopAllGames();
+                return;
+            }
+            tick();
+
+            GameState state = gameManager.getState();
+            if (state == GameState.ACTIVE) {
+                started = true;
+                int alive = gameManager.getAliveCount();
+                if (alive > lastAlive) {
+                    violation("Alive players went up from " + lastAlive + " to " + alive);
+                }
+                lastAlive = alive;
+            } else if (state == GameState.LOBBY) {
+                if (!started) {
+                    violation("Countdown was cancelled");
+                    removeBots();
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Runs the lobby until the standby pillars are built and the world stopped changing
+     */
+    private void settle() {
+        int stable = 0;
+        int blocks = HeadlessServer.getBlockCount();
+        for (int ticks = 0; ticks < MAX_SETTLE_TICKS && stable < SETTLE_TICKS; ticks++) {
+            tick();
+            int now = HeadlessServer.getBlockCount();
+            stable = now == blocks ? stable + 1 : 0;
+            blocks = now;
+        }
+    }
+
+    /**
+     * Checks that the game left nothing behind once the lobby settled
+     */
+    private void checkLobby() {
+        settle();
+
+        if (gameManager.getState() != GameState.LOBBY) {
+            violation("Arena is " + gameManager.getState() + " instead of LOBBY after the game");
+            return;
+        }
+        if (gameManager.getPlayerCount() > 0 || !gameManager.getSpectators().isEmpty()) {
+            violation(gameManager.getPlayerCount() + " player(s) and " + gameManager.getSpectators().size()
+                    + " spectator(s) left in the arena");
+        }
+        for (Bot bot : bots) {
+            Player player = bot.getPlayer();
+            if (player == null) continue;
+
+            if (plugin.getArenaRouter().arenaOf(player) != null) {
+                violation(bot.getName() + " is still bound to the arena");
+            }
+            if (gameManager.getPillarGenerator().getPillarData(player.getUniqueId()) != null) {
+                violation(bot.getName() + " still has a pillar");
+            }
+        }
+        if (gameManager.getBlockJournal().size() > 0) {
+            violation(gameManager.getBlockJournal().size() + " journaled block(s) were not rolled back");
+        }
+
+        int blocks = HeadlessServer.getBlockCount();
+        if (blocks != baselineBlocks) {
+            violation("World has " + blocks + " blocks instead of " + baselineBlocks);
+        }
+        int tasks = HeadlessServer.getPendingTasks();
+        if (tasks != baselineTasks) {
+            violation(tasks + " scheduled task(s) instead of " + baselineTasks);
+        }
+        long thrown = HeadlessServer.getErrors();
+        if (thrown != errors) {
+            violation((thrown - errors) + " exception(s) in tasks or listeners");
+            errors = thrown;
+        }
+    }
+
+    /**
+     * Runs one server tick and lets every bot act in it
+     */
+    private void tick() {
+        long start = System.nanoTime();
+        HeadlessServer.tick();
+        for (Bot bot : bots) {
+            bot.tick(gameManager, bots);
+        }
+        report.tick(currentGame, System.nanoTime() - start);
+    }
+
+    private void removeBots() {
+        for (Bot bot : bots) {
+            if (bot.isOnline()) {
+                gameManager.removePlayer(bot.getPlayer());
+            }
+        }
+    }
+
+    private long usedHeapAfterGc() {
+        System.gc();
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private void violation(String description) {
+        report.violation(currentGame, description);
+    }
+}